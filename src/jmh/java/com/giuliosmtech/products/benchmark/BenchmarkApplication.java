@@ -0,0 +1,116 @@
+package com.giuliosmtech.products.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.giuliosmtech.products.SpringbootGraphqlApiApplication;
+import com.giuliosmtech.products.dto.ProductBulkResult;
+import com.giuliosmtech.products.dto.ProductRequest;
+import com.giuliosmtech.products.dto.ProductUpdateRequest;
+import com.giuliosmtech.products.enums.ProductStatus;
+import com.giuliosmtech.products.service.ProductService;
+
+/**
+ * Starts the application against a private H2 database and seeds it with a catalog of the requested size.
+ */
+public final class BenchmarkApplication {
+
+	private static final int SEED_CHUNK_SIZE = 1000;
+
+	private static final String DESCRIPTION = "Benchmark product description ".repeat(8);
+
+	private BenchmarkApplication() {
+	}
+
+	/**
+	 * Starts the application and seeds the catalog.
+	 * Every tenth product is BLOCKED, the rest are ACTIVE.
+	 * @param catalogSize the number of products to create
+	 * @return the running application context
+	 */
+	public static ConfigurableApplicationContext start(int catalogSize) {
+		return start(catalogSize, WebApplicationType.NONE);
+	}
+
+	/**
+	 * Starts the application with additional properties and seeds the catalog.
+	 * @param catalogSize the number of products to create
+	 * @param properties additional {@code key=value} properties
+	 * @return the running application context
+	 */
+	public static ConfigurableApplicationContext start(int catalogSize, String... properties) {
+		return start(catalogSize, WebApplicationType.NONE, properties);
+	}
+
+	/**
+	 * Starts the application with an embedded web server on a random port and seeds the catalog.
+	 * @param catalogSize the number of products to create
+	 * @param virtualThreads whether to serve requests on virtual threads
+	 * @return the running application context
+	 */
+	public static ConfigurableApplicationContext startServer(int catalogSize, boolean virtualThreads) {
+		return start(catalogSize, WebApplicationType.SERVLET,
+				"server.port=0",
+				"spring.threads.virtual.enabled=" + virtualThreads);
+	}
+
+	private static ConfigurableApplicationContext start(int catalogSize, WebApplicationType webApplicationType,
+			String... properties) {
+		ConfigurableApplicationContext context = new SpringApplicationBuilder(SpringbootGraphqlApiApplication.class)
+				.web(webApplicationType)
+				.properties(
+						"spring.main.banner-mode=off",
+						"spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+						"products.r2dbc.url=r2dbc:h2:mem:///benchmark",
+						"products.graphql.cost.client-budget=0",
+						"logging.level.root=WARN")
+				.properties(properties)
+				.run();
+		seed(context.getBean(ProductService.class), catalogSize);
+		return context;
+	}
+
+	/**
+	 * Returns the name of the n-th seeded product.
+	 * @param n the position of the product, starting at 0
+	 * @return the product name
+	 */
+	public static String productName(int n) {
+		return String.format("Product %06d", n);
+	}
+
+	private static void seed(ProductService productService, int catalogSize) {
+		for (int from = 0; from < catalogSize; from += SEED_CHUNK_SIZE) {
+			List<ProductRequest> requests = new ArrayList<>();
+			for (int n = from; n < Math.min(from + SEED_CHUNK_SIZE, catalogSize); n++) {
+				requests.add(request(n, ProductStatus.ACTIVE));
+			}
+			List<ProductBulkResult> created = productService.createAll(requests);
+
+			List<ProductUpdateRequest> blocked = new ArrayList<>();
+			for (ProductBulkResult result : created) {
+				int n = from + result.index();
+				if (n % 10 == 0) {
+					blocked.add(new ProductUpdateRequest(result.product().id(), request(n, ProductStatus.BLOCKED)));
+				}
+			}
+			productService.updateAll(blocked);
+		}
+	}
+
+	private static ProductRequest request(int n, ProductStatus status) {
+		return ProductRequest.builder()
+				.name(productName(n))
+				.description(DESCRIPTION)
+				.price(BigDecimal.valueOf(100 + (n % 9_900), 2))
+				.stock(n % 250)
+				.status(status)
+				.build();
+	}
+
+}
@@ -0,0 +1,122 @@
+package com.giuliosmtech.products.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Compares request throughput of platform-thread and virtual-thread request handling
+ * with many concurrent HTTP clients. Each invocation fires one request per client at once
+ * and waits for all of them; the {@code requests} secondary result is the request throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ConcurrentClientsBenchmark {
+
+	@Param({ "false", "true" })
+	private boolean virtualThreads;
+
+	@Param({ "1000", "2000" })
+	private int clients;
+
+	@Param({ "rest", "graphql" })
+	private String endpoint;
+
+	private ConfigurableApplicationContext context;
+
+	private HttpClient httpClient;
+
+	private ExecutorService clientExecutor;
+
+	private HttpRequest request;
+
+	@Setup
+	public void setUp() {
+		context = BenchmarkApplication.startServer(10_000, virtualThreads);
+		int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+		clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+		httpClient = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1)
+				.executor(clientExecutor)
+				.build();
+		request = switch (endpoint) {
+			case "rest" -> HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/products?limit=20"))
+					.GET()
+					.build();
+			case "graphql" -> HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/graphql"))
+					.header("Content-Type", "application/json")
+					.POST(HttpRequest.BodyPublishers.ofString(
+							"{\"query\":\"{ productsConnection(status: ACTIVE, first: 20) { edges { node { id name price } } } }\"}"))
+					.build();
+			default -> throw new IllegalArgumentException("Unknown endpoint " + endpoint);
+		};
+	}
+
+	@TearDown
+	public void tearDown() {
+		httpClient.close();
+		clientExecutor.close();
+		context.close();
+	}
+
+	@Benchmark
+	public int concurrentRequests(RequestCounter counter) {
+		List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(clients);
+		for (int i = 0; i < clients; i++) {
+			responses.add(httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+		}
+		int ok = 0;
+		for (CompletableFuture<HttpResponse<Void>> response : responses) {
+			if (response.join().statusCode() == 200) {
+				ok++;
+			}
+		}
+		counter.requests += clients;
+		return ok;
+	}
+
+	/**
+	 * Counts the requests sent, reported by JMH as a rate next to the invocation score.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class RequestCounter {
+
+		public long requests;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			requests = 0;
+		}
+
+	}
+
+}
@@ -0,0 +1,78 @@
+package com.giuliosmtech.products.benchmark;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.graphql.ExecutionGraphQlService;
+import org.springframework.graphql.support.DefaultExecutionGraphQlRequest;
+
+/**
+ * Benchmarks end-to-end execution of the schema's queries through {@link ExecutionGraphQlService},
+ * without the HTTP transport.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphQlExecutionBenchmark {
+
+	@Param({ "1000", "10000" })
+	private int catalogSize;
+
+	@Param({ "products", "activeProducts", "product", "productsByIds", "searchProducts", "productsConnection" })
+	private String query;
+
+	@Param({ "jpa", "r2dbc" })
+	private String dataAccess;
+
+	private ConfigurableApplicationContext context;
+
+	private ExecutionGraphQlService graphQlService;
+
+	private String document;
+
+	@Setup
+	public void setUp() {
+		context = BenchmarkApplication.start(catalogSize, "products.graphql.data-access=" + dataAccess);
+		graphQlService = context.getBean(ExecutionGraphQlService.class);
+		document = switch (query) {
+			case "products" -> "{ products(status: BLOCKED) { id name price stock status } }";
+			case "activeProducts" -> "{ activeProducts { id name description price stock status createdAt updatedAt } }";
+			case "product" -> "{ product(id: 1) { id name description price stock status } }";
+			case "productsByIds" -> "{ productsByIds(ids: [1, 2, 3, 4, 5, 6, 7, 8, 9, 10]) { id name price } }";
+			case "searchProducts" -> "{ searchProducts(name: \"00050\") { id name price } }";
+			case "productsConnection" -> "{ productsConnection(status: ACTIVE, first: 20) { edges { cursor node { id name price } } pageInfo { hasNextPage endCursor } } }";
+			default -> throw new IllegalArgumentException("Unknown query " + query);
+		};
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public Map<String, Object> execute() {
+		return graphQlService
+				.execute(new DefaultExecutionGraphQlRequest(document, null, null, null, UUID.randomUUID().toString(), null))
+				.block()
+				.toMap();
+	}
+
+}
@@ -0,0 +1,88 @@
+package com.giuliosmtech.products.benchmark;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+
+import com.giuliosmtech.products.entity.Product;
+import com.giuliosmtech.products.enums.ProductStatus;
+import com.giuliosmtech.products.repository.ProductRepository;
+
+/**
+ * Benchmarks the product repository queries against a seeded H2 catalog.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductRepositoryBenchmark {
+
+	@Param({ "1000", "10000" })
+	private int catalogSize;
+
+	private ConfigurableApplicationContext context;
+
+	private ProductRepository productRepository;
+
+	private long minId;
+
+	private long middleId;
+
+	@Setup
+	public void setUp() {
+		context = BenchmarkApplication.start(catalogSize);
+		productRepository = context.getBean(ProductRepository.class);
+		List<Product> first = productRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(1));
+		minId = first.get(0).getId();
+		middleId = minId + catalogSize / 2;
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public List<Product> findAllByStatus() {
+		return productRepository.findAllByStatus(ProductStatus.ACTIVE);
+	}
+
+	@Benchmark
+	public Optional<Product> findById() {
+		return productRepository.findById(minId + ThreadLocalRandom.current().nextInt(catalogSize));
+	}
+
+	@Benchmark
+	public List<Product> findByName() {
+		return productRepository.findByName(BenchmarkApplication.productName(catalogSize / 2));
+	}
+
+	@Benchmark
+	public List<Product> findByNameContainingIgnoreCase() {
+		return productRepository.findByNameContainingIgnoreCase("00050");
+	}
+
+	@Benchmark
+	public List<Product> keysetPageByStatus() {
+		return productRepository.findByStatusAndIdGreaterThanOrderByIdAsc(ProductStatus.ACTIVE, middleId, Limit.of(20));
+	}
+
+}
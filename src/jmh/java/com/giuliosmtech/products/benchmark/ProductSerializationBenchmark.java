@@ -0,0 +1,77 @@
+package com.giuliosmtech.products.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.giuliosmtech.products.dto.ProductResponse;
+import com.giuliosmtech.products.enums.ProductStatus;
+
+/**
+ * Benchmarks JSON serialization of large product listings as written by the REST endpoints.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductSerializationBenchmark {
+
+	@Param({ "100", "10000" })
+	private int listSize;
+
+	private ObjectMapper objectMapper;
+
+	private List<ProductResponse> products;
+
+	@Setup
+	public void setUp() {
+		objectMapper = Jackson2ObjectMapperBuilder.json().build();
+		products = new ArrayList<>(listSize);
+		LocalDateTime now = LocalDateTime.now();
+		for (int n = 0; n < listSize; n++) {
+			products.add(ProductResponse.builder()
+					.id((long) n)
+					.name(BenchmarkApplication.productName(n))
+					.description("Benchmark product description ".repeat(8))
+					.price(BigDecimal.valueOf(100 + n, 2))
+					.stock(n % 250)
+					.status(ProductStatus.ACTIVE)
+					.createdAt(now)
+					.updatedAt(now)
+					.build());
+		}
+	}
+
+	@Benchmark
+	public byte[] serializeList() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(products);
+	}
+
+	@Benchmark
+	public void serializeNdjson(Blackhole blackhole) throws JsonProcessingException {
+		for (ProductResponse product : products) {
+			blackhole.consume(objectMapper.writeValueAsBytes(product));
+		}
+	}
+
+}
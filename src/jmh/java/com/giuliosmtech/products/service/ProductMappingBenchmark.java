@@ -0,0 +1,96 @@
+package com.giuliosmtech.products.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.giuliosmtech.products.benchmark.BenchmarkApplication;
+import com.giuliosmtech.products.dto.ProductRequest;
+import com.giuliosmtech.products.dto.ProductResponse;
+import com.giuliosmtech.products.entity.Product;
+import com.giuliosmtech.products.enums.ProductStatus;
+
+/**
+ * Benchmarks the entity/DTO mapping in {@link ProductServiceImpl}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductMappingBenchmark {
+
+	private static final int LIST_SIZE = 1000;
+
+	private ConfigurableApplicationContext context;
+
+	private ProductServiceImpl productService;
+
+	private Product product;
+
+	private List<Product> products;
+
+	private ProductRequest productRequest;
+
+	@Setup
+	public void setUp() {
+		context = BenchmarkApplication.start(0);
+		productService = (ProductServiceImpl) AopProxyUtils.getSingletonTarget(context.getBean(ProductService.class));
+		LocalDateTime now = LocalDateTime.now();
+		products = new ArrayList<>(LIST_SIZE);
+		for (int n = 0; n < LIST_SIZE; n++) {
+			products.add(Product.builder()
+					.id((long) n)
+					.name(BenchmarkApplication.productName(n))
+					.description("Benchmark product description")
+					.price(BigDecimal.valueOf(100 + n, 2))
+					.stock(n)
+					.status(ProductStatus.ACTIVE)
+					.createdAt(now)
+					.updatedAt(now)
+					.build());
+		}
+		product = products.get(0);
+		productRequest = new ProductRequest("Product", "Benchmark product description", BigDecimal.TEN, 5, ProductStatus.ACTIVE);
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public ProductResponse toResponse() {
+		return productService.toResponse(product);
+	}
+
+	@Benchmark
+	public Product toEntity() {
+		return productService.toEntity(productRequest);
+	}
+
+	@Benchmark
+	public List<ProductResponse> toResponseList() {
+		return products.stream()
+				.map(productService::toResponse)
+				.toList();
+	}
+
+}
@@ -0,0 +1,109 @@
+package com.giuliosmtech.products.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.graphql.execution.ErrorType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import graphql.ExecutionInput;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded cache of parsed and validated GraphQL documents, keyed by the SHA-256 hash of the query text.
+ * <p>
+ * Also implements Apollo automatic persisted queries: a request carrying
+ * {@code extensions.persistedQuery.sha256Hash} without query text is served from the cache,
+ * or answered with {@code PersistedQueryNotFound} so the client resends the full text,
+ * which then registers the document under its hash. Hit/miss counters are published as
+ * {@code cache.*} metrics tagged with {@code cache=graphql.documents}.
+ */
+@Component
+public class GraphQlDocumentCache implements PreparsedDocumentProvider {
+
+	private static final String PERSISTED_QUERY = "persistedQuery";
+
+	private static final String SHA256_HASH = "sha256Hash";
+
+	private final Cache<String, PreparsedDocumentEntry> documents;
+
+	public GraphQlDocumentCache(MeterRegistry meterRegistry,
+			@Value("${products.graphql.document-cache.maximum-size:1000}") long maximumSize) {
+		this.documents = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(meterRegistry, documents, "graphql.documents");
+	}
+
+	@Override
+	public CompletableFuture<PreparsedDocumentEntry> getDocumentAsync(ExecutionInput executionInput,
+			Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+		String query = executionInput.getQuery();
+		String persistedHash = persistedQueryHash(executionInput);
+		if (persistedHash == null) {
+			return CompletableFuture.completedFuture(
+					documents.get(sha256(query), hash -> parseAndValidateFunction.apply(executionInput)));
+		}
+
+		if (!StringUtils.hasText(query) || PersistedQuerySupport.PERSISTED_QUERY_MARKER.equals(query)) {
+			PreparsedDocumentEntry entry = documents.getIfPresent(persistedHash);
+			return CompletableFuture.completedFuture(
+					entry != null ? entry : errorEntry("PersistedQueryNotFound", "PERSISTED_QUERY_NOT_FOUND", persistedHash));
+		}
+		if (!persistedHash.equals(sha256(query))) {
+			return CompletableFuture.completedFuture(errorEntry("PersistedQueryIdInvalid", "PERSISTED_QUERY_ID_INVALID", persistedHash));
+		}
+		return CompletableFuture.completedFuture(
+				documents.get(persistedHash, hash -> parseAndValidateFunction.apply(executionInput)));
+	}
+
+	/**
+	 * Reads the Apollo persisted query hash from the request extensions.
+	 * @return the lower-case hash, or null when the request does not use persisted queries
+	 */
+	private static String persistedQueryHash(ExecutionInput executionInput) {
+		if (executionInput.getExtensions().get(PERSISTED_QUERY) instanceof Map<?, ?> persistedQuery
+				&& persistedQuery.get(SHA256_HASH) instanceof String hash) {
+			return hash.toLowerCase(Locale.ROOT);
+		}
+		return null;
+	}
+
+	/**
+	 * Reports a persisted query problem with the message and extensions Apollo clients look for.
+	 */
+	private static PreparsedDocumentEntry errorEntry(String message, String code, String persistedHash) {
+		return new PreparsedDocumentEntry(GraphqlErrorBuilder.newError()
+				.message(message)
+				.errorType(ErrorType.BAD_REQUEST)
+				.extensions(Map.of("code", code, "persistedQueryId", persistedHash))
+				.build());
+	}
+
+	private static String sha256(String query) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			return HexFormat.of().formatHex(digest.digest(query.getBytes(StandardCharsets.UTF_8)));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+
+}
@@ -0,0 +1,91 @@
+package com.giuliosmtech.products.cache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.giuliosmtech.products.dto.ProductResponse;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded read-through cache of product responses keyed by product ID.
+ * <p>
+ * Concurrent misses for the same ID are coalesced into a single load, and
+ * hit/miss/eviction counters are published as {@code cache.*} metrics tagged
+ * with {@code cache=products}.
+ */
+@Component
+public class ProductCache {
+
+	private final Cache<Long, ProductResponse> cache;
+
+	public ProductCache(MeterRegistry meterRegistry,
+			@Value("${products.cache.maximum-size:10000}") long maximumSize,
+			@Value("${products.cache.expire-after-write:10m}") Duration expireAfterWrite) {
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfterWrite(expireAfterWrite)
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(meterRegistry, cache, "products");
+	}
+
+	/**
+	 * Returns the cached product, loading it once on a miss.
+	 * Absent products are not cached.
+	 * @param id the product ID
+	 * @param loader loads the product, returning null when it does not exist
+	 * @return optional containing the product if found
+	 */
+	public Optional<ProductResponse> get(Long id, Function<Long, ProductResponse> loader) {
+		return Optional.ofNullable(cache.get(id, loader));
+	}
+
+	/**
+	 * Returns the cached products, loading all misses with a single call.
+	 * Absent products are not cached and are missing from the result.
+	 * @param ids the product IDs
+	 * @param loader loads the missing products, keyed by ID
+	 * @return the products found, keyed by ID
+	 */
+	public Map<Long, ProductResponse> getAll(Iterable<Long> ids,
+			Function<Set<? extends Long>, Map<Long, ProductResponse>> loader) {
+		return cache.getAll(ids, loader);
+	}
+
+	/**
+	 * Returns the cached products without loading misses.
+	 * @param ids the product IDs
+	 * @return the cached products, keyed by ID
+	 */
+	public Map<Long, ProductResponse> getAllPresent(Iterable<Long> ids) {
+		return cache.getAllPresent(ids);
+	}
+
+	/**
+	 * Removes a product from the cache; waits for any in-flight load of the same ID.
+	 * @param id the product ID
+	 */
+	public void invalidate(Long id) {
+		cache.invalidate(id);
+	}
+
+	/**
+	 * Returns a snapshot of the cache counters.
+	 * @return the cache statistics
+	 */
+	public CacheStats stats() {
+		return cache.stats();
+	}
+
+}
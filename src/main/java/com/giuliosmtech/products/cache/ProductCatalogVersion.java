@@ -0,0 +1,98 @@
+package com.giuliosmtech.products.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.stereotype.Component;
+
+import com.giuliosmtech.products.enums.ProductStatus;
+
+/**
+ * Monotonic version counters for the product catalog, one per status plus a
+ * catalog-wide counter. Mutations bump the counters after they commit, so any
+ * data derived from an older version can be recognised as stale.
+ * <p>
+ * Counters restart from zero with the process, so the time the process started
+ * is exposed as an epoch that, together with a counter, identifies a version uniquely.
+ * The time of the last change is tracked alongside each counter.
+ */
+@Component
+public class ProductCatalogVersion {
+
+	private final long epoch = System.currentTimeMillis();
+
+	private final AtomicLongArray statusVersions = new AtomicLongArray(ProductStatus.values().length);
+
+	private final AtomicLongArray statusLastModified = new AtomicLongArray(ProductStatus.values().length);
+
+	private final AtomicLong catalogVersion = new AtomicLong();
+
+	private final AtomicLong catalogLastModified = new AtomicLong(epoch);
+
+	public ProductCatalogVersion() {
+		for (int i = 0; i < statusLastModified.length(); i++) {
+			statusLastModified.set(i, epoch);
+		}
+	}
+
+	/**
+	 * Records a change affecting products with the given statuses.
+	 * @param statuses the statuses whose listings changed
+	 */
+	public void bump(ProductStatus... statuses) {
+		long now = System.currentTimeMillis();
+		for (ProductStatus status : statuses) {
+			if (status != null) {
+				statusVersions.incrementAndGet(status.ordinal());
+				statusLastModified.accumulateAndGet(status.ordinal(), now, Math::max);
+			}
+		}
+		catalogVersion.incrementAndGet();
+		catalogLastModified.accumulateAndGet(now, Math::max);
+	}
+
+	/**
+	 * Returns the current version of the listing for a status.
+	 * @param status the product status
+	 * @return the status version
+	 */
+	public long get(ProductStatus status) {
+		return statusVersions.get(status.ordinal());
+	}
+
+	/**
+	 * Returns the current catalog-wide version.
+	 * @return the catalog version
+	 */
+	public long get() {
+		return catalogVersion.get();
+	}
+
+	/**
+	 * Returns the time of the last change to the listing for a status,
+	 * or the start of the process if it has not changed since.
+	 * @param status the product status
+	 * @return the epoch milliseconds of the last change
+	 */
+	public long lastModified(ProductStatus status) {
+		return statusLastModified.get(status.ordinal());
+	}
+
+	/**
+	 * Returns the time of the last change to the catalog,
+	 * or the start of the process if it has not changed since.
+	 * @return the epoch milliseconds of the last change
+	 */
+	public long lastModified() {
+		return catalogLastModified.get();
+	}
+
+	/**
+	 * Returns the time the counters started from zero.
+	 * @return the epoch milliseconds the process started at
+	 */
+	public long epoch() {
+		return epoch;
+	}
+
+}
@@ -0,0 +1,110 @@
+package com.giuliosmtech.products.cache;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.giuliosmtech.products.enums.ProductStatus;
+import com.giuliosmtech.products.service.ProductService;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pre-serialized JSON snapshots of the product listing for each status.
+ * <p>
+ * Each snapshot records the {@link ProductCatalogVersion} it was built from and is
+ * only served while that version is current. A stale or missing snapshot is rebuilt
+ * on a background thread while callers fall back to the regular listing path.
+ * Snapshots are immutable and published through an atomic reference, so readers
+ * never take a lock.
+ */
+@Slf4j
+@Component
+public class ProductListingSnapshots {
+
+	/**
+	 * Encoded listing for a status at a given catalog version.
+	 */
+	private record Snapshot(long version, byte[] json) {
+	}
+
+	private final ProductService productService;
+
+	private final ProductCatalogVersion catalogVersion;
+
+	private final ObjectMapper objectMapper;
+
+	private final Map<ProductStatus, AtomicReference<Snapshot>> snapshots = new EnumMap<>(ProductStatus.class);
+
+	private final Map<ProductStatus, AtomicBoolean> rebuildsPending = new EnumMap<>(ProductStatus.class);
+
+	private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "product-snapshots");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	public ProductListingSnapshots(ProductService productService, ProductCatalogVersion catalogVersion,
+			ObjectMapper objectMapper) {
+		this.productService = productService;
+		this.catalogVersion = catalogVersion;
+		this.objectMapper = objectMapper;
+		for (ProductStatus status : ProductStatus.values()) {
+			snapshots.put(status, new AtomicReference<>());
+			rebuildsPending.put(status, new AtomicBoolean());
+		}
+	}
+
+	/**
+	 * Returns the encoded listing for a status if an up-to-date snapshot exists,
+	 * otherwise schedules a rebuild and returns empty.
+	 * @param status the product status
+	 * @return the JSON bytes of the listing, if current
+	 */
+	public Optional<byte[]> get(ProductStatus status) {
+		Snapshot snapshot = snapshots.get(status).get();
+		if (snapshot != null && snapshot.version() == catalogVersion.get(status)) {
+			return Optional.of(snapshot.json());
+		}
+		scheduleRebuild(status);
+		return Optional.empty();
+	}
+
+	/**
+	 * Queues a rebuild unless one is already pending for the status.
+	 * @param status the product status
+	 */
+	private void scheduleRebuild(ProductStatus status) {
+		if (rebuildsPending.get(status).compareAndSet(false, true)) {
+			executor.execute(() -> rebuild(status));
+		}
+	}
+
+	private void rebuild(ProductStatus status) {
+		rebuildsPending.get(status).set(false);
+		// read the version before the query so changes committed meanwhile leave the snapshot stale
+		long version = catalogVersion.get(status);
+		try {
+			byte[] json = objectMapper.writeValueAsBytes(productService.getByStatus(status));
+			snapshots.get(status).set(new Snapshot(version, json));
+			log.debug("Rebuilt {} snapshot at version {} ({} bytes)", status, version, json.length);
+		} catch (JsonProcessingException | RuntimeException e) {
+			log.error("Failed to rebuild {} snapshot", status, e);
+		}
+	}
+
+	@PreDestroy
+	void shutdown() {
+		executor.shutdownNow();
+	}
+
+}
@@ -0,0 +1,230 @@
+package com.giuliosmtech.products.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.giuliosmtech.products.dto.ProductResponse;
+import com.giuliosmtech.products.enums.ProductOrder;
+import com.giuliosmtech.products.enums.ProductStatus;
+
+/**
+ * Bounded top-k lists of the cheapest and the lowest-stock products of each status,
+ * kept up to date by the mutations so the hottest sorted listings need no query.
+ * <p>
+ * Each list holds an exact prefix of its ordering: at most {@code products.top-k.capacity}
+ * products, plus whether that is the whole status. A change to a product drops its
+ * entry and re-inserts it only if it still sorts before the last one kept, so the list
+ * may shrink but never holds a product out of order. A list too short to answer a
+ * request is refilled from the database; a refill that raced with a mutation is
+ * discarded, since the rows it read may predate that mutation.
+ */
+@Component
+public class ProductTopK {
+
+	private static final Comparator<ProductResponse> BY_ID = Comparator.comparing(ProductResponse::id);
+
+	private final int capacity;
+
+	private final Map<ProductStatus, Map<ProductOrder, TopList>> lists = new EnumMap<>(ProductStatus.class);
+
+	public ProductTopK(@Value("${products.top-k.capacity:100}") int capacity) {
+		this.capacity = capacity;
+		for (ProductStatus status : ProductStatus.values()) {
+			Map<ProductOrder, TopList> byOrder = new EnumMap<>(ProductOrder.class);
+			byOrder.put(ProductOrder.PRICE, new TopList(Comparator.comparing(ProductResponse::price).thenComparing(BY_ID)));
+			byOrder.put(ProductOrder.STOCK, new TopList(Comparator.comparing(ProductResponse::stock).thenComparing(BY_ID)));
+			lists.put(status, byOrder);
+		}
+	}
+
+	/**
+	 * Returns the number of products a refill should read, at least.
+	 * @return the capacity of each list
+	 */
+	public int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * Tells whether the order is kept in memory.
+	 * @param order the order
+	 * @return true for the orders served by this class
+	 */
+	public boolean supports(ProductOrder order) {
+		return order == ProductOrder.PRICE || order == ProductOrder.STOCK;
+	}
+
+	/**
+	 * Returns the first products of a status in the given order, if the list can tell.
+	 * @param status the product status
+	 * @param order a supported order
+	 * @param limit the number of products requested
+	 * @return the first {@code limit} products, or empty when the list must be refilled first
+	 */
+	public Optional<List<ProductResponse>> first(ProductStatus status, ProductOrder order, int limit) {
+		return list(status, order).first(limit);
+	}
+
+	/**
+	 * Returns the generation of a list, to be passed to {@link #fill} after reading the database.
+	 * @param status the product status
+	 * @param order a supported order
+	 * @return the number of changes applied to the list so far
+	 */
+	public long generation(ProductStatus status, ProductOrder order) {
+		return list(status, order).generation();
+	}
+
+	/**
+	 * Replaces a list with the first products read from the database, unless the list
+	 * changed since {@code generation} was read.
+	 * @param status the product status
+	 * @param order a supported order
+	 * @param generation the generation read before the query
+	 * @param products the first products of the status in order
+	 * @param complete whether the products are all those of the status
+	 */
+	public void fill(ProductStatus status, ProductOrder order, long generation, List<ProductResponse> products,
+			boolean complete) {
+		list(status, order).fill(generation, products, complete);
+	}
+
+	/**
+	 * Records a created or changed product. Only the lists of the status it left and
+	 * the status it has now change, so refills of the other lists are kept.
+	 * @param product the product as committed
+	 * @param previousStatus the status the product had before the change, or null if it is new
+	 */
+	public void put(ProductResponse product, ProductStatus previousStatus) {
+		if (previousStatus != null && previousStatus != product.status()) {
+			removeAll(previousStatus, List.of(product.id()));
+		}
+		for (TopList list : lists.get(product.status()).values()) {
+			list.put(product);
+		}
+	}
+
+	/**
+	 * Records products that left a status, without their row data.
+	 * @param status the status the products had
+	 * @param ids the IDs of the products
+	 */
+	public void removeAll(ProductStatus status, Collection<Long> ids) {
+		for (TopList list : lists.get(status).values()) {
+			list.removeAll(ids);
+		}
+	}
+
+	/**
+	 * Forgets the lists of a status, after a change whose products are not known.
+	 * @param status the product status
+	 */
+	public void invalidate(ProductStatus status) {
+		for (TopList list : lists.get(status).values()) {
+			list.clear();
+		}
+	}
+
+	private TopList list(ProductStatus status, ProductOrder order) {
+		TopList list = lists.get(status).get(order);
+		if (list == null) {
+			throw new IllegalArgumentException("Order not kept in memory: " + order);
+		}
+		return list;
+	}
+
+	/**
+	 * One sorted list, guarded by its own monitor; every change bumps its generation.
+	 */
+	private final class TopList {
+
+		private final TreeSet<ProductResponse> products;
+
+		private final Map<Long, ProductResponse> byId = new HashMap<>();
+
+		private boolean complete;
+
+		private long generation;
+
+		TopList(Comparator<ProductResponse> comparator) {
+			this.products = new TreeSet<>(comparator);
+		}
+
+		synchronized Optional<List<ProductResponse>> first(int limit) {
+			if (limit > products.size() && !complete) {
+				return Optional.empty();
+			}
+			List<ProductResponse> first = new ArrayList<>(Math.min(limit, products.size()));
+			for (ProductResponse product : products) {
+				if (first.size() == limit) {
+					break;
+				}
+				first.add(product);
+			}
+			return Optional.of(first);
+		}
+
+		synchronized long generation() {
+			return generation;
+		}
+
+		synchronized void fill(long expected, List<ProductResponse> first, boolean whole) {
+			if (expected != generation) {
+				return;
+			}
+			clear();
+			for (ProductResponse product : first.subList(0, Math.min(first.size(), capacity))) {
+				products.add(product);
+				byId.put(product.id(), product);
+			}
+			complete = whole && first.size() <= capacity;
+		}
+
+		synchronized void put(ProductResponse product) {
+			generation++;
+			drop(product.id());
+			if (!complete && (products.isEmpty() || products.comparator().compare(product, products.last()) > 0)) {
+				return;
+			}
+			products.add(product);
+			byId.put(product.id(), product);
+			if (products.size() > capacity) {
+				byId.remove(products.pollLast().id());
+				complete = false;
+			}
+		}
+
+		synchronized void removeAll(Collection<Long> ids) {
+			generation++;
+			for (Long id : ids) {
+				drop(id);
+			}
+		}
+
+		private void drop(Long id) {
+			ProductResponse product = byId.remove(id);
+			if (product != null) {
+				products.remove(product);
+			}
+		}
+
+		synchronized void clear() {
+			generation++;
+			products.clear();
+			byId.clear();
+			complete = false;
+		}
+
+	}
+
+}
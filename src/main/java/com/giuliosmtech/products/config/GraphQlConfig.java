@@ -0,0 +1,23 @@
+package com.giuliosmtech.products.config;
+
+import org.springframework.boot.autoconfigure.graphql.GraphQlSourceBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.giuliosmtech.products.cache.GraphQlDocumentCache;
+
+/**
+ * GraphQL engine configuration.
+ */
+@Configuration(proxyBeanMethods = false)
+public class GraphQlConfig {
+
+	/**
+	 * Serves parsed and validated documents, including persisted queries, from {@link GraphQlDocumentCache}.
+	 */
+	@Bean
+	GraphQlSourceBuilderCustomizer documentCacheCustomizer(GraphQlDocumentCache documentCache) {
+		return builder -> builder.configureGraphQl(graphQl -> graphQl.preparsedDocumentProvider(documentCache));
+	}
+
+}
@@ -4,27 +4,64 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import lombok.extern.slf4j.Slf4j;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.giuliosmtech.products.cache.ProductCatalogVersion;
+import com.giuliosmtech.products.cache.ProductListingSnapshots;
+
+import com.giuliosmtech.products.dto.CatalogStats;
+import com.giuliosmtech.products.dto.ProductBulkResult;
+import com.giuliosmtech.products.dto.ProductChangeFeed;
+import com.giuliosmtech.products.dto.ProductConnection;
+import com.giuliosmtech.products.dto.ProductFilter;
+import com.giuliosmtech.products.dto.ProductPatch;
 import com.giuliosmtech.products.dto.ProductRequest;
 import com.giuliosmtech.products.dto.ProductResponse;
+import com.giuliosmtech.products.dto.ProductStatusChangeRequest;
+import com.giuliosmtech.products.dto.ProductUpdateRequest;
+import com.giuliosmtech.products.dto.StockAdjustmentRequest;
+import com.giuliosmtech.products.enums.ProductOrder;
 import com.giuliosmtech.products.enums.ProductStatus;
+import com.giuliosmtech.products.exceptions.InvalidProductFilterException;
 import com.giuliosmtech.products.exceptions.InvalidProductStatusException;
+import com.giuliosmtech.products.exceptions.ProductPreconditionFailedException;
+import com.giuliosmtech.products.repository.ProductVersionProjection;
 import com.giuliosmtech.products.service.ProductService;
 
 @Slf4j
@@ -36,8 +73,18 @@ public class ProductController {
 	
 	private final ProductService productService;
 	
-	public ProductController(ProductService productService) {
+	private final ProductListingSnapshots listingSnapshots;
+	
+	private final ProductCatalogVersion catalogVersion;
+	
+	private final ObjectMapper objectMapper;
+	
+	public ProductController(ProductService productService, ProductListingSnapshots listingSnapshots,
+			ProductCatalogVersion catalogVersion, ObjectMapper objectMapper) {
 		this.productService = productService;
+		this.listingSnapshots = listingSnapshots;
+		this.catalogVersion = catalogVersion;
+		this.objectMapper = objectMapper;
 	}
 	
 	@PostMapping
@@ -59,34 +106,116 @@ public class ProductController {
 		
 	}
 	
+	@PostMapping("/bulk")
+	/**
+	 * Creates many products in one request.
+	 * @param productRequests the products to create
+	 * @return one result per product, in request order
+	 */
+	@Operation(summary = "Create products in bulk", description = "Creates many products using batched inserts; invalid items are reported individually")
+	@ApiResponse(responseCode = "200", description = "Per-item results")
+	public ResponseEntity<List<ProductBulkResult>> createAll(@NotNull @RequestBody List<ProductRequest> productRequests) {
+		
+		List<ProductBulkResult> results = productService.createAll(productRequests);
+		
+		return ResponseEntity.ok(results);
+		
+	}
+	
+	@PutMapping("/bulk")
+	/**
+	 * Updates many products in one request.
+	 * @param updates the products to update
+	 * @return one result per product, in request order
+	 */
+	@Operation(summary = "Update products in bulk", description = "Updates many products using batched updates; invalid items are reported individually")
+	@ApiResponse(responseCode = "200", description = "Per-item results")
+	public ResponseEntity<List<ProductBulkResult>> updateAll(@NotNull @RequestBody List<ProductUpdateRequest> updates) {
+		
+		List<ProductBulkResult> results = productService.updateAll(updates);
+		
+		return ResponseEntity.ok(results);
+		
+	}
+	
 	@PutMapping("/{id}")
 	/**
 	 * Updates an existing product.
 	 * @param id the product ID
 	 * @param productRequest the updated product data
+	 * @param ifMatch the ETag of the product version the update was based on, if any
 	 * @return the updated product
 	 */
-	@Operation(summary = "Update a product", description = "Updates an existing product by ID")
+	@Operation(summary = "Update a product", description = "Updates an existing product by ID. "
+			+ "Send the product's ETag in If-Match so the update is refused if the product changed since it was read")
 	@ApiResponses(value = {
 			@ApiResponse(responseCode = "200", description = "Product updated successfully"),
 			@ApiResponse(responseCode = "400", description = "Invalid input data"),
-			@ApiResponse(responseCode = "404", description = "Product not found")
+			@ApiResponse(responseCode = "404", description = "Product not found"),
+			@ApiResponse(responseCode = "409", description = "Name already used by another product, or product modified concurrently"),
+			@ApiResponse(responseCode = "412", description = "Product is not at a version named by If-Match")
 	})
-	public ResponseEntity<ProductResponse> update(@NotNull @PathVariable Long id, @Valid @RequestBody ProductRequest productRequest) {
+	public ResponseEntity<ProductResponse> update(@NotNull @PathVariable Long id, @Valid @RequestBody ProductRequest productRequest,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 		
 		try {
 			
 		  ProductStatus.valueOf(productRequest.status().name());
 
-			ProductResponse productResponse = productService.update(id, productRequest);
-			return ResponseEntity.ok(productResponse);
+			ProductResponse productResponse = productService.update(id, productRequest, expectedVersions(id, ifMatch));
+			return ResponseEntity.ok()
+					.eTag(productETag(productResponse.id(), productResponse.version()))
+					.body(productResponse);
 		
 		 } catch (IllegalArgumentException e) {
 			 log.error("Invalid ProductStatus value");
 	            throw new InvalidProductStatusException("Invalid ProductStatus value", e.getCause());
-	     } catch (RuntimeException e) {
-			return ResponseEntity.notFound().build();
-		}
+	     }
+		
+	}
+	
+	@PatchMapping("/{id}")
+	/**
+	 * Partially updates an existing product.
+	 * @param id the product ID
+	 * @param patch the fields to change; absent fields are left unchanged
+	 * @return the patched product
+	 */
+	@Operation(summary = "Patch a product", description = "Changes only the fields present in the request; nothing is written when they already have the requested values")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Product patched successfully"),
+			@ApiResponse(responseCode = "400", description = "Invalid input data"),
+			@ApiResponse(responseCode = "404", description = "Product not found"),
+			@ApiResponse(responseCode = "409", description = "Name already used, or product kept being modified concurrently")
+	})
+	public ResponseEntity<ProductResponse> patch(@NotNull @PathVariable Long id, @Valid @RequestBody ProductPatch patch) {
+		
+		ProductResponse productResponse = productService.patch(id, patch);
+		
+		return ResponseEntity.ok(productResponse);
+		
+	}
+	
+	@PostMapping("/{id}/stock")
+	/**
+	 * Adjusts the stock of a product by a relative amount.
+	 * @param id the product ID
+	 * @param adjustment the stock change
+	 * @return the product with its new stock
+	 */
+	@Operation(summary = "Adjust product stock", description = "Adds the delta to the stock in one atomic update; the stock never goes below zero")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Stock adjusted"),
+			@ApiResponse(responseCode = "400", description = "Invalid input data"),
+			@ApiResponse(responseCode = "404", description = "Product not found"),
+			@ApiResponse(responseCode = "409", description = "Insufficient stock")
+	})
+	public ResponseEntity<ProductResponse> adjustStock(@NotNull @PathVariable Long id,
+			@Valid @RequestBody StockAdjustmentRequest adjustment) {
+		
+		ProductResponse productResponse = productService.adjustStock(id, adjustment.delta());
+		
+		return ResponseEntity.ok(productResponse);
 		
 	}
 	
@@ -96,52 +225,220 @@ public class ProductController {
 	 * @param id the product ID
 	 * @return no content response
 	 */
-	@Operation(summary = "Delete a product", description = "Soft deletes a product by setting its deleted flag to true")
+	@Operation(summary = "Delete a product", description = "Soft deletes a product by setting its status to DELETED. "
+			+ "Deleting a product that is already deleted answers 404, as no product was deleted")
 	@ApiResponses(value = {
 			@ApiResponse(responseCode = "204", description = "Product deleted successfully"),
-			@ApiResponse(responseCode = "404", description = "Product not found")
+			@ApiResponse(responseCode = "404", description = "Product not found or already deleted")
 	})
 	public ResponseEntity<Void> delete(@NotNull @PathVariable Long id) {
 		
-		try {
-			productService.delete(id);
-			return ResponseEntity.noContent().build();
-		} catch (RuntimeException e) {
+		if (productService.delete(id) == 0) {
 			return ResponseEntity.notFound().build();
 		}
+		return ResponseEntity.noContent().build();
 		
 	}
 	
-	@GetMapping("/active")
+	@PutMapping("/status")
 	/**
-	 * Retrieves all active products.
-	 * @return list of active products
+	 * Moves many products to a status, selected by ID or by filter.
+	 * @param request the products to move and their new status
+	 * @return the number of products moved
 	 */
-	@Operation(summary = "Get all active products", description = "Retrieves a list of products with ACTIVE status")
-	@ApiResponse(responseCode = "200", description = "List of active products")
-	public ResponseEntity<List<ProductResponse>> getActiveProducts() {
+	@Operation(summary = "Change the status of products in bulk", description = "Moves the products given by ids, or matching a filter, to a status with set-based updates")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Number of products moved"),
+			@ApiResponse(responseCode = "400", description = "Neither or both of ids and filter given, or invalid filter")
+	})
+	public ResponseEntity<Integer> setStatus(@Valid @RequestBody ProductStatusChangeRequest request) {
 		
-		List<ProductResponse> products = productService.getAllActive();
+		if ((request.ids() == null) == (request.filter() == null)) {
+			throw new InvalidProductFilterException("Exactly one of ids and filter must be given");
+		}
+		int moved = request.ids() != null
+				? productService.setStatus(request.ids(), request.status())
+				: productService.setStatusWhere(request.filter(), request.status());
 		
-		return ResponseEntity.ok(products);
+		return ResponseEntity.ok(moved);
 		
 	}
+	
+	@GetMapping
+	/**
+	 * Retrieves a page of products using keyset pagination.
+	 * @param status optional status filter
+	 * @param limit the page size
+	 * @param after the cursor of the last product already seen
+	 * @param webRequest the request, checked for preconditions
+	 * @return the page of products, or 304 when the client's copy is current
+	 */
+	@Operation(summary = "Get a page of products", description = "Retrieves products ordered by ID using cursor-based pagination, optionally filtered by status")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Page of products"),
+			@ApiResponse(responseCode = "304", description = "Page not modified"),
+			@ApiResponse(responseCode = "400", description = "Invalid page size or cursor")
+	})
+	public ResponseEntity<ProductConnection> getPage(@RequestParam(required = false) ProductStatus status,
+			@RequestParam(required = false) Integer limit, @RequestParam(required = false) String after,
+			WebRequest webRequest) {
+		
+		long lastModified = status == null ? catalogVersion.lastModified() : catalogVersion.lastModified(status);
+		String eTag = status == null
+				? listingETag("ALL", catalogVersion.get())
+				: listingETag(status.name(), catalogVersion.get(status));
+		if (webRequest.checkNotModified(eTag, lastModified)) {
+			return null;
+		}
+		
+		ProductConnection page = productService.getPage(status, limit, after);
+		
+		return ResponseEntity.ok()
+				.eTag(eTag)
+				.lastModified(lastModified)
+				.body(page);
+		
+	}
+	
+	@GetMapping("/filter")
+	/**
+	 * Retrieves a page of the products matching a filter, filtered by the database.
+	 * @param filter the filter, bound from the query parameters
+	 * @param limit the page size
+	 * @param after the cursor of the last product already seen
+	 * @param webRequest the request, checked for preconditions
+	 * @return the page of matching products, or 304 when the client's copy is current
+	 */
+	@Operation(summary = "Get a page of products matching a filter", description = "Filters products by statuses, name term, price and stock ranges, and created/updated windows in a single query, ordered by ID using cursor-based pagination")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Page of matching products"),
+			@ApiResponse(responseCode = "304", description = "Page not modified"),
+			@ApiResponse(responseCode = "400", description = "Invalid filter, page size or cursor")
+	})
+	public ResponseEntity<ProductConnection> getPageWhere(@ParameterObject ProductFilter filter,
+			@RequestParam(required = false) Integer limit, @RequestParam(required = false) String after,
+			WebRequest webRequest) {
+		
+		long lastModified = catalogVersion.lastModified();
+		String eTag = listingETag("ALL", catalogVersion.get());
+		if (webRequest.checkNotModified(eTag, lastModified)) {
+			return null;
+		}
+		
+		ProductConnection page = productService.getPageWhere(filter, limit, after);
+		
+		return ResponseEntity.ok()
+				.eTag(eTag)
+				.lastModified(lastModified)
+				.body(page);
+		
+	}
+	
+	@GetMapping(value = "/active", produces = MediaType.APPLICATION_JSON_VALUE)
+	/**
+	 * Retrieves all active products, or only the first ones in the given order.
+	 * @param orderBy optional order
+	 * @param limit optional number of products
+	 * @param webRequest the request, checked for preconditions
+	 * @return list of active products, or 304 when the client's copy is current
+	 */
+	@Operation(summary = "Get all active products", description = "Retrieves a list of products with ACTIVE status, or only the first ones when an order or a limit is given")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "List of active products",
+					content = @Content(array = @ArraySchema(schema = @Schema(implementation = ProductResponse.class)))),
+			@ApiResponse(responseCode = "304", description = "List not modified"),
+			@ApiResponse(responseCode = "400", description = "Invalid limit")
+	})
+	public ResponseEntity<byte[]> getActiveProducts(@RequestParam(required = false) ProductOrder orderBy,
+			@RequestParam(required = false) Integer limit, WebRequest webRequest) throws JsonProcessingException {
 		
+		return listing(ProductStatus.ACTIVE, orderBy, limit, webRequest);
+		
+	}
+	
+	@GetMapping(value = "/status/{status}", produces = MediaType.APPLICATION_JSON_VALUE)
+	/**
+	 * Retrieves all products with the given status, or only the first ones in the given order.
+	 * @param status the product status
+	 * @param orderBy optional order
+	 * @param limit optional number of products
+	 * @param webRequest the request, checked for preconditions
+	 * @return list of products with the given status, or 304 when the client's copy is current
+	 */
+	@Operation(summary = "Get products by status", description = "Retrieves a list of products with the given status, or only the first ones when an order or a limit is given")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "List of products with the given status",
+					content = @Content(array = @ArraySchema(schema = @Schema(implementation = ProductResponse.class)))),
+			@ApiResponse(responseCode = "304", description = "List not modified"),
+			@ApiResponse(responseCode = "400", description = "Invalid limit")
+	})
+	public ResponseEntity<byte[]> getByStatus(@NotNull @PathVariable ProductStatus status,
+			@RequestParam(required = false) ProductOrder orderBy, @RequestParam(required = false) Integer limit,
+			WebRequest webRequest) throws JsonProcessingException {
+		
+		return listing(status, orderBy, limit, webRequest);
+		
+	}
+		
+	@GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	/**
+	 * Streams the product catalog as newline-delimited JSON.
+	 * @param status optional status filter
+	 * @return one JSON product per line
+	 */
+	@Operation(summary = "Export products", description = "Streams all products, optionally filtered by status, as newline-delimited JSON")
+	@ApiResponse(responseCode = "200", description = "NDJSON stream of products")
+	public ResponseEntity<StreamingResponseBody> export(@RequestParam(required = false) ProductStatus status) {
+		
+		StreamingResponseBody body = outputStream -> {
+			OutputStream out = new BufferedOutputStream(outputStream);
+			try {
+				productService.export(status, product -> writeLine(out, product));
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+			out.flush();
+		};
+		
+		return ResponseEntity.ok()
+				.contentType(MediaType.APPLICATION_NDJSON)
+				.body(body);
+		
+	}
+	
 	@GetMapping("/{id}")
 	/**
 	 * Retrieves a product by ID.
+	 * Conditional requests are answered from the row version alone, without loading the product.
 	 * @param id the product ID
-	 * @return the product if found
+	 * @param webRequest the request, checked for preconditions
+	 * @return the product if found, or 304 when the client's copy is current
 	 */
 	@Operation(summary = "Get product by ID", description = "Retrieves a product by its ID")
 	@ApiResponses(value = {
 			@ApiResponse(responseCode = "200", description = "Product found"),
+			@ApiResponse(responseCode = "304", description = "Product not modified"),
 			@ApiResponse(responseCode = "404", description = "Product not found")
 	})
-	public ResponseEntity<ProductResponse> getById(@NotNull @PathVariable Long id) {
+	public ResponseEntity<ProductResponse> getById(@NotNull @PathVariable Long id, WebRequest webRequest) {
+		
+		if (isConditional(webRequest)) {
+			Optional<ProductVersionProjection> version = productService.getVersion(id);
+			if (version.isEmpty()) {
+				return ResponseEntity.notFound().build();
+			}
+			ProductVersionProjection current = version.get();
+			if (webRequest.checkNotModified(productETag(current.getId(), current.getVersion()),
+					lastModified(current.getCreatedAt(), current.getUpdatedAt()))) {
+				return null;
+			}
+		}
 		
 		return productService.getById(id)
-				.map(ResponseEntity::ok)
+				.map(product -> ResponseEntity.ok()
+						.eTag(productETag(product.id(), product.version()))
+						.lastModified(lastModified(product.createdAt(), product.updatedAt()))
+						.body(product))
 				.orElse(ResponseEntity.notFound().build());
 		
 	}
@@ -163,6 +460,40 @@ public class ProductController {
 	}
 	
 	
+	@GetMapping("/stats")
+	/**
+	 * Retrieves catalog statistics.
+	 * @return the catalog statistics
+	 */
+	@Operation(summary = "Get catalog statistics", description = "Returns product counts per status, stock and price figures, and a price histogram, from in-memory aggregates")
+	@ApiResponse(responseCode = "200", description = "Catalog statistics retrieved")
+	public ResponseEntity<CatalogStats> getCatalogStats() {
+		
+		return ResponseEntity.ok(productService.getCatalogStats());
+		
+	}
+	
+	
+	@GetMapping("/changes")
+	/**
+	 * Retrieves the product changes published after a cursor of the change feed.
+	 * @param cursor the cursor returned with the last batch, or none for the oldest change retained
+	 * @param limit the batch size
+	 * @return the next changes, with the cursor to continue from
+	 */
+	@Operation(summary = "Get product changes", description = "Returns the product changes published after the cursor, to sync a copy of the catalog incrementally")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Batch of product changes"),
+			@ApiResponse(responseCode = "400", description = "Invalid batch size, or cursor invalid or older than the changes retained")
+	})
+	public ResponseEntity<ProductChangeFeed> getChanges(@RequestParam(required = false) String cursor,
+			@RequestParam(required = false) Integer limit) {
+		
+		return ResponseEntity.ok(productService.getChangesSince(cursor, limit));
+		
+	}
+	
+	
 	@GetMapping("/search")
 	/**
 	 * Searches products by term.
@@ -178,5 +509,126 @@ public class ProductController {
 		return ResponseEntity.ok(products);
 		
 	}
+	
+	/**
+	 * Writes the pre-serialized listing for a status, encoding it on the spot
+	 * while no current snapshot is available. The status version is read before
+	 * the listing, so the ETag never claims more than the body contains.
+	 * An order or a limit selects the first products instead, which are not snapshotted.
+	 * @param status the product status
+	 * @param orderBy the order, or null
+	 * @param limit the number of products, or null
+	 * @param webRequest the request, checked for preconditions
+	 * @return the JSON listing, or null once a 304 has been set
+	 */
+	private ResponseEntity<byte[]> listing(ProductStatus status, ProductOrder orderBy, Integer limit,
+			WebRequest webRequest) throws JsonProcessingException {
+		
+		long lastModified = catalogVersion.lastModified(status);
+		String eTag = listingETag(status.name(), catalogVersion.get(status));
+		if (webRequest.checkNotModified(eTag, lastModified)) {
+			return null;
+		}
+		
+		byte[] body = orderBy != null || limit != null
+				? objectMapper.writeValueAsBytes(productService.getTop(status, orderBy, limit))
+				: listingSnapshots.get(status).orElse(null);
+		if (body == null) {
+			body = objectMapper.writeValueAsBytes(productService.getByStatus(status));
+		}
+		
+		return ResponseEntity.ok()
+				.contentType(MediaType.APPLICATION_JSON)
+				.eTag(eTag)
+				.lastModified(lastModified)
+				.body(body);
+		
+	}
+	
+	/**
+	 * Returns whether the request carries a precondition that a 304 could answer.
+	 * @param webRequest the request
+	 * @return true if If-None-Match or If-Modified-Since is present
+	 */
+	private static boolean isConditional(WebRequest webRequest) {
+		return webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+				|| webRequest.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+	}
+	
+	/**
+	 * Builds the strong ETag of a product from its row version.
+	 * @param id the product ID
+	 * @param version the row version
+	 * @return the ETag value
+	 */
+	private static String productETag(Long id, Long version) {
+		return "\"" + id + "-" + version + "\"";
+	}
+	
+	/**
+	 * Reads the product versions an If-Match header accepts. The header may list several
+	 * ETags; ETags of other products, weak ETags and malformed entries match no version.
+	 * @param id the product ID
+	 * @param ifMatch the If-Match header, if any
+	 * @return the accepted row versions, or null when any version will do
+	 * @throws ProductPreconditionFailedException if the header names no version of this product
+	 */
+	private static Set<Long> expectedVersions(Long id, String ifMatch) {
+		if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+			return null;
+		}
+		String prefix = "\"" + id + "-";
+		Set<Long> versions = new HashSet<>();
+		for (String entry : ifMatch.split(",")) {
+			String eTag = entry.trim();
+			if (eTag.startsWith(prefix) && eTag.endsWith("\"") && eTag.length() > prefix.length() + 1) {
+				try {
+					versions.add(Long.valueOf(eTag.substring(prefix.length(), eTag.length() - 1)));
+				} catch (NumberFormatException e) {
+					// not a version of this product
+				}
+			}
+		}
+		if (versions.isEmpty()) {
+			throw new ProductPreconditionFailedException("If-Match " + ifMatch + " does not match product " + id);
+		}
+		return versions;
+	}
+	
+	/**
+	 * Builds the strong ETag of a listing from the catalog version it was read at.
+	 * The epoch tells apart counters from before a restart.
+	 * @param scope the status, or ALL for the whole catalog
+	 * @param version the catalog version
+	 * @return the ETag value
+	 */
+	private String listingETag(String scope, long version) {
+		return "\"" + catalogVersion.epoch() + "-" + scope + "-" + version + "\"";
+	}
+	
+	/**
+	 * Returns the last modification time of a product.
+	 * @param createdAt the creation time
+	 * @param updatedAt the last update time, null if never updated
+	 * @return the epoch milliseconds
+	 */
+	private static long lastModified(LocalDateTime createdAt, LocalDateTime updatedAt) {
+		LocalDateTime modifiedAt = updatedAt != null ? updatedAt : createdAt;
+		return modifiedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+	}
+	
+	/**
+	 * Writes a product as a single NDJSON line.
+	 * @param out the target stream
+	 * @param product the product to write
+	 */
+	private void writeLine(OutputStream out, ProductResponse product) {
+		try {
+			out.write(objectMapper.writeValueAsBytes(product));
+			out.write('\n');
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
 
 }
@@ -3,17 +3,42 @@ package com.giuliosmtech.products.controller;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.dataloader.DataLoader;
 
 import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SubscriptionMapping;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
 import org.springframework.stereotype.Controller;
 
+import com.giuliosmtech.products.dto.CatalogStats;
+import com.giuliosmtech.products.dto.ProductBulkResult;
+import com.giuliosmtech.products.dto.ProductChangeFeed;
+import com.giuliosmtech.products.dto.ProductConnection;
+import com.giuliosmtech.products.dto.ProductFilter;
+import com.giuliosmtech.products.dto.ProductPatch;
 import com.giuliosmtech.products.dto.ProductRequest;
 import com.giuliosmtech.products.dto.ProductResponse;
+import com.giuliosmtech.products.dto.ProductUpdateRequest;
+import com.giuliosmtech.products.enums.ProductField;
+import com.giuliosmtech.products.enums.ProductOrder;
 import com.giuliosmtech.products.enums.ProductStatus;
+import com.giuliosmtech.products.events.ProductChangeBus;
+import com.giuliosmtech.products.events.ProductChangeEvent;
 import com.giuliosmtech.products.service.ProductService;
+import com.giuliosmtech.products.service.ReactiveProductService;
+
+import graphql.schema.DataFetchingFieldSelectionSet;
+import graphql.schema.SelectedField;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 
 @Controller
@@ -24,49 +49,143 @@ public class ProductGraphQLController {
 
 	
    private final ProductService productService;
+
+    private final ReactiveProductService reactiveProductService;
+
+    private final ProductChangeBus productChangeBus;
     
-    public ProductGraphQLController(ProductService productService) {
+    public ProductGraphQLController(ProductService productService, ReactiveProductService reactiveProductService,
+            ProductChangeBus productChangeBus, BatchLoaderRegistry batchLoaderRegistry) {
         this.productService = productService;
+        this.reactiveProductService = reactiveProductService;
+        this.productChangeBus = productChangeBus;
+        // collects every product-by-id lookup of an operation into one getByIds call
+        batchLoaderRegistry.forTypePair(Long.class, ProductResponse.class)
+                .registerMappedBatchLoader((ids, environment) -> reactiveProductService.getByIds(ids));
     }
     
     
     /**
-     * Retrieves products filtered by status (required).
+     * Retrieves products filtered by status (required), or only the first ones
+     * in the given order when an order or a limit is given.
      * @param status product status filter (required)
+     * @param orderBy the order, or null to order by ID
+     * @param limit the number of products, or null for all (the default page size when ordered)
+     * @param selectionSet the fields selected by the client
      * @return list of products
      */
     @QueryMapping(name = "products")
-    public List<ProductResponse> products(@Argument @NotNull ProductStatus status) {
-        return productService.getByStatus(status);
+    public Flux<ProductResponse> products(@Argument @NotNull ProductStatus status, @Argument ProductOrder orderBy,
+            @Argument Integer limit, DataFetchingFieldSelectionSet selectionSet) {
+        if (orderBy != null || limit != null) {
+            return reactiveProductService.getTop(status, orderBy, limit);
+        }
+        return reactiveProductService.getByStatus(status, selectedFields(selectionSet));
     }
     
     /**
-     * Retrieves all active products.
+     * Retrieves all active products, or only the first ones in the given order
+     * when an order or a limit is given.
+     * @param orderBy the order, or null to order by ID
+     * @param limit the number of products, or null for all (the default page size when ordered)
+     * @param selectionSet the fields selected by the client
      * @return list of active products
      */
     @QueryMapping(name = "activeProducts")
-    public List<ProductResponse> activeProducts() {
-        return productService.getAllActive();
+    public Flux<ProductResponse> activeProducts(@Argument ProductOrder orderBy, @Argument Integer limit,
+            DataFetchingFieldSelectionSet selectionSet) {
+        return products(ProductStatus.ACTIVE, orderBy, limit, selectionSet);
     }
     
     /**
      * Retrieves a product by ID.
      * @param id the product ID
+     * @param productLoader batch loader for products by ID
      * @return the product or null if not found
      */
     @QueryMapping(name = "product")
-    public ProductResponse product(@Argument(name = "id") @NotNull Long id) {
-        return productService.getById(id).orElse(null);
+    public Mono<ProductResponse> product(@Argument(name = "id") @NotNull Long id,
+            DataLoader<Long, ProductResponse> productLoader) {
+        return Mono.fromFuture(productLoader.load(id));
+    }
+    
+    /**
+     * Retrieves products by their IDs.
+     * @param ids the product IDs
+     * @param productLoader batch loader shared with the product query
+     * @return the products in the order of the IDs, null where not found
+     */
+    @QueryMapping(name = "productsByIds")
+    public CompletableFuture<List<ProductResponse>> productsByIds(@Argument @NotNull List<Long> ids,
+            DataLoader<Long, ProductResponse> productLoader) {
+        return productLoader.loadMany(ids);
     }
     
     /**
      * Searches products by name.
      * @param name the search term
+     * @param selectionSet the fields selected by the client
      * @return list of matching products
      */
     @QueryMapping(name = "searchProducts")
-    public List<ProductResponse> searchProducts(@Argument @NotNull String name) {
-        return productService.searchProductsByTerm(name);
+    public Flux<ProductResponse> searchProducts(@Argument @NotNull String name, DataFetchingFieldSelectionSet selectionSet) {
+        return reactiveProductService.searchProductsByTerm(name, selectedFields(selectionSet));
+    }
+    
+    /**
+     * Retrieves a page of products, optionally filtered by status.
+     * @param status product status filter (optional)
+     * @param first the page size
+     * @param after the cursor of the last product already seen
+     * @return the product connection
+     */
+    @QueryMapping(name = "productsConnection")
+    public ProductConnection productsConnection(@Argument ProductStatus status, @Argument Integer first, @Argument String after) {
+        return productService.getPage(status, first, after);
+    }
+    
+    /**
+     * Retrieves a page of active products.
+     * @param first the page size
+     * @param after the cursor of the last product already seen
+     * @return the product connection
+     */
+    @QueryMapping(name = "activeProductsConnection")
+    public ProductConnection activeProductsConnection(@Argument Integer first, @Argument String after) {
+        return productService.getPage(ProductStatus.ACTIVE, first, after);
+    }
+    
+    /**
+     * Retrieves a page of the products matching a filter, filtered by the database.
+     * @param filter the filter
+     * @param first the page size
+     * @param after the cursor of the last product already seen
+     * @return the product connection
+     */
+    @QueryMapping(name = "productsWhere")
+    public ProductConnection productsWhere(@Argument @NotNull ProductFilter filter, @Argument Integer first,
+            @Argument String after) {
+        return productService.getPageWhere(filter, first, after);
+    }
+    
+    /**
+     * Retrieves catalog statistics.
+     * @return the catalog statistics
+     */
+    @QueryMapping(name = "catalogStats")
+    public CatalogStats catalogStats() {
+        return productService.getCatalogStats();
+    }
+    
+    /**
+     * Retrieves the product changes published after a cursor of the change feed.
+     * @param cursor the cursor returned with the last batch, or null for the oldest change retained
+     * @param limit the batch size
+     * @return the next changes, with the cursor to continue from
+     */
+    @QueryMapping(name = "changesSince")
+    public ProductChangeFeed changesSince(@Argument String cursor, @Argument Integer limit) {
+        return productService.getChangesSince(cursor, limit);
     }
     
     /**
@@ -87,19 +206,106 @@ public class ProductGraphQLController {
      */
     @MutationMapping
     public ProductResponse updateProduct(@Argument @NotNull Long id, @Valid @Argument ProductRequest input) {
-        return productService.update(id, input);
+        return productService.update(id, input, null);
+    }
+    
+    /**
+     * Partially updates an existing product.
+     * @param id the product ID
+     * @param input the fields to change; absent fields are left unchanged
+     * @return the patched product
+     */
+    @MutationMapping
+    public ProductResponse patchProduct(@Argument @NotNull Long id, @Valid @Argument ProductPatch input) {
+        return productService.patch(id, input);
+    }
+    
+    /**
+     * Adjusts the stock of a product by a relative amount.
+     * @param id the product ID
+     * @param delta the stock change, negative to take stock
+     * @return the product with its new stock
+     */
+    @MutationMapping
+    public ProductResponse adjustStock(@Argument @NotNull Long id, @Argument @NotNull Integer delta) {
+        return productService.adjustStock(id, delta);
+    }
+    
+    /**
+     * Creates many products in one batch.
+     * @param inputs the products to create
+     * @return one result per input, in request order
+     */
+    @MutationMapping
+    public List<ProductBulkResult> createProducts(@Argument List<ProductRequest> inputs) {
+        return productService.createAll(inputs);
+    }
+    
+    /**
+     * Updates many products in one batch.
+     * @param updates the products to update
+     * @return one result per update, in request order
+     */
+    @MutationMapping
+    public List<ProductBulkResult> updateProducts(@Argument List<ProductUpdateRequest> updates) {
+        return productService.updateAll(updates);
     }
     
     /**
      * Deletes a product.
      * @param id the product ID
-     * @return true if deleted successfully
+     * @return true if deleted, false if it does not exist or was already deleted
      */
     @MutationMapping
     public Boolean deleteProduct(@Argument @NotNull Long id) {
-        productService.delete(id);
-        return true;
+        return productService.delete(id) > 0;
     }
     
+    /**
+     * Moves products to a status.
+     * @param ids the product IDs
+     * @param status the new status
+     * @return the number of products moved
+     */
+    @MutationMapping
+    public int setStatus(@Argument @NotNull List<Long> ids, @Argument @NotNull ProductStatus status) {
+        return productService.setStatus(ids, status);
+    }
+    
+    /**
+     * Moves the products matching a filter to a status.
+     * @param filter the products to move
+     * @param status the new status
+     * @return the number of products moved
+     */
+    @MutationMapping
+    public int setStatusWhere(@Argument @NotNull ProductFilter filter, @Argument @NotNull ProductStatus status) {
+        return productService.setStatusWhere(filter, status);
+    }
+    
+    /**
+     * Streams committed product changes.
+     * @param ids only report changes to these products (optional)
+     * @param status only report products that had or now have this status (optional)
+     * @return the changed products, as they are after each change
+     */
+    @SubscriptionMapping
+    public Flux<ProductResponse> productChanged(@Argument List<Long> ids, @Argument ProductStatus status) {
+        return productChangeBus.subscribe(ids == null ? null : new HashSet<>(ids), status)
+                .map(ProductChangeEvent::product);
+    }
+    
+    /**
+     * Maps the fields selected on a product list to the columns that need to be read.
+     * @param selectionSet the selection set of the list field
+     * @return the selected product fields
+     */
+    private static Set<ProductField> selectedFields(DataFetchingFieldSelectionSet selectionSet) {
+        Set<ProductField> fields = EnumSet.noneOf(ProductField.class);
+        for (SelectedField field : selectionSet.getImmediateFields()) {
+            ProductField.fromFieldName(field.getName()).ifPresent(fields::add);
+        }
+        return fields;
+    }
  
 }
@@ -0,0 +1,43 @@
+package com.giuliosmtech.products.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import com.giuliosmtech.products.enums.ProductStatus;
+
+/**
+ * Aggregate figures over every stored product, whatever its status.
+ * @param total the number of products
+ * @param byStatus the number of products per status
+ * @param totalStock the sum of the stock of all products
+ * @param lowStock the number of products with stock at or below the threshold
+ * @param lowStockThreshold the low-stock threshold
+ * @param minPrice the lowest price, null for an empty catalog
+ * @param maxPrice the highest price, null for an empty catalog
+ * @param averagePrice the mean price, null for an empty catalog
+ * @param priceHistogram the number of products per price range, in ascending order
+ */
+public record CatalogStats(
+		long total,
+		List<StatusCount> byStatus,
+		long totalStock,
+		long lowStock,
+		int lowStockThreshold,
+		BigDecimal minPrice,
+		BigDecimal maxPrice,
+		BigDecimal averagePrice,
+		List<PriceBucket> priceHistogram) {
+
+	/**
+	 * Number of products with a status.
+	 */
+	public record StatusCount(ProductStatus status, long count) {
+	}
+
+	/**
+	 * Number of products priced from {@code from} (inclusive) up to {@code to} (exclusive, null for no bound).
+	 */
+	public record PriceBucket(BigDecimal from, BigDecimal to, long count) {
+	}
+
+}
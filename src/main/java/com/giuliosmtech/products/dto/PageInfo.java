@@ -0,0 +1,11 @@
+package com.giuliosmtech.products.dto;
+
+/**
+ * Relay-style pagination metadata for a product connection.
+ */
+public record PageInfo(
+		boolean hasNextPage,
+		boolean hasPreviousPage,
+		String startCursor,
+		String endCursor) {
+}
@@ -0,0 +1,19 @@
+package com.giuliosmtech.products.dto;
+
+/**
+ * Outcome of one item of a bulk operation, reported by its position in the request.
+ */
+public record ProductBulkResult(
+		int index,
+		boolean success,
+		ProductResponse product,
+		String error) {
+
+	public static ProductBulkResult success(int index, ProductResponse product) {
+		return new ProductBulkResult(index, true, product, null);
+	}
+
+	public static ProductBulkResult failure(int index, String error) {
+		return new ProductBulkResult(index, false, null, error);
+	}
+}
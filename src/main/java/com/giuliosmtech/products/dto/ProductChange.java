@@ -0,0 +1,37 @@
+package com.giuliosmtech.products.dto;
+
+import java.time.LocalDateTime;
+
+import com.giuliosmtech.products.entity.ProductOutboxEntry;
+import com.giuliosmtech.products.enums.ProductChangeType;
+import com.giuliosmtech.products.enums.ProductStatus;
+
+/**
+ * A committed product change as published from the outbox. Consumers read the
+ * product itself when they need more than its status.
+ * @param sequenceNumber the position of the change in the change feed
+ * @param productId the ID of the changed product
+ * @param changeType the kind of change
+ * @param status the status after the change
+ * @param previousStatus the status before the change, or null when the product was created
+ * @param changedAt when the change was made
+ */
+public record ProductChange(
+		Long sequenceNumber,
+		Long productId,
+		ProductChangeType changeType,
+		ProductStatus status,
+		ProductStatus previousStatus,
+		LocalDateTime changedAt) {
+
+	/**
+	 * Builds the change recorded by a drained outbox record.
+	 * @param entry the outbox record
+	 * @return the change
+	 */
+	public static ProductChange from(ProductOutboxEntry entry) {
+		return new ProductChange(entry.getSequenceNumber(), entry.getProductId(), entry.getChangeType(),
+				entry.getStatus(), entry.getPreviousStatus(), entry.getChangedAt());
+	}
+
+}
@@ -0,0 +1,15 @@
+package com.giuliosmtech.products.dto;
+
+import java.util.List;
+
+/**
+ * One batch of the change feed, read after a cursor.
+ * @param changes the changes in feed order
+ * @param cursor the cursor to continue from, also when no change was returned
+ * @param hasMore whether more changes follow
+ */
+public record ProductChangeFeed(
+		List<ProductChange> changes,
+		String cursor,
+		boolean hasMore) {
+}
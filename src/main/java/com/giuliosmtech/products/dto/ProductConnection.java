@@ -0,0 +1,11 @@
+package com.giuliosmtech.products.dto;
+
+import java.util.List;
+
+/**
+ * Relay-style page of products returned by keyset pagination.
+ */
+public record ProductConnection(
+		List<ProductEdge> edges,
+		PageInfo pageInfo) {
+}
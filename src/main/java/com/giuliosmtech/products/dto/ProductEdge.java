@@ -0,0 +1,9 @@
+package com.giuliosmtech.products.dto;
+
+/**
+ * A product together with the opaque cursor that points at it.
+ */
+public record ProductEdge(
+		String cursor,
+		ProductResponse node) {
+}
@@ -0,0 +1,57 @@
+package com.giuliosmtech.products.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+
+import com.giuliosmtech.products.enums.ProductStatus;
+
+/**
+ * Criteria selecting products; absent (null or empty) criteria match every product.
+ * Ranges and time windows are inclusive; times are ISO-8601 local date-times.
+ */
+public record ProductFilter(
+
+		Set<ProductStatus> statuses,
+
+		String nameContains,
+
+		BigDecimal minPrice,
+
+		BigDecimal maxPrice,
+
+		Integer minStock,
+
+		Integer maxStock,
+
+		@DateTimeFormat(iso = ISO.DATE_TIME)
+		LocalDateTime createdAfter,
+
+		@DateTimeFormat(iso = ISO.DATE_TIME)
+		LocalDateTime createdBefore,
+
+		@DateTimeFormat(iso = ISO.DATE_TIME)
+		LocalDateTime updatedAfter,
+
+		@DateTimeFormat(iso = ISO.DATE_TIME)
+		LocalDateTime updatedBefore
+
+) {
+
+	/**
+	 * Returns whether no criterion is set, so the filter matches the whole catalog.
+	 * @return true if the filter is empty
+	 */
+	public boolean isEmpty() {
+		return (statuses == null || statuses.isEmpty())
+				&& (nameContains == null || nameContains.isBlank())
+				&& minPrice == null && maxPrice == null
+				&& minStock == null && maxStock == null
+				&& createdAfter == null && createdBefore == null
+				&& updatedAfter == null && updatedBefore == null;
+	}
+
+}
@@ -0,0 +1,37 @@
+package com.giuliosmtech.products.dto;
+
+import java.math.BigDecimal;
+
+import com.giuliosmtech.products.enums.ProductStatus;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Builder;
+
+/**
+ * Data transfer object for partial product updates.
+ * Absent (null) fields are left unchanged.
+ */
+@Builder
+public record ProductPatch(
+
+		@Pattern(regexp = ".*\\S.*", message = "Name cannot be blank")
+		@Size(min = 2, max = 100, message = "Name must be between 2 and 100 characters")
+		String name,
+
+		@Size(max = 500, message = "Description must not exceed 500 characters")
+		String description,
+
+		@DecimalMin(value = "0.0", message = "Price must be greater than or equal to 0.0")
+		BigDecimal price,
+
+		@Min(value = 0, message = "Stock must be greater than or equal to 0")
+		Integer stock,
+
+		ProductStatus status
+
+) {
+
+}
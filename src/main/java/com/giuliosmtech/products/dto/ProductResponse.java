@@ -2,12 +2,14 @@ package com.giuliosmtech.products.dto;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.giuliosmtech.products.enums.ProductStatus;
 
 import lombok.Builder;
 
 /**
  * Data transfer object for product response data.
+ * The row version is not serialized; REST clients receive it as the ETag.
  */
 @Builder
 public record ProductResponse(
@@ -26,7 +28,10 @@ public record ProductResponse(
 		
 		LocalDateTime createdAt,
 		
-		LocalDateTime updatedAt
+		LocalDateTime updatedAt,
+		
+		@JsonIgnore
+		Long version
 
 ) {
 
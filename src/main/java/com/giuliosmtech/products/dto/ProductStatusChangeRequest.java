@@ -0,0 +1,22 @@
+package com.giuliosmtech.products.dto;
+
+import java.util.List;
+
+import com.giuliosmtech.products.enums.ProductStatus;
+
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Request to move products to a status, selected either by ID or by filter.
+ */
+public record ProductStatusChangeRequest(
+
+		List<Long> ids,
+
+		ProductFilter filter,
+
+		@NotNull(message = "Status is required")
+		ProductStatus status
+
+) {
+}
@@ -0,0 +1,19 @@
+package com.giuliosmtech.products.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * A single entry of a bulk update: the product ID and its new data.
+ */
+public record ProductUpdateRequest(
+
+		@NotNull(message = "Id is required")
+		Long id,
+
+		@NotNull(message = "Input is required")
+		@Valid
+		ProductRequest input
+
+) {
+}
@@ -0,0 +1,14 @@
+package com.giuliosmtech.products.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Request to change the stock of a product by a relative amount.
+ */
+public record StockAdjustmentRequest(
+
+		@NotNull(message = "Delta is required")
+		Integer delta
+
+) {
+}
@@ -3,6 +3,8 @@ package com.giuliosmtech.products.entity;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+import org.hibernate.annotations.DynamicUpdate;
+
 import com.giuliosmtech.products.enums.ProductStatus;
 
 import jakarta.persistence.Column;
@@ -14,7 +16,9 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -23,6 +27,8 @@ import lombok.Setter;
 
 /**
  * JPA entity representing a product with its attributes and lifecycle management.
+ * Updates write only the columns that changed. The table, its indexes and constraints
+ * are defined in {@code schema.sql}.
  */
 @Builder
 @Getter
@@ -30,16 +36,30 @@ import lombok.Setter;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@DynamicUpdate
 @Table(name = "products")
 public class Product {
 
+	/**
+	 * Name of the unique constraint on {@code name}, used to recognise duplicate-name violations.
+	 */
+	public static final String NAME_CONSTRAINT = "uk_products_name";
+
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+	@SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = 50)
 	private Long id;
 
 	@Column(nullable = false)
 	private String name;
 
+	/**
+	 * Lower-cased name, generated by the database and indexed for case-insensitive
+	 * searches. Never written by Hibernate, and not refreshed until the product is reloaded.
+	 */
+	@Column(insertable = false, updatable = false)
+	private String nameLower;
+
 	private String description;
 
 	@Column(nullable = false)
@@ -58,6 +78,14 @@ public class Product {
 	@Column(nullable = true)
 	private LocalDateTime updatedAt;
 
+	/**
+	 * Per-row version, incremented on every update; used for optimistic locking
+	 * and as the basis of the product's ETag.
+	 */
+	@Version
+	@Column(nullable = false)
+	private Long version;
+
 	@PrePersist
 	void prePresit() {
 
@@ -0,0 +1,63 @@
+package com.giuliosmtech.products.entity;
+
+import java.time.LocalDateTime;
+
+import com.giuliosmtech.products.enums.ProductChangeType;
+import com.giuliosmtech.products.enums.ProductStatus;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * JPA entity of the product outbox: a compact record of one product change, inserted
+ * in the transaction of the change itself. The table is defined in {@code schema.sql}.
+ */
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "product_outbox")
+public class ProductOutboxEntry {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_outbox_seq")
+	@SequenceGenerator(name = "product_outbox_seq", sequenceName = "product_outbox_seq", allocationSize = 50)
+	private Long id;
+
+	@Column(nullable = false)
+	private Long productId;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false)
+	private ProductChangeType changeType;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false)
+	private ProductStatus status;
+
+	@Enumerated(EnumType.STRING)
+	private ProductStatus previousStatus;
+
+	@Column(nullable = false)
+	private LocalDateTime changedAt;
+
+	/**
+	 * Position of the record in the change feed, assigned when it is drained; null until then.
+	 */
+	private Long sequenceNumber;
+
+}
@@ -0,0 +1,21 @@
+package com.giuliosmtech.products.enums;
+
+/**
+ * Enumeration of the kinds of change recorded in the product outbox.
+ */
+public enum ProductChangeType {
+	CREATED, UPDATED, DELETED;
+
+	/**
+	 * Classifies a change by the statuses around it.
+	 * @param status the status after the change
+	 * @param previousStatus the status before the change, or null when the product was created
+	 * @return the kind of change
+	 */
+	public static ProductChangeType of(ProductStatus status, ProductStatus previousStatus) {
+		if (previousStatus == null) {
+			return CREATED;
+		}
+		return status == ProductStatus.DELETED && previousStatus != ProductStatus.DELETED ? DELETED : UPDATED;
+	}
+}
@@ -0,0 +1,55 @@
+package com.giuliosmtech.products.enums;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Enumeration of the product fields that can be projected individually.
+ * The field name is shared by the GraphQL schema, the response DTO and the entity.
+ */
+public enum ProductField {
+	ID("id", "id"),
+	NAME("name", "name"),
+	DESCRIPTION("description", "description"),
+	PRICE("price", "price"),
+	STOCK("stock", "stock"),
+	STATUS("status", "status"),
+	CREATED_AT("createdAt", "created_at"),
+	UPDATED_AT("updatedAt", "updated_at");
+
+	private static final Map<String, ProductField> BY_NAME = Arrays.stream(values())
+			.collect(Collectors.toMap(ProductField::fieldName, Function.identity()));
+
+	private final String fieldName;
+
+	private final String columnName;
+
+	ProductField(String fieldName, String columnName) {
+		this.fieldName = fieldName;
+		this.columnName = columnName;
+	}
+
+	public String fieldName() {
+		return fieldName;
+	}
+
+	/**
+	 * Returns the column of the {@code products} table holding this field.
+	 * @return the column name
+	 */
+	public String columnName() {
+		return columnName;
+	}
+
+	/**
+	 * Resolves a field from its name.
+	 * @param fieldName the field name
+	 * @return the field, or empty when the name is not a product field
+	 */
+	public static Optional<ProductField> fromFieldName(String fieldName) {
+		return Optional.ofNullable(BY_NAME.get(fieldName));
+	}
+}
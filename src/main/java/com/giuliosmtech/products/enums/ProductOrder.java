@@ -0,0 +1,9 @@
+package com.giuliosmtech.products.enums;
+
+/**
+ * Enumeration of the orders a product listing can be sorted by.
+ * Every order is ascending, with ties broken by product ID.
+ */
+public enum ProductOrder {
+	ID, PRICE, STOCK
+}
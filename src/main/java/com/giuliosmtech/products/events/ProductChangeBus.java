@@ -0,0 +1,79 @@
+package com.giuliosmtech.products.events;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.giuliosmtech.products.enums.ProductStatus;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+/**
+ * In-process bus of committed product changes.
+ * <p>
+ * Every event is handed to all subscribers on the publishing thread. Each subscriber
+ * filters on its own criteria and has its own bounded buffer; when a subscriber falls
+ * behind, its oldest buffered events are dropped (counted as {@code products.events.dropped}),
+ * so one slow client never holds back publishers or other subscribers.
+ */
+@Component
+public class ProductChangeBus {
+
+	private final Sinks.Many<ProductChangeEvent> sink = Sinks.many().multicast().directBestEffort();
+
+	private final Sinks.EmitFailureHandler emitFailureHandler = Sinks.EmitFailureHandler.busyLooping(Duration.ofSeconds(1));
+
+	private final int subscriberBufferSize;
+
+	private final Counter droppedEvents;
+
+	public ProductChangeBus(MeterRegistry meterRegistry,
+			@Value("${products.events.subscriber-buffer-size:256}") int subscriberBufferSize) {
+		this.subscriberBufferSize = subscriberBufferSize;
+		this.droppedEvents = Counter.builder("products.events.dropped")
+				.description("Product change events dropped for slow subscribers")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Publishes committed changes to the current subscribers.
+	 * @param events the changes, in commit order
+	 */
+	public void publish(Collection<ProductChangeEvent> events) {
+		if (!hasSubscribers()) {
+			return;
+		}
+		for (ProductChangeEvent event : events) {
+			sink.emitNext(event, emitFailureHandler);
+		}
+	}
+
+	/**
+	 * Returns whether anyone is listening, so publishers can skip building events nobody receives.
+	 * @return true if there is at least one subscriber
+	 */
+	public boolean hasSubscribers() {
+		return sink.currentSubscriberCount() > 0;
+	}
+
+	/**
+	 * Subscribes to changes matching the given filters.
+	 * @param ids the product IDs of interest, or null for all products
+	 * @param status the status of interest, or null for all statuses
+	 * @return the matching changes published after subscribing
+	 */
+	public Flux<ProductChangeEvent> subscribe(Set<Long> ids, ProductStatus status) {
+		return sink.asFlux()
+				.filter(event -> event.matches(ids, status))
+				.onBackpressureBuffer(subscriberBufferSize, dropped -> droppedEvents.increment(),
+						BufferOverflowStrategy.DROP_OLDEST);
+	}
+
+}
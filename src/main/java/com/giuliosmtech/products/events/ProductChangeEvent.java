@@ -0,0 +1,28 @@
+package com.giuliosmtech.products.events;
+
+import java.util.Set;
+
+import com.giuliosmtech.products.dto.ProductResponse;
+import com.giuliosmtech.products.enums.ProductStatus;
+
+/**
+ * A committed change to a product.
+ * @param product the product as it is after the change
+ * @param previousStatus the status before the change, or null when the product was created
+ */
+public record ProductChangeEvent(ProductResponse product, ProductStatus previousStatus) {
+
+	/**
+	 * Tells whether the change concerns the given products and status.
+	 * A status matches when the product had it before or has it after the change,
+	 * so subscribers also learn when a product leaves the status they watch.
+	 * @param ids the product IDs of interest, or null for all products
+	 * @param status the status of interest, or null for all statuses
+	 * @return true if the change matches both filters
+	 */
+	public boolean matches(Set<Long> ids, ProductStatus status) {
+		return (ids == null || ids.contains(product.id()))
+				&& (status == null || status == product.status() || status == previousStatus);
+	}
+
+}
@@ -1,7 +1,10 @@
 package com.giuliosmtech.products.exceptions;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BindException;
+import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -18,6 +21,7 @@ import jakarta.validation.ConstraintViolationException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * Global exception handler for REST and GraphQL endpoints.
@@ -109,6 +113,51 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
     }
 
+    /**
+     * Handles invalid product filter exceptions.
+     */
+    @ExceptionHandler(InvalidProductFilterException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidProductFilterException(InvalidProductFilterException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(ex.getMessage(), Collections.emptyMap());
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handles insufficient stock exceptions.
+     */
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<ErrorResponse> handleInsufficientStockException(InsufficientStockException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(ex.getMessage(), Collections.emptyMap());
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Handles optimistic locking failures left after the service gave up retrying.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+        ErrorResponse errorResponse = new ErrorResponse("Product was modified concurrently, please retry", Collections.emptyMap());
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Handles failed If-Match preconditions.
+     */
+    @ExceptionHandler(ProductPreconditionFailedException.class)
+    public ResponseEntity<ErrorResponse> handleProductPreconditionFailedException(ProductPreconditionFailedException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(ex.getMessage(), Collections.emptyMap());
+        return new ResponseEntity<>(errorResponse, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    /**
+     * Handles invalid pagination exceptions.
+     */
+    @ExceptionHandler(InvalidPaginationException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidPaginationException(InvalidPaginationException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(ex.getMessage(), Collections.emptyMap());
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
     /**
      * Handles all exceptions for GraphQL.
      */
@@ -124,16 +173,50 @@ public class GlobalExceptionHandler {
                     .errorType(ErrorType.BAD_REQUEST)
                     .message(e.getMessage())
                     .build();
+        } else if (ex instanceof InvalidPaginationException e) {
+            return GraphQLError.newError()
+                    .errorType(ErrorType.BAD_REQUEST)
+                    .message(e.getMessage())
+                    .build();
+        } else if (ex instanceof InvalidProductFilterException e) {
+            return GraphQLError.newError()
+                    .errorType(ErrorType.BAD_REQUEST)
+                    .message(e.getMessage())
+                    .build();
         } else if (ex instanceof ProductNotFoundException e) {
             return GraphQLError.newError()
                     .errorType(ErrorType.NOT_FOUND)
                     .message(e.getMessage())
                     .build();
+        } else if (ex instanceof InsufficientStockException e) {
+            return GraphQLError.newError()
+                    .errorType(ErrorType.BAD_REQUEST)
+                    .message(e.getMessage())
+                    .build();
+        } else if (ex instanceof OptimisticLockingFailureException) {
+            return GraphQLError.newError()
+                    .errorType(ErrorType.BAD_REQUEST)
+                    .message("Product was modified concurrently, please retry")
+                    .build();
+        } else if (ex instanceof QueryCostExceededException e) {
+            return GraphQLError.newError()
+                    .errorType(e.getErrorType())
+                    .message(e.getMessage())
+                    .extensions(e.getExtensions())
+                    .build();
         } else if (ex instanceof ConstraintViolationException e) {
             return GraphQLError.newError()
                     .errorType(ErrorType.BAD_REQUEST)
                     .message("Validation failed")
                     .build();
+        } else if (ex instanceof BindException e) {
+            return GraphQLError.newError()
+                    .errorType(ErrorType.BAD_REQUEST)
+                    .message("Invalid value for " + e.getFieldErrors().stream()
+                            .map(FieldError::getField)
+                            .distinct()
+                            .collect(Collectors.joining(", ")))
+                    .build();
         } else if (ex instanceof RuntimeException e) {
             return GraphQLError.newError()
                     .errorType(ErrorType.INTERNAL_ERROR)
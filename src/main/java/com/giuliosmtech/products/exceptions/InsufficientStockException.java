@@ -0,0 +1,15 @@
+package com.giuliosmtech.products.exceptions;
+
+/**
+ * Exception thrown when a stock adjustment would make the stock negative.
+ */
+public class InsufficientStockException extends RuntimeException {
+
+    public InsufficientStockException(String message) {
+        super(message);
+    }
+
+    public InsufficientStockException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
\ No newline at end of file
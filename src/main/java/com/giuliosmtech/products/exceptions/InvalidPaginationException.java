@@ -0,0 +1,15 @@
+package com.giuliosmtech.products.exceptions;
+
+/**
+ * Exception thrown when a page size or pagination cursor is invalid.
+ */
+public class InvalidPaginationException extends RuntimeException {
+
+	public InvalidPaginationException(String message) {
+		super(message);
+	}
+
+	public InvalidPaginationException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
@@ -0,0 +1,15 @@
+package com.giuliosmtech.products.exceptions;
+
+/**
+ * Exception thrown when a product filter is empty where one is required, or its ranges are inverted.
+ */
+public class InvalidProductFilterException extends RuntimeException {
+
+	public InvalidProductFilterException(String message) {
+		super(message);
+	}
+
+	public InvalidProductFilterException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
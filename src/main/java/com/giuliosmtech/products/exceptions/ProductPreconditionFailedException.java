@@ -0,0 +1,15 @@
+package com.giuliosmtech.products.exceptions;
+
+/**
+ * Exception thrown when a product is not at a version the client's If-Match header names.
+ */
+public class ProductPreconditionFailedException extends RuntimeException {
+
+	public ProductPreconditionFailedException(String message) {
+		super(message);
+	}
+
+	public ProductPreconditionFailedException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
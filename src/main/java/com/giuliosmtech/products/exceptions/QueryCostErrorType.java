@@ -0,0 +1,20 @@
+package com.giuliosmtech.products.exceptions;
+
+import graphql.ErrorClassification;
+
+/**
+ * GraphQL error classifications for documents rejected by query cost analysis.
+ */
+public enum QueryCostErrorType implements ErrorClassification {
+
+	/**
+	 * The document exceeds the maximum depth, alias count or cost of a single operation.
+	 */
+	QUERY_TOO_COMPLEX,
+
+	/**
+	 * The client has spent its cost budget for the current period.
+	 */
+	QUERY_BUDGET_EXCEEDED
+
+}
@@ -0,0 +1,61 @@
+package com.giuliosmtech.products.exceptions;
+
+import java.util.Map;
+
+/**
+ * Exception thrown when a GraphQL document exceeds a query cost limit or the client's cost budget.
+ */
+public class QueryCostExceededException extends RuntimeException {
+
+	private final QueryCostErrorType errorType;
+
+	private final String limit;
+
+	private final long actual;
+
+	private final long maximum;
+
+	private QueryCostExceededException(String message, QueryCostErrorType errorType, String limit, long actual, long maximum) {
+		super(message);
+		this.errorType = errorType;
+		this.limit = limit;
+		this.actual = actual;
+		this.maximum = maximum;
+	}
+
+	/**
+	 * Creates the exception for a document over one of the per-operation limits.
+	 * @param limit the limit name, e.g. {@code depth}, {@code aliases} or {@code cost}
+	 * @param actual the value of the document
+	 * @param maximum the configured maximum
+	 * @return the exception
+	 */
+	public static QueryCostExceededException tooComplex(String limit, long actual, long maximum) {
+		return new QueryCostExceededException("Query " + limit + " of " + actual + " exceeds the maximum of " + maximum,
+				QueryCostErrorType.QUERY_TOO_COMPLEX, limit, actual, maximum);
+	}
+
+	/**
+	 * Creates the exception for a client that has spent its cost budget.
+	 * @param cost the cost of the document
+	 * @param budget the budget per period
+	 * @return the exception
+	 */
+	public static QueryCostExceededException budgetExceeded(long cost, long budget) {
+		return new QueryCostExceededException("Query cost of " + cost + " exceeds the remaining cost budget of "
+				+ budget + " per period, retry later", QueryCostErrorType.QUERY_BUDGET_EXCEEDED, "budget", cost, budget);
+	}
+
+	public QueryCostErrorType getErrorType() {
+		return errorType;
+	}
+
+	/**
+	 * Returns the limit details reported to the client as error extensions.
+	 * @return the limit name with the actual and maximum values
+	 */
+	public Map<String, Object> getExtensions() {
+		return Map.of("limit", limit, "actual", actual, "maximum", maximum);
+	}
+
+}
@@ -0,0 +1,86 @@
+package com.giuliosmtech.products.graphql;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Per-client GraphQL cost budgets, kept as token buckets that refill continuously
+ * at {@code client-budget} per {@code client-budget-period}. Buckets of clients that
+ * stay idle for two periods are dropped; a budget of 0 or less disables the check.
+ */
+@Component
+public class ClientCostBudgets {
+
+	private final long capacity;
+
+	private final double refillPerNano;
+
+	private final Cache<String, TokenBucket> buckets;
+
+	public ClientCostBudgets(@Value("${products.graphql.cost.client-budget:200000}") long capacity,
+			@Value("${products.graphql.cost.client-budget-period:1m}") Duration period) {
+		this.capacity = capacity;
+		this.refillPerNano = (double) capacity / period.toNanos();
+		this.buckets = Caffeine.newBuilder()
+				.maximumSize(100_000)
+				.expireAfterAccess(period.multipliedBy(2))
+				.build();
+	}
+
+	/**
+	 * Returns the configured budget per period.
+	 * @return the budget, 0 or less when disabled
+	 */
+	public long capacity() {
+		return capacity;
+	}
+
+	/**
+	 * Spends part of the client's budget.
+	 * @param clientId the client identity
+	 * @param cost the cost to spend
+	 * @return true if the budget covered the cost, false if nothing was spent;
+	 * always false for a negative cost, which would refill the budget
+	 */
+	public boolean tryConsume(String clientId, long cost) {
+		if (cost < 0) {
+			return false;
+		}
+		if (capacity <= 0) {
+			return true;
+		}
+		return buckets.get(clientId, id -> new TokenBucket(capacity)).tryConsume(cost, capacity, refillPerNano);
+	}
+
+	private static final class TokenBucket {
+
+		private double tokens;
+
+		private long refilledAt = System.nanoTime();
+
+		TokenBucket(long capacity) {
+			this.tokens = capacity;
+		}
+
+		synchronized boolean tryConsume(long cost, long capacity, double refillPerNano) {
+			if (cost < 0) {
+				return false;
+			}
+			long now = System.nanoTime();
+			tokens = Math.min(capacity, tokens + (now - refilledAt) * refillPerNano);
+			refilledAt = now;
+			if (cost > tokens) {
+				return false;
+			}
+			tokens -= cost;
+			return true;
+		}
+
+	}
+
+}
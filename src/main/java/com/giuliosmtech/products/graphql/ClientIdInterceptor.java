@@ -0,0 +1,61 @@
+package com.giuliosmtech.products.graphql;
+
+import java.net.InetSocketAddress;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Stores the identity of the calling client in the GraphQL context under {@link #CLIENT_ID}.
+ * <p>
+ * The client is identified by its remote address, or by the header named in
+ * {@code products.graphql.cost.client-id-header} when one is configured. Only set the header
+ * when a trusted gateway fills it in, since clients could otherwise pick a fresh identity per request.
+ */
+@Component
+public class ClientIdInterceptor implements WebGraphQlInterceptor {
+
+	/**
+	 * GraphQL context key of the client identity.
+	 */
+	public static final String CLIENT_ID = ClientIdInterceptor.class.getName() + ".clientId";
+
+	/**
+	 * Client identity used when a request carries none, e.g. for in-process execution.
+	 */
+	public static final String ANONYMOUS = "anonymous";
+
+	private final String clientIdHeader;
+
+	public ClientIdInterceptor(@Value("${products.graphql.cost.client-id-header:}") String clientIdHeader) {
+		this.clientIdHeader = clientIdHeader;
+	}
+
+	@Override
+	public Mono<WebGraphQlResponse> intercept(WebGraphQlRequest request, Chain chain) {
+		String clientId = clientId(request);
+		request.configureExecutionInput((executionInput, builder) -> builder
+				.graphQLContext(Map.of(CLIENT_ID, clientId))
+				.build());
+		return chain.next(request);
+	}
+
+	private String clientId(WebGraphQlRequest request) {
+		if (StringUtils.hasText(clientIdHeader)) {
+			String header = request.getHeaders().getFirst(clientIdHeader);
+			if (StringUtils.hasText(header)) {
+				return header;
+			}
+		}
+		InetSocketAddress remoteAddress = request.getRemoteAddress();
+		return remoteAddress != null ? remoteAddress.getHostString() : ANONYMOUS;
+	}
+
+}
@@ -0,0 +1,258 @@
+package com.giuliosmtech.products.graphql;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import com.giuliosmtech.products.exceptions.GlobalExceptionHandler;
+import com.giuliosmtech.products.exceptions.QueryCostExceededException;
+
+import graphql.ExecutionResult;
+import graphql.analysis.QueryTraverser;
+import graphql.analysis.QueryVisitorFieldEnvironment;
+import graphql.analysis.QueryVisitorStub;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.ExecutionContext;
+import graphql.execution.instrumentation.Instrumentation;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLType;
+import graphql.schema.GraphQLTypeUtil;
+import graphql.util.TraversalControl;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Static cost analysis of every GraphQL operation, run before any resolver.
+ * <p>
+ * A leaf field costs nothing; an object field costs 1 plus its selection, multiplied by the
+ * expected size when the field is a list. The size of a list comes from a list argument
+ * ({@code ids}, {@code inputs}), from its {@code limit} argument, from the {@code first}
+ * argument of the enclosing connection,
+ * or from {@code products.graphql.cost.list-size.<field>}, falling back to
+ * {@code products.graphql.cost.default-list-size}. Introspection fields are not counted.
+ * <p>
+ * Operations over the maximum depth, alias count or cost, or over the client's budget
+ * ({@link ClientCostBudgets}), are rejected with the error built by
+ * {@link GlobalExceptionHandler} for {@link QueryCostExceededException}.
+ */
+@Component
+public class QueryCostInstrumentation implements Instrumentation {
+
+	private static final String FIRST = "first";
+
+	private static final String LIMIT = "limit";
+
+	private final GlobalExceptionHandler exceptionHandler;
+
+	private final ClientCostBudgets clientCostBudgets;
+
+	private final Environment environment;
+
+	private final MeterRegistry meterRegistry;
+
+	private final int maxDepth;
+
+	private final int maxAliases;
+
+	private final long maxCost;
+
+	private final int defaultListSize;
+
+	private final int defaultPageSize;
+
+	private final ConcurrentMap<String, Integer> listSizes = new ConcurrentHashMap<>();
+
+	private final ConcurrentMap<String, Counter> rejections = new ConcurrentHashMap<>();
+
+	public QueryCostInstrumentation(GlobalExceptionHandler exceptionHandler, ClientCostBudgets clientCostBudgets,
+			Environment environment, MeterRegistry meterRegistry,
+			@Value("${products.graphql.cost.max-depth:10}") int maxDepth,
+			@Value("${products.graphql.cost.max-aliases:20}") int maxAliases,
+			@Value("${products.graphql.cost.max-cost:10000}") long maxCost,
+			@Value("${products.graphql.cost.default-list-size:100}") int defaultListSize,
+			@Value("${products.pagination.default-page-size:20}") int defaultPageSize) {
+		this.exceptionHandler = exceptionHandler;
+		this.clientCostBudgets = clientCostBudgets;
+		this.environment = environment;
+		this.meterRegistry = meterRegistry;
+		this.maxDepth = maxDepth;
+		this.maxAliases = maxAliases;
+		this.maxCost = maxCost;
+		this.defaultListSize = defaultListSize;
+		this.defaultPageSize = defaultPageSize;
+	}
+
+	@Override
+	public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters,
+			InstrumentationState state) {
+		ExecutionContext executionContext = parameters.getExecutionContext();
+		QueryCost queryCost = analyze(executionContext);
+		if (queryCost.depth() > maxDepth) {
+			throw reject(QueryCostExceededException.tooComplex("depth", queryCost.depth(), maxDepth));
+		}
+		if (queryCost.aliases() > maxAliases) {
+			throw reject(QueryCostExceededException.tooComplex("aliases", queryCost.aliases(), maxAliases));
+		}
+		if (queryCost.cost() > maxCost) {
+			throw reject(QueryCostExceededException.tooComplex("cost", queryCost.cost(), maxCost));
+		}
+		String clientId = executionContext.getGraphQLContext()
+				.getOrDefault(ClientIdInterceptor.CLIENT_ID, ClientIdInterceptor.ANONYMOUS);
+		if (!clientCostBudgets.tryConsume(clientId, queryCost.cost())) {
+			throw reject(QueryCostExceededException.budgetExceeded(queryCost.cost(), clientCostBudgets.capacity()));
+		}
+		return SimpleInstrumentationContext.noOp();
+	}
+
+	/**
+	 * Computes the depth, alias count and cost of the operation being executed.
+	 */
+	private QueryCost analyze(ExecutionContext executionContext) {
+		QueryTraverser traverser = QueryTraverser.newQueryTraverser()
+				.schema(executionContext.getGraphQLSchema())
+				.document(executionContext.getDocument())
+				.operationName(executionContext.getOperationDefinition().getName())
+				.coercedVariables(executionContext.getCoercedVariables())
+				.build();
+
+		Map<QueryVisitorFieldEnvironment, FieldNode> nodes = new HashMap<>();
+		List<FieldNode> roots = new ArrayList<>();
+		int[] aliases = { 0 };
+		int[] depth = { 0 };
+		traverser.visitPreOrder(new QueryVisitorStub() {
+			@Override
+			public TraversalControl visitFieldWithControl(QueryVisitorFieldEnvironment env) {
+				if (env.getFieldDefinition().getName().startsWith("__")) {
+					return TraversalControl.ABORT;
+				}
+				FieldNode parent = env.getParentEnvironment() == null ? null : nodes.get(env.getParentEnvironment());
+				FieldNode node = new FieldNode(parent == null ? 1 : parent.depth + 1, isLeaf(env.getFieldDefinition()),
+						multiplier(env));
+				nodes.put(env, node);
+				(parent == null ? roots : parent.children).add(node);
+				if (env.getField().getAlias() != null) {
+					aliases[0]++;
+				}
+				depth[0] = Math.max(depth[0], node.depth);
+				return TraversalControl.CONTINUE;
+			}
+		});
+
+		long cost = 0;
+		for (FieldNode root : roots) {
+			cost = saturatedAdd(cost, root.cost());
+		}
+		return new QueryCost(depth[0], aliases[0], cost);
+	}
+
+	/**
+	 * Returns the expected number of items a field resolves to; 1 for non-list fields.
+	 * Sizes below 1, which clients can ask for, count as 1 so that no field lowers the cost.
+	 */
+	private int multiplier(QueryVisitorFieldEnvironment env) {
+		GraphQLFieldDefinition fieldDefinition = env.getFieldDefinition();
+		if (!GraphQLTypeUtil.isList(GraphQLTypeUtil.unwrapNonNull(fieldDefinition.getType()))) {
+			return 1;
+		}
+		return Math.max(1, listSize(env));
+	}
+
+	/**
+	 * Returns the expected size of a list field, as requested by the client or configured.
+	 */
+	private int listSize(QueryVisitorFieldEnvironment env) {
+		GraphQLFieldDefinition fieldDefinition = env.getFieldDefinition();
+		for (Object argument : env.getArguments().values()) {
+			if (argument instanceof Collection<?> values) {
+				return values.size();
+			}
+		}
+		if (env.getArguments().get(LIMIT) instanceof Integer limit) {
+			return limit;
+		}
+		QueryVisitorFieldEnvironment parent = env.getParentEnvironment();
+		if (parent != null && parent.getFieldDefinition().getArgument(FIRST) != null) {
+			return parent.getArguments().get(FIRST) instanceof Integer first ? first : defaultPageSize;
+		}
+		return listSizes.computeIfAbsent(fieldDefinition.getName(), name -> environment.getProperty(
+				"products.graphql.cost.list-size." + name, Integer.class, defaultListSize));
+	}
+
+	private AbortExecutionException reject(QueryCostExceededException e) {
+		rejections.computeIfAbsent(e.getErrorType().name(), reason -> Counter.builder("products.graphql.rejected")
+				.description("GraphQL operations rejected by query cost analysis")
+				.tag("reason", reason)
+				.register(meterRegistry))
+				.increment();
+		return new AbortExecutionException(List.of(exceptionHandler.handleAllExceptionsForGraphQL(e)));
+	}
+
+	private static boolean isLeaf(GraphQLFieldDefinition fieldDefinition) {
+		GraphQLType type = GraphQLTypeUtil.unwrapAll(fieldDefinition.getType());
+		return GraphQLTypeUtil.isLeaf(type);
+	}
+
+	private static long saturatedAdd(long a, long b) {
+		long sum = a + b;
+		return sum < 0 ? Long.MAX_VALUE : sum;
+	}
+
+	private static long saturatedMultiply(long a, long b) {
+		try {
+			return Math.multiplyExact(a, b);
+		} catch (ArithmeticException e) {
+			return Long.MAX_VALUE;
+		}
+	}
+
+	/**
+	 * Result of the static analysis of one operation.
+	 * @param depth the deepest field nesting, counting root fields as 1
+	 * @param aliases the number of aliased fields
+	 * @param cost the estimated cost
+	 */
+	private record QueryCost(int depth, int aliases, long cost) {
+	}
+
+	private static final class FieldNode {
+
+		private final int depth;
+
+		private final boolean leaf;
+
+		private final int multiplier;
+
+		private final List<FieldNode> children = new ArrayList<>();
+
+		FieldNode(int depth, boolean leaf, int multiplier) {
+			this.depth = depth;
+			this.leaf = leaf;
+			this.multiplier = multiplier;
+		}
+
+		long cost() {
+			if (leaf) {
+				return 0;
+			}
+			long selection = 1;
+			for (FieldNode child : children) {
+				selection = saturatedAdd(selection, child.cost());
+			}
+			return saturatedMultiply(multiplier, selection);
+		}
+
+	}
+
+}
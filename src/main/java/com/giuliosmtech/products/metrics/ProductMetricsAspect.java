@@ -0,0 +1,163 @@
+package com.giuliosmtech.products.metrics;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import com.giuliosmtech.products.dto.ProductChangeFeed;
+import com.giuliosmtech.products.dto.ProductConnection;
+import com.giuliosmtech.products.dto.ProductResponse;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Records latency, result size and errors for every {@code ProductService} operation
+ * and every GraphQL resolver in the controller package.
+ * <p>
+ * Meters are named {@code products.service.*} (tagged by {@code method}) and
+ * {@code products.graphql.*} (tagged by {@code field}). Timers publish p50/p95/p99
+ * and a percentile histogram; errors are counted per exception type.
+ */
+@Aspect
+@Component
+public class ProductMetricsAspect {
+
+	private static final String NONE = "none";
+
+	private final MeterRegistry meterRegistry;
+
+	private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+	private final ConcurrentMap<String, DistributionSummary> resultSizes = new ConcurrentHashMap<>();
+
+	private final ConcurrentMap<String, Counter> errors = new ConcurrentHashMap<>();
+
+	public ProductMetricsAspect(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Around("execution(* com.giuliosmtech.products.service.ProductService.*(..))")
+	public Object timeServiceOperation(ProceedingJoinPoint joinPoint) throws Throwable {
+		return record("products.service", "method", joinPoint);
+	}
+
+	@Around("within(com.giuliosmtech.products.controller..*) && ("
+			+ "@annotation(org.springframework.graphql.data.method.annotation.QueryMapping)"
+			+ " || @annotation(org.springframework.graphql.data.method.annotation.MutationMapping)"
+			+ " || @annotation(org.springframework.graphql.data.method.annotation.SchemaMapping))")
+	public Object timeGraphQlResolver(ProceedingJoinPoint joinPoint) throws Throwable {
+		return record("products.graphql", "field", joinPoint);
+	}
+
+	/**
+	 * Times the invocation; asynchronous and reactive results are measured when they complete.
+	 */
+	private Object record(String prefix, String tag, ProceedingJoinPoint joinPoint) throws Throwable {
+		String name = joinPoint.getSignature().getName();
+		long start = System.nanoTime();
+		Object result;
+		try {
+			result = joinPoint.proceed();
+		} catch (Throwable e) {
+			stop(prefix, tag, name, start, null, e);
+			throw e;
+		}
+		if (result instanceof CompletionStage<?> stage) {
+			return stage.whenComplete((value, e) -> stop(prefix, tag, name, start, value, unwrap(e)));
+		} else if (result instanceof Mono<?> mono) {
+			return mono.doOnSuccess(value -> stop(prefix, tag, name, start, value, null))
+					.doOnError(e -> stop(prefix, tag, name, start, null, e));
+		} else if (result instanceof Flux<?> flux) {
+			AtomicInteger count = new AtomicInteger();
+			return flux.doOnNext(value -> count.incrementAndGet())
+					.doOnComplete(() -> stop(prefix, tag, name, start, count.get(), null))
+					.doOnError(e -> stop(prefix, tag, name, start, -1, e));
+		}
+		stop(prefix, tag, name, start, result, null);
+		return result;
+	}
+
+	private void stop(String prefix, String tag, String name, long start, Object result, Throwable error) {
+		stop(prefix, tag, name, start, error == null ? resultSize(result) : -1, error);
+	}
+
+	private void stop(String prefix, String tag, String name, long start, int size, Throwable error) {
+		long elapsed = System.nanoTime() - start;
+		String exception = error == null ? NONE : error.getClass().getSimpleName();
+		timer(prefix, tag, name, exception).record(elapsed, TimeUnit.NANOSECONDS);
+		if (error != null) {
+			errors.computeIfAbsent(prefix + name + exception, key -> Counter.builder(prefix + ".errors")
+					.description("Failed invocations by exception type")
+					.tag(tag, name)
+					.tag("exception", exception)
+					.register(meterRegistry))
+					.increment();
+			return;
+		}
+		if (size >= 0) {
+			resultSizes.computeIfAbsent(prefix + name, key -> DistributionSummary.builder(prefix + ".result.size")
+					.description("Number of products returned")
+					.baseUnit("products")
+					.tag(tag, name)
+					.publishPercentiles(0.5, 0.95, 0.99)
+					.register(meterRegistry))
+					.record(size);
+		}
+	}
+
+	private Timer timer(String prefix, String tag, String name, String exception) {
+		return timers.computeIfAbsent(prefix + name + exception, key -> Timer.builder(prefix)
+				.description("Latency of product operations")
+				.tag(tag, name)
+				.tag("exception", exception)
+				.publishPercentiles(0.5, 0.95, 0.99)
+				.publishPercentileHistogram()
+				.register(meterRegistry));
+	}
+
+	/**
+	 * Counts the products in a result. Counts, flags and aggregates are not sizes and
+	 * are not recorded.
+	 * @return the number of products, or -1 when the result does not carry products
+	 */
+	private static int resultSize(Object result) {
+		if (result instanceof Collection<?> collection) {
+			return collection.size();
+		} else if (result instanceof Map<?, ?> map) {
+			return map.size();
+		} else if (result instanceof Optional<?> optional) {
+			return optional.isPresent() ? 1 : 0;
+		} else if (result instanceof ProductConnection connection) {
+			return connection.edges().size();
+		} else if (result instanceof ProductChangeFeed feed) {
+			return feed.changes().size();
+		} else if (result instanceof ProductResponse) {
+			return 1;
+		}
+		return -1;
+	}
+
+	private static Throwable unwrap(Throwable error) {
+		if (error instanceof CompletionException && error.getCause() != null) {
+			return error.getCause();
+		}
+		return error;
+	}
+
+}
@@ -0,0 +1,54 @@
+package com.giuliosmtech.products.outbox;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.giuliosmtech.products.dto.ProductChange;
+
+/**
+ * Appends published changes to a local file as newline-delimited JSON, one batch per write.
+ * Active when {@code products.outbox.sink=file}; the file is {@code products.outbox.file.path}.
+ */
+@Component
+@ConditionalOnProperty(name = "products.outbox.sink", havingValue = "file")
+public class FileProductChangeSink implements ProductChangeSink {
+
+	private final Path path;
+
+	private final ObjectMapper objectMapper;
+
+	public FileProductChangeSink(@Value("${products.outbox.file.path:product-changes.ndjson}") Path path,
+			ObjectMapper objectMapper) throws IOException {
+		this.path = path;
+		this.objectMapper = objectMapper;
+		Path parent = path.toAbsolutePath().getParent();
+		if (parent != null) {
+			Files.createDirectories(parent);
+		}
+	}
+
+	@Override
+	public synchronized void publish(List<ProductChange> changes) {
+		try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+				StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+			for (ProductChange change : changes) {
+				writer.write(objectMapper.writeValueAsString(change));
+				writer.newLine();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to append product changes to " + path, e);
+		}
+	}
+
+}
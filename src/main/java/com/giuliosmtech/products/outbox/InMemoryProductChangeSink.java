@@ -0,0 +1,55 @@
+package com.giuliosmtech.products.outbox;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.giuliosmtech.products.dto.ProductChange;
+
+/**
+ * Keeps the latest published changes in memory, dropping the oldest beyond
+ * {@code products.outbox.memory.capacity}. Meant for tests and local runs.
+ * This is the default ({@code products.outbox.sink=memory}).
+ */
+@Component
+@ConditionalOnProperty(name = "products.outbox.sink", havingValue = "memory", matchIfMissing = true)
+public class InMemoryProductChangeSink implements ProductChangeSink {
+
+	private final int capacity;
+
+	private final Deque<ProductChange> changes = new ArrayDeque<>();
+
+	public InMemoryProductChangeSink(@Value("${products.outbox.memory.capacity:10000}") int capacity) {
+		this.capacity = capacity;
+	}
+
+	@Override
+	public synchronized void publish(List<ProductChange> batch) {
+		for (ProductChange change : batch) {
+			if (changes.size() == capacity) {
+				changes.removeFirst();
+			}
+			changes.addLast(change);
+		}
+	}
+
+	/**
+	 * Returns the changes kept, oldest first.
+	 * @return a copy of the changes
+	 */
+	public synchronized List<ProductChange> changes() {
+		return List.copyOf(changes);
+	}
+
+	/**
+	 * Forgets the changes kept.
+	 */
+	public synchronized void clear() {
+		changes.clear();
+	}
+
+}
@@ -0,0 +1,22 @@
+package com.giuliosmtech.products.outbox;
+
+import java.util.List;
+
+import com.giuliosmtech.products.dto.ProductChange;
+
+/**
+ * Destination of the product changes drained from the outbox.
+ * The implementation is selected with {@code products.outbox.sink} ({@code memory} or {@code file}).
+ */
+public interface ProductChangeSink {
+
+	/**
+	 * Publishes a batch of changes. A batch that fails is published again, with new
+	 * positions, on the next drain; a batch may also be repeated when the drain fails
+	 * after publishing it, so consumers must tolerate duplicates.
+	 * @param changes the changes in feed order
+	 * @throws RuntimeException when the batch could not be published
+	 */
+	void publish(List<ProductChange> changes);
+
+}
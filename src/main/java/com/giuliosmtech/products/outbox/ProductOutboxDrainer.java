@@ -0,0 +1,141 @@
+package com.giuliosmtech.products.outbox;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.giuliosmtech.products.dto.ProductChange;
+import com.giuliosmtech.products.entity.ProductOutboxEntry;
+import com.giuliosmtech.products.repository.ProductOutboxRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Drains the product outbox to the {@link ProductChangeSink} on a background thread.
+ * <p>
+ * Every {@code products.outbox.drain-interval}, committed records are read in batches of
+ * {@code products.outbox.batch-size} and given consecutive positions in the change feed
+ * in the same transaction that hands them to the sink. Positions therefore follow the
+ * order in which changes became visible, so a consumer resuming after a position never
+ * misses a change that committed late. Drained records are kept for the change feed,
+ * up to the latest {@code products.outbox.retained-changes}.
+ * <p>
+ * Positions are assigned by this single drainer, which assumes one application instance
+ * per database.
+ */
+@Slf4j
+@Component
+public class ProductOutboxDrainer {
+
+	private final ProductOutboxRepository outboxRepository;
+
+	private final ProductChangeSink sink;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final int batchSize;
+
+	private final Duration interval;
+
+	private final long retainedChanges;
+
+	private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "product-outbox");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private long lastSequenceNumber;
+
+	public ProductOutboxDrainer(ProductOutboxRepository outboxRepository, ProductChangeSink sink,
+			PlatformTransactionManager transactionManager,
+			@Value("${products.outbox.batch-size:500}") int batchSize,
+			@Value("${products.outbox.drain-interval:1s}") Duration interval,
+			@Value("${products.outbox.retained-changes:100000}") long retainedChanges) {
+		this.outboxRepository = outboxRepository;
+		this.sink = sink;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.batchSize = batchSize;
+		this.interval = interval;
+		this.retainedChanges = retainedChanges;
+	}
+
+	@PostConstruct
+	void start() {
+		lastSequenceNumber = outboxRepository.findMaxSequenceNumber().orElse(0L);
+		executor.scheduleWithFixedDelay(this::drainQuietly, interval.toMillis(), interval.toMillis(),
+				TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Drains every committed record, batch by batch, then purges the positions no longer retained.
+	 * Also run on schedule; concurrent calls are serialized.
+	 * @return the number of records drained
+	 */
+	public synchronized int drain() {
+		int drained = 0;
+		int batch;
+		do {
+			batch = drainBatch();
+			drained += batch;
+		} while (batch == batchSize);
+		if (lastSequenceNumber > retainedChanges) {
+			long through = lastSequenceNumber - retainedChanges;
+			Integer purged = transactionTemplate.execute(status -> outboxRepository.deleteDrainedThrough(through));
+			log.debug("Purged {} outbox records through position {}", purged, through);
+		}
+		return drained;
+	}
+
+	/**
+	 * Positions and publishes one batch in one transaction; the positions only count once it commits.
+	 * @return the number of records drained
+	 */
+	private int drainBatch() {
+		List<ProductChange> changes = transactionTemplate.execute(status -> {
+			List<ProductOutboxEntry> entries = outboxRepository.findBySequenceNumberIsNullOrderByIdAsc(Limit.of(batchSize));
+			List<ProductChange> batch = new ArrayList<>(entries.size());
+			long sequenceNumber = lastSequenceNumber;
+			for (ProductOutboxEntry entry : entries) {
+				entry.setSequenceNumber(++sequenceNumber);
+				batch.add(ProductChange.from(entry));
+			}
+			if (!batch.isEmpty()) {
+				// written before publishing, so a failed write never reaches the sink
+				outboxRepository.flush();
+				sink.publish(batch);
+			}
+			return batch;
+		});
+		lastSequenceNumber += changes.size();
+		if (!changes.isEmpty()) {
+			log.debug("Drained {} outbox records through position {}", changes.size(), lastSequenceNumber);
+		}
+		return changes.size();
+	}
+
+	private void drainQuietly() {
+		try {
+			drain();
+		} catch (RuntimeException e) {
+			log.error("Failed to drain the product outbox", e);
+		}
+	}
+
+	@PreDestroy
+	void shutdown() {
+		executor.shutdownNow();
+	}
+
+}
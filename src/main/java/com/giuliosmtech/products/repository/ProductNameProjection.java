@@ -0,0 +1,12 @@
+package com.giuliosmtech.products.repository;
+
+/**
+ * Projection exposing only the id and name of a product.
+ */
+public interface ProductNameProjection {
+
+	Long getId();
+
+	String getName();
+
+}
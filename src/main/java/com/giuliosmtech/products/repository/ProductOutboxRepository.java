@@ -0,0 +1,58 @@
+package com.giuliosmtech.products.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.giuliosmtech.products.entity.ProductOutboxEntry;
+
+/**
+ * Repository of the product outbox. Every query is served by the (sequence_number, id) index.
+ */
+@Repository
+public interface ProductOutboxRepository extends JpaRepository<ProductOutboxEntry, Long> {
+
+	/**
+	 * Finds the oldest records not drained yet.
+	 * @param limit the maximum number of records to return
+	 * @return undrained records ordered by id
+	 */
+	List<ProductOutboxEntry> findBySequenceNumberIsNullOrderByIdAsc(Limit limit);
+
+	/**
+	 * Finds the drained records after a position of the change feed.
+	 * @param sequenceNumber the position of the last record already seen
+	 * @param limit the maximum number of records to return
+	 * @return records ordered by position
+	 */
+	List<ProductOutboxEntry> findBySequenceNumberGreaterThanOrderBySequenceNumberAsc(Long sequenceNumber, Limit limit);
+
+	/**
+	 * Returns the last position assigned in the change feed.
+	 * @return optional containing the highest position, empty when nothing was drained
+	 */
+	@Query("select max(e.sequenceNumber) from ProductOutboxEntry e")
+	Optional<Long> findMaxSequenceNumber();
+
+	/**
+	 * Returns the oldest position still retained in the change feed.
+	 * @return optional containing the lowest position, empty when nothing was drained
+	 */
+	@Query("select min(e.sequenceNumber) from ProductOutboxEntry e")
+	Optional<Long> findMinSequenceNumber();
+
+	/**
+	 * Deletes drained records up to a position of the change feed.
+	 * @param sequenceNumber the last position to delete
+	 * @return the number of records deleted
+	 */
+	@Modifying
+	@Query("delete from ProductOutboxEntry e where e.sequenceNumber <= :sequenceNumber")
+	int deleteDrainedThrough(long sequenceNumber);
+
+}
@@ -0,0 +1,22 @@
+package com.giuliosmtech.products.repository;
+
+import java.math.BigDecimal;
+
+import com.giuliosmtech.products.enums.ProductStatus;
+
+/**
+ * Projection of the products sharing a status and a price, used to seed the catalog statistics.
+ */
+public interface ProductPriceGroup {
+
+	ProductStatus getStatus();
+
+	BigDecimal getPrice();
+
+	Long getCount();
+
+	Long getStock();
+
+	Long getLowStock();
+
+}
@@ -0,0 +1,137 @@
+package com.giuliosmtech.products.repository;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import com.giuliosmtech.products.dto.ProductResponse;
+import com.giuliosmtech.products.enums.ProductField;
+import com.giuliosmtech.products.enums.ProductStatus;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Readable;
+import reactor.core.publisher.Flux;
+
+/**
+ * Non-blocking, read-only access to the products table over R2DBC.
+ * <p>
+ * Reads the same database as the JPA repositories through its own connection pool.
+ * String parameters are cast to varchar because the H2 driver binds them as CLOBs.
+ * The pool is not exposed as a {@code ConnectionFactory} bean, since Spring Boot
+ * would otherwise back off from configuring the JDBC DataSource.
+ * Active when {@code products.graphql.data-access=r2dbc}.
+ */
+@Repository
+@ConditionalOnProperty(name = "products.graphql.data-access", havingValue = "r2dbc")
+public class ProductReactiveRepository implements DisposableBean {
+
+	private final ConnectionPool connectionPool;
+
+	private final DatabaseClient databaseClient;
+
+	public ProductReactiveRepository(@Value("${products.r2dbc.url}") String url,
+			@Value("${products.r2dbc.username:}") String username,
+			@Value("${products.r2dbc.password:}") String password,
+			@Value("${products.r2dbc.pool-size:10}") int poolSize) {
+		ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+				.option(ConnectionFactoryOptions.USER, username)
+				.option(ConnectionFactoryOptions.PASSWORD, password)
+				.build();
+		this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+				.maxSize(poolSize)
+				.maxIdleTime(Duration.ofMinutes(30))
+				.build());
+		this.databaseClient = DatabaseClient.create(connectionPool);
+	}
+
+	/**
+	 * Finds products by status, reading only the requested columns.
+	 * @param fields the fields to read
+	 * @param status the product status
+	 * @return the products ordered by ID, with unrequested fields left null
+	 */
+	public Flux<ProductResponse> findFieldsByStatus(Set<ProductField> fields, ProductStatus status) {
+		return databaseClient.sql(select(fields) + " where status = cast(:status as varchar) order by id")
+				.bind("status", status.name())
+				.map(row -> toResponse(row, fields))
+				.all();
+	}
+
+	/**
+	 * Finds products by ID, reading only the requested columns.
+	 * @param fields the fields to read
+	 * @param ids the product IDs
+	 * @return the products found, ordered by ID, with unrequested fields left null
+	 */
+	public Flux<ProductResponse> findFieldsByIds(Set<ProductField> fields, Collection<Long> ids) {
+		if (ids.isEmpty()) {
+			return Flux.empty();
+		}
+		return databaseClient.sql(select(fields) + " where id in (:ids) order by id")
+				.bind("ids", ids)
+				.map(row -> toResponse(row, fields))
+				.all();
+	}
+
+	/**
+	 * Finds products whose name contains the term, ignoring case.
+	 * @param fields the fields to read
+	 * @param term the search term
+	 * @return the matching products ordered by ID, with unrequested fields left null
+	 */
+	public Flux<ProductResponse> findFieldsByNameContainingIgnoreCase(Set<ProductField> fields, String term) {
+		return databaseClient.sql(select(fields) + " where name_lower like cast(:pattern as varchar) escape '\\' order by id")
+				.bind("pattern", "%" + ProductRepositoryCustomImpl.escapeLike(term.toLowerCase(Locale.ROOT)) + "%")
+				.map(row -> toResponse(row, fields))
+				.all();
+	}
+
+	@Override
+	public void destroy() {
+		connectionPool.dispose();
+	}
+
+	private static String select(Set<ProductField> fields) {
+		return fields.stream()
+				.map(ProductField::columnName)
+				.collect(Collectors.joining(", ", "select ", " from products"));
+	}
+
+	/**
+	 * Converts a row to ProductResponse DTO, leaving unselected fields null.
+	 * @param row the row
+	 * @param fields the selected fields
+	 * @return the product response DTO
+	 */
+	private static ProductResponse toResponse(Readable row, Set<ProductField> fields) {
+		ProductResponse.ProductResponseBuilder builder = ProductResponse.builder();
+		for (ProductField field : fields) {
+			String column = field.columnName();
+			switch (field) {
+				case ID -> builder.id(row.get(column, Long.class));
+				case NAME -> builder.name(row.get(column, String.class));
+				case DESCRIPTION -> builder.description(row.get(column, String.class));
+				case PRICE -> builder.price(row.get(column, BigDecimal.class));
+				case STOCK -> builder.stock(row.get(column, Integer.class));
+				case STATUS -> builder.status(ProductStatus.valueOf(row.get(column, String.class)));
+				case CREATED_AT -> builder.createdAt(row.get(column, LocalDateTime.class));
+				case UPDATED_AT -> builder.updatedAt(row.get(column, LocalDateTime.class));
+			}
+		}
+		return builder.build();
+	}
+
+}
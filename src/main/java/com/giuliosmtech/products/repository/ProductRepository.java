@@ -1,23 +1,38 @@
 package com.giuliosmtech.products.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import com.giuliosmtech.products.entity.Product;
 import com.giuliosmtech.products.enums.ProductStatus;
 
+import jakarta.persistence.LockModeType;
+
 /**
  * Repository interface for Product entity operations.
  */
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
 
 	/**
 	 * Finds products by name containing the term (case-insensitive).
+	 * The match runs over the lower-cased name index, which is much narrower
+	 * than the table, and only matching rows are then read by primary key.
 	 * @param name the search term
 	 * @return list of matching products
 	 */
+	@Query("select p from Product p where p.id in (select q.id from Product q"
+			+ " where q.nameLower like %?#{escape([0]).toLowerCase()}% escape ?#{escapeCharacter()})")
 	List<Product> findByNameContainingIgnoreCase(String name);
 
 	/**
@@ -34,4 +49,114 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 	 */
 	List<Product> findAllByStatus(ProductStatus status);
 
+	/**
+	 * Finds the next page of products after the given id (keyset pagination).
+	 * @param id the id of the last product already seen
+	 * @param limit the maximum number of products to return
+	 * @return products ordered by id
+	 */
+	List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+	/**
+	 * Finds the next page of products with the given status after the given id,
+	 * served by the (status, id) index.
+	 * @param status the product status
+	 * @param id the id of the last product already seen
+	 * @param limit the maximum number of products to return
+	 * @return products with the given status ordered by id
+	 */
+	List<Product> findByStatusAndIdGreaterThanOrderByIdAsc(ProductStatus status, Long id, Limit limit);
+
+	/**
+	 * Finds the cheapest products with the given status, ties broken by id.
+	 * Ordering by the constant status as well lets the database walk the
+	 * (status, price, id) index in order and stop at the limit, without sorting.
+	 * @param status the product status
+	 * @param limit the maximum number of products to return
+	 * @return products with the given status ordered by price, then id
+	 */
+	@Query("select p from Product p where p.status = :status order by p.status, p.price, p.id")
+	List<Product> findCheapestByStatus(ProductStatus status, Limit limit);
+
+	/**
+	 * Finds the products with the given status lowest on stock, ties broken by id,
+	 * walking the (status, stock, id) index in order.
+	 * @param status the product status
+	 * @param limit the maximum number of products to return
+	 * @return products with the given status ordered by stock, then id
+	 */
+	@Query("select p from Product p where p.status = :status order by p.status, p.stock, p.id")
+	List<Product> findLowestStockByStatus(ProductStatus status, Limit limit);
+
+	/**
+	 * Streams the id and name of every product, used to build the search index.
+	 * Must be consumed inside a transaction.
+	 * @return stream of product names
+	 */
+	Stream<ProductNameProjection> findAllProjectedBy();
+
+	/**
+	 * Finds the version and timestamps of a product without loading the entity.
+	 * @param id the product ID
+	 * @return optional containing the version if the product exists
+	 */
+	Optional<ProductVersionProjection> findVersionById(Long id);
+
+	/**
+	 * Returns which of the given names are already used by a product.
+	 * @param names the candidate names
+	 * @return the names that already exist
+	 */
+	@Query("select p.name from Product p where p.name in :names")
+	Set<String> findExistingNames(Collection<String> names);
+
+	/**
+	 * Aggregates the catalog by status and price in one pass, to seed the catalog statistics.
+	 * @param lowStockThreshold the stock at or below which a product counts as low on stock
+	 * @return one group per distinct status and price
+	 */
+	@Query("select p.status as status, p.price as price, count(p) as count, sum(p.stock) as stock,"
+			+ " sum(case when p.stock <= :lowStockThreshold then 1 else 0 end) as lowStock"
+			+ " from Product p group by p.status, p.price")
+	List<ProductPriceGroup> aggregateByStatusAndPrice(int lowStockThreshold);
+
+	/**
+	 * Adds the delta to the stock of a product in a single conditional UPDATE,
+	 * unless that would make the stock negative. Bumps the row version.
+	 * @param id the product ID
+	 * @param delta the stock change, negative to take stock
+	 * @param updatedAt the update time
+	 * @return 1 if the stock was adjusted, 0 if the product does not exist or has too little stock
+	 */
+	@Modifying(clearAutomatically = true)
+	@Query("update Product p set p.stock = p.stock + :delta, p.version = p.version + 1, p.updatedAt = :updatedAt"
+			+ " where p.id = :id and p.stock + :delta >= 0")
+	int adjustStock(Long id, int delta, LocalDateTime updatedAt);
+
+	/**
+	 * Locks the given products that do not have a status yet and reads their current status.
+	 * The locks hold until the transaction ends, so the statuses read stay current.
+	 * The status is compared with an inequality, which H2 cannot use an index for, so the
+	 * rows are found by primary key rather than by scanning the (status, id) index.
+	 * @param ids the product IDs
+	 * @param status the status to leave out
+	 * @return the id and status of each locked product
+	 */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select p.id as id, p.status as status from Product p where p.id in :ids and p.status <> :status")
+	List<ProductStatusProjection> lockStatusesOtherThan(Collection<Long> ids, ProductStatus status);
+
+	/**
+	 * Moves the products with the given ids to a status in a single set-based UPDATE.
+	 * Bumps the row versions.
+	 * @param ids the product IDs
+	 * @param status the new status
+	 * @param updatedAt the update time
+	 * @return the number of products moved
+	 */
+	@Modifying(clearAutomatically = true)
+	@Query("update Product p set p.status = :status, p.updatedAt = :updatedAt, p.version = p.version + 1"
+			+ " where p.id in :ids")
+	int updateStatus(Collection<Long> ids, ProductStatus status, LocalDateTime updatedAt);
+
 }
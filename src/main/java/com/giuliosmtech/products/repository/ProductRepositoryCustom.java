@@ -0,0 +1,73 @@
+package com.giuliosmtech.products.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import com.giuliosmtech.products.dto.ProductFilter;
+import com.giuliosmtech.products.entity.Product;
+import com.giuliosmtech.products.enums.ProductField;
+import com.giuliosmtech.products.enums.ProductStatus;
+
+import jakarta.persistence.Tuple;
+
+/**
+ * Custom repository operations that need direct access to the persistence context.
+ */
+public interface ProductRepositoryCustom {
+
+	/**
+	 * Streams products ordered by id through a forward-only, read-only cursor.
+	 * Must be consumed inside a transaction and closed afterwards.
+	 * @param status the product status, or null for all products
+	 * @param fetchSize the number of rows the JDBC driver fetches per round-trip
+	 * @return stream of products
+	 */
+	Stream<Product> streamByStatus(ProductStatus status, int fetchSize);
+
+	/**
+	 * Finds only the given columns of the products with a status, ordered by id.
+	 * Each tuple element is aliased with its {@link ProductField#fieldName()}.
+	 * @param fields the fields to select
+	 * @param status the product status
+	 * @return one tuple per product
+	 */
+	List<Tuple> findFieldsByStatus(Set<ProductField> fields, ProductStatus status);
+
+	/**
+	 * Finds only the given columns of the products with the given ids, ordered by id.
+	 * Each tuple element is aliased with its {@link ProductField#fieldName()}.
+	 * @param fields the fields to select
+	 * @param ids the product IDs
+	 * @return one tuple per product found
+	 */
+	List<Tuple> findFieldsByIds(Set<ProductField> fields, Collection<Long> ids);
+
+	/**
+	 * Finds the next page of products matching a filter after the given id (keyset pagination),
+	 * in one query. A single status is served by the (status, id) index, no status by the primary key.
+	 * @param filter the filter
+	 * @param id the id of the last product already seen
+	 * @param limit the maximum number of products to return
+	 * @return matching products ordered by id
+	 */
+	List<Product> findPageWhere(ProductFilter filter, long id, int limit);
+
+	/**
+	 * Locks the products matching a filter that currently have one of the statuses and
+	 * reads their status. The statuses of the filter are ignored; the caller chooses them.
+	 * The locks hold until the transaction ends, so the statuses read stay current.
+	 * @param filter the filter
+	 * @param statuses the statuses to select
+	 * @return the id and status of each locked product
+	 */
+	List<ProductStatusProjection> lockStatusesWhere(ProductFilter filter, Collection<ProductStatus> statuses);
+
+	/**
+	 * Detaches a product from the persistence context so it can be garbage collected.
+	 * @param product the product to detach
+	 */
+	void detach(Product product);
+
+}
@@ -0,0 +1,184 @@
+package com.giuliosmtech.products.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+
+import com.giuliosmtech.products.dto.ProductFilter;
+import com.giuliosmtech.products.entity.Product;
+import com.giuliosmtech.products.enums.ProductField;
+import com.giuliosmtech.products.enums.ProductStatus;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+/**
+ * Implementation of the custom product repository operations.
+ */
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	public Stream<Product> streamByStatus(ProductStatus status, int fetchSize) {
+		TypedQuery<Product> query = status == null
+				? entityManager.createQuery("select p from Product p order by p.id", Product.class)
+				: entityManager.createQuery("select p from Product p where p.status = :status order by p.id", Product.class)
+						.setParameter("status", status);
+
+		// Hibernate backs getResultStream() with a FORWARD_ONLY ScrollableResults,
+		// so rows are pulled from the JDBC cursor fetchSize at a time
+		return query
+				.setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+				.setHint(HibernateHints.HINT_READ_ONLY, true)
+				.setHint(HibernateHints.HINT_CACHEABLE, false)
+				.getResultStream();
+	}
+
+	@Override
+	public List<Tuple> findFieldsByStatus(Set<ProductField> fields, ProductStatus status) {
+		return findFields(fields, (cb, root) -> cb.equal(root.get("status"), status));
+	}
+
+	@Override
+	public List<Tuple> findFieldsByIds(Set<ProductField> fields, Collection<Long> ids) {
+		return findFields(fields, (cb, root) -> root.get("id").in(ids));
+	}
+
+	/**
+	 * Runs a tuple query selecting only the requested columns.
+	 * @param fields the fields to select
+	 * @param restriction builds the where clause
+	 * @return one tuple per matching product, ordered by id
+	 */
+	private List<Tuple> findFields(Set<ProductField> fields, BiFunction<CriteriaBuilder, Root<Product>, Predicate> restriction) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<Tuple> query = cb.createTupleQuery();
+		Root<Product> root = query.from(Product.class);
+		query.multiselect(fields.stream()
+						.<Selection<?>>map(field -> root.get(field.fieldName()).alias(field.fieldName()))
+						.toList())
+				.where(restriction.apply(cb, root))
+				.orderBy(cb.asc(root.get("id")));
+		return entityManager.createQuery(query).getResultList();
+	}
+
+	@Override
+	public List<Product> findPageWhere(ProductFilter filter, long id, int limit) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<Product> query = cb.createQuery(Product.class);
+		Root<Product> root = query.from(Product.class);
+		List<Predicate> predicates = filterPredicates(cb, root, filter);
+		Set<ProductStatus> statuses = filter.statuses();
+		if (statuses != null && statuses.size() == 1) {
+			// an equality lets the (status, id) index seek straight to the cursor
+			predicates.add(cb.equal(root.get("status"), statuses.iterator().next()));
+		} else if (statuses != null && !statuses.isEmpty()) {
+			predicates.add(root.get("status").in(statuses));
+		}
+		predicates.add(cb.greaterThan(root.<Long>get("id"), id));
+		query.select(root)
+				.where(predicates.toArray(Predicate[]::new))
+				.orderBy(cb.asc(root.get("id")));
+		return entityManager.createQuery(query)
+				.setMaxResults(limit)
+				.getResultList();
+	}
+
+	@Override
+	public List<ProductStatusProjection> lockStatusesWhere(ProductFilter filter, Collection<ProductStatus> statuses) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<Tuple> query = cb.createTupleQuery();
+		Root<Product> root = query.from(Product.class);
+		List<Predicate> predicates = filterPredicates(cb, root, filter);
+		predicates.add(root.get("status").in(statuses));
+		query.multiselect(root.get("id").alias("id"), root.get("status").alias("status"))
+				.where(predicates.toArray(Predicate[]::new));
+		return entityManager.createQuery(query)
+				.setLockMode(LockModeType.PESSIMISTIC_WRITE)
+				.getResultList()
+				.stream()
+				.<ProductStatusProjection>map(tuple -> new StatusRow(tuple.get("id", Long.class),
+						tuple.get("status", ProductStatus.class)))
+				.toList();
+	}
+
+	/**
+	 * Translates the non-status criteria of a filter into predicates.
+	 * @param cb the criteria builder
+	 * @param root the product root
+	 * @param filter the filter
+	 * @return a mutable list of predicates, empty for an empty filter
+	 */
+	private static List<Predicate> filterPredicates(CriteriaBuilder cb, Root<Product> root, ProductFilter filter) {
+		List<Predicate> predicates = new ArrayList<>();
+		if (filter.nameContains() != null && !filter.nameContains().isBlank()) {
+			String pattern = "%" + escapeLike(filter.nameContains().toLowerCase(Locale.ROOT)) + "%";
+			predicates.add(cb.like(root.get("nameLower"), pattern, '\\'));
+		}
+		if (filter.minPrice() != null) {
+			predicates.add(cb.greaterThanOrEqualTo(root.<BigDecimal>get("price"), filter.minPrice()));
+		}
+		if (filter.maxPrice() != null) {
+			predicates.add(cb.lessThanOrEqualTo(root.<BigDecimal>get("price"), filter.maxPrice()));
+		}
+		if (filter.minStock() != null) {
+			predicates.add(cb.greaterThanOrEqualTo(root.<Integer>get("stock"), filter.minStock()));
+		}
+		if (filter.maxStock() != null) {
+			predicates.add(cb.lessThanOrEqualTo(root.<Integer>get("stock"), filter.maxStock()));
+		}
+		if (filter.createdAfter() != null) {
+			predicates.add(cb.greaterThanOrEqualTo(root.<LocalDateTime>get("createdAt"), filter.createdAfter()));
+		}
+		if (filter.createdBefore() != null) {
+			predicates.add(cb.lessThanOrEqualTo(root.<LocalDateTime>get("createdAt"), filter.createdBefore()));
+		}
+		if (filter.updatedAfter() != null) {
+			predicates.add(cb.greaterThanOrEqualTo(root.<LocalDateTime>get("updatedAt"), filter.updatedAfter()));
+		}
+		if (filter.updatedBefore() != null) {
+			predicates.add(cb.lessThanOrEqualTo(root.<LocalDateTime>get("updatedAt"), filter.updatedBefore()));
+		}
+		return predicates;
+	}
+
+	/**
+	 * Escapes the LIKE wildcards of a term with backslashes, to match it literally
+	 * in a pattern declared with {@code escape '\'}.
+	 * @param term the term
+	 * @return the escaped term
+	 */
+	static String escapeLike(String term) {
+		return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+	}
+
+	@Override
+	public void detach(Product product) {
+		entityManager.detach(product);
+	}
+
+	/**
+	 * Row read by {@link #lockStatusesWhere}.
+	 */
+	private record StatusRow(Long getId, ProductStatus getStatus) implements ProductStatusProjection {
+	}
+
+}
@@ -0,0 +1,14 @@
+package com.giuliosmtech.products.repository;
+
+import com.giuliosmtech.products.enums.ProductStatus;
+
+/**
+ * Projection exposing only the id and status of a product.
+ */
+public interface ProductStatusProjection {
+
+	Long getId();
+
+	ProductStatus getStatus();
+
+}
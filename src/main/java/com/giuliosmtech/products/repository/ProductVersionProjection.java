@@ -0,0 +1,18 @@
+package com.giuliosmtech.products.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection exposing only what is needed to validate a cached copy of a product.
+ */
+public interface ProductVersionProjection {
+
+	Long getId();
+
+	Long getVersion();
+
+	LocalDateTime getCreatedAt();
+
+	LocalDateTime getUpdatedAt();
+
+}
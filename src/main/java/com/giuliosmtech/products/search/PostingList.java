@@ -0,0 +1,91 @@
+package com.giuliosmtech.products.search;
+
+import java.util.Arrays;
+
+/**
+ * Sorted, duplicate-free list of product ids stored in a primitive array.
+ * Not thread-safe; guarded by the owning {@link ProductSearchIndex}.
+ */
+final class PostingList {
+
+	private static final int INITIAL_CAPACITY = 4;
+
+	private int[] ids = new int[INITIAL_CAPACITY];
+
+	private int size;
+
+	/**
+	 * Adds an id, keeping the list sorted.
+	 * @param id the product id
+	 */
+	void add(int id) {
+		int pos = Arrays.binarySearch(ids, 0, size, id);
+		if (pos >= 0) {
+			return;
+		}
+		int insertAt = -pos - 1;
+		if (size == ids.length) {
+			ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+		}
+		System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+		ids[insertAt] = id;
+		size++;
+	}
+
+	/**
+	 * Removes an id if present.
+	 * @param id the product id
+	 */
+	void remove(int id) {
+		int pos = Arrays.binarySearch(ids, 0, size, id);
+		if (pos < 0) {
+			return;
+		}
+		System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+		size--;
+	}
+
+	int size() {
+		return size;
+	}
+
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns a copy of the ids in ascending order.
+	 * @return the ids
+	 */
+	int[] toArray() {
+		return Arrays.copyOf(ids, size);
+	}
+
+	/**
+	 * Intersects a sorted candidate array with this list.
+	 * @param candidates sorted ids
+	 * @param length number of valid entries in candidates
+	 * @return sorted ids present in both, written into a new array
+	 */
+	int[] intersect(int[] candidates, int length) {
+		int[] result = new int[Math.min(length, size)];
+		int i = 0;
+		int j = 0;
+		int n = 0;
+		while (i < length && j < size) {
+			int a = candidates[i];
+			int b = ids[j];
+			if (a == b) {
+				result[n++] = a;
+				i++;
+				j++;
+			} else if (a < b) {
+				i++;
+			} else {
+				j++;
+			}
+		}
+		return Arrays.copyOf(result, n);
+	}
+
+}
@@ -0,0 +1,258 @@
+package com.giuliosmtech.products.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.giuliosmtech.products.repository.ProductNameProjection;
+import com.giuliosmtech.products.repository.ProductRepository;
+
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory trigram inverted index over product names, used to answer
+ * case-insensitive substring searches without a full table scan.
+ * <p>
+ * Every lower-cased name is split into overlapping three-character grams and each
+ * gram maps to a sorted posting list of product ids. A search intersects the
+ * posting lists of the term's grams, smallest first, and then checks the remaining
+ * candidates against the stored names to drop false positives.
+ * <p>
+ * Ids are kept as {@code int}s to halve the size of the posting lists. A product id
+ * beyond {@link Integer#MAX_VALUE} cannot be indexed: the index then switches itself
+ * off, so searches fall back to the database query, instead of failing the write
+ * that committed the product.
+ */
+@Slf4j
+@Component
+public class ProductSearchIndex {
+
+	private static final int GRAM_LENGTH = 3;
+
+	private final ProductRepository productRepository;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private final Map<Long, PostingList> postings = new HashMap<>();
+
+	private final Map<Integer, String> names = new HashMap<>();
+
+	private volatile boolean ready;
+
+	private boolean disabled;
+
+	public ProductSearchIndex(ProductRepository productRepository) {
+		this.productRepository = productRepository;
+	}
+
+	/**
+	 * Builds the index from the database once the application has started.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	@Transactional
+	public void rebuild() {
+		log.info("Starting search index rebuild");
+		lock.writeLock().lock();
+		try {
+			postings.clear();
+			names.clear();
+			disabled = false;
+			try (Stream<ProductNameProjection> rows = productRepository.findAllProjectedBy()) {
+				for (Iterator<ProductNameProjection> it = rows.iterator(); it.hasNext();) {
+					ProductNameProjection row = it.next();
+					if (!fits(row.getId())) {
+						disable(row.getId());
+						return;
+					}
+					add(row.getId().intValue(), normalize(row.getName()));
+				}
+			}
+			ready = true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+		log.info("Completed search index rebuild, indexed {} products with {} trigrams", names.size(), postings.size());
+	}
+
+	/**
+	 * Indicates whether the index has been built and can serve searches.
+	 * @return true once the initial build has completed
+	 */
+	public boolean isReady() {
+		return ready;
+	}
+
+	/**
+	 * Adds a product to the index or replaces its previously indexed name.
+	 * @param id the product ID
+	 * @param name the product name
+	 */
+	public void index(Long id, String name) {
+		String normalized = normalize(name);
+		lock.writeLock().lock();
+		try {
+			if (disabled) {
+				return;
+			}
+			if (!fits(id)) {
+				disable(id);
+				return;
+			}
+			int key = id.intValue();
+			String previous = names.get(key);
+			if (normalized.equals(previous)) {
+				return;
+			}
+			if (previous != null) {
+				delete(key, previous);
+			}
+			add(key, normalized);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes a product from the index.
+	 * @param id the product ID
+	 */
+	public void remove(Long id) {
+		lock.writeLock().lock();
+		try {
+			if (disabled || !fits(id)) {
+				return;
+			}
+			String previous = names.get(id.intValue());
+			if (previous != null) {
+				delete(id.intValue(), previous);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Finds the ids of products whose name contains the term, ignoring case. A term shorter
+	 * than a trigram is checked against every indexed name, so it costs time in proportion
+	 * to the catalog.
+	 * @param term the search term
+	 * @return matching product ids in ascending order
+	 */
+	public List<Long> search(String term) {
+		String normalized = normalize(term);
+		lock.readLock().lock();
+		try {
+			int[] candidates = normalized.length() < GRAM_LENGTH
+					? allIds()
+					: candidates(normalized);
+			List<Long> matches = new ArrayList<>(candidates.length);
+			for (int id : candidates) {
+				if (names.get(id).contains(normalized)) {
+					matches.add((long) id);
+				}
+			}
+			return matches;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Intersects the posting lists of every trigram in the term.
+	 * @param term the normalized term, at least three characters long
+	 * @return sorted candidate ids
+	 */
+	private int[] candidates(String term) {
+		List<PostingList> lists = new ArrayList<>();
+		for (long gram : grams(term)) {
+			PostingList list = postings.get(gram);
+			if (list == null) {
+				return new int[0];
+			}
+			lists.add(list);
+		}
+		lists.sort(Comparator.comparingInt(PostingList::size));
+
+		int[] result = lists.get(0).toArray();
+		for (int i = 1; i < lists.size() && result.length > 0; i++) {
+			result = lists.get(i).intersect(result, result.length);
+		}
+		return result;
+	}
+
+	private int[] allIds() {
+		int[] ids = names.keySet().stream().mapToInt(Integer::intValue).toArray();
+		Arrays.sort(ids);
+		return ids;
+	}
+
+	private void add(int id, String name) {
+		names.put(id, name);
+		for (long gram : grams(name)) {
+			postings.computeIfAbsent(gram, g -> new PostingList()).add(id);
+		}
+	}
+
+	private void delete(int id, String name) {
+		names.remove(id);
+		for (long gram : grams(name)) {
+			PostingList list = postings.get(gram);
+			if (list != null) {
+				list.remove(id);
+				if (list.isEmpty()) {
+					postings.remove(gram);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Splits a string into its distinct trigrams, each packed into a long.
+	 * @param value the normalized value
+	 * @return the distinct trigram keys
+	 */
+	private static Set<Long> grams(String value) {
+		Set<Long> grams = new LinkedHashSet<>();
+		for (int i = 0; i + GRAM_LENGTH <= value.length(); i++) {
+			grams.add(((long) value.charAt(i) << 32) | ((long) value.charAt(i + 1) << 16) | value.charAt(i + 2));
+		}
+		return grams;
+	}
+
+	private static String normalize(String value) {
+		return value == null ? "" : value.toLowerCase(Locale.ROOT);
+	}
+
+	private static boolean fits(Long id) {
+		return id >= 0 && id <= Integer.MAX_VALUE;
+	}
+
+	/**
+	 * Turns the index off until the next rebuild after meeting an id it cannot hold;
+	 * must be called with the write lock held.
+	 * @param id the product id out of range
+	 */
+	private void disable(Long id) {
+		log.warn("Product id {} does not fit the search index, falling back to database searches", id);
+		disabled = true;
+		ready = false;
+		postings.clear();
+		names.clear();
+	}
+
+}
@@ -0,0 +1,62 @@
+package com.giuliosmtech.products.service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.giuliosmtech.products.dto.ProductResponse;
+import com.giuliosmtech.products.enums.ProductField;
+import com.giuliosmtech.products.enums.ProductOrder;
+import com.giuliosmtech.products.enums.ProductStatus;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Reactive read operations on top of the blocking {@link ProductService}.
+ * <p>
+ * Calls are moved to the bounded elastic scheduler so they never block the calling thread.
+ * This is the default ({@code products.graphql.data-access=jpa}).
+ */
+@Service
+@ConditionalOnProperty(name = "products.graphql.data-access", havingValue = "jpa", matchIfMissing = true)
+public class JpaReactiveProductService implements ReactiveProductService {
+
+	private final ProductService productService;
+
+	public JpaReactiveProductService(ProductService productService) {
+		this.productService = productService;
+	}
+
+	@Override
+	public Flux<ProductResponse> getByStatus(ProductStatus status, Set<ProductField> fields) {
+		return Mono.fromCallable(() -> productService.getByStatus(status, fields))
+				.subscribeOn(Schedulers.boundedElastic())
+				.flatMapIterable(products -> products);
+	}
+
+	@Override
+	public Flux<ProductResponse> getTop(ProductStatus status, ProductOrder order, Integer limit) {
+		return Mono.fromCallable(() -> productService.getTop(status, order, limit))
+				.subscribeOn(Schedulers.boundedElastic())
+				.flatMapIterable(products -> products);
+	}
+
+	@Override
+	public Mono<Map<Long, ProductResponse>> getByIds(Collection<Long> ids) {
+		return Mono.fromCallable(() -> productService.getByIds(ids))
+				.subscribeOn(Schedulers.boundedElastic());
+	}
+
+	@Override
+	public Flux<ProductResponse> searchProductsByTerm(String term, Set<ProductField> fields) {
+		return Mono.fromCallable(() -> productService.searchProductsByTerm(term, fields))
+				.subscribeOn(Schedulers.boundedElastic())
+				.flatMapIterable(products -> products);
+	}
+
+}
@@ -0,0 +1,78 @@
+package com.giuliosmtech.products.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.giuliosmtech.products.exceptions.InvalidPaginationException;
+
+/**
+ * Encodes and decodes the opaque cursors used for keyset pagination.
+ * A cursor wraps the id of the last product seen, so the next page can
+ * continue with {@code id > cursor} on the (status, id) index. Change feed
+ * cursors wrap the position of the last change seen in the same way.
+ */
+final class ProductCursor {
+
+	private static final String PREFIX = "product:";
+
+	private static final String CHANGE_PREFIX = "change:";
+
+	private ProductCursor() {
+	}
+
+	/**
+	 * Encodes a product id as an opaque cursor.
+	 * @param id the product ID
+	 * @return the cursor
+	 */
+	static String encode(Long id) {
+		return encode(PREFIX, id);
+	}
+
+	/**
+	 * Decodes a cursor back into the product id it points at.
+	 * @param cursor the cursor, may be null or blank for the first page
+	 * @return the product ID, or 0 when no cursor is given
+	 */
+	static long decode(String cursor) {
+		return decode(PREFIX, cursor);
+	}
+
+	/**
+	 * Encodes a change feed position as an opaque cursor.
+	 * @param sequenceNumber the position of the last change seen
+	 * @return the cursor
+	 */
+	static String encodeChange(long sequenceNumber) {
+		return encode(CHANGE_PREFIX, sequenceNumber);
+	}
+
+	/**
+	 * Decodes a change feed cursor back into the position it points at.
+	 * @param cursor the cursor, may be null or blank for the start of the feed
+	 * @return the position, or 0 when no cursor is given
+	 */
+	static long decodeChange(String cursor) {
+		return decode(CHANGE_PREFIX, cursor);
+	}
+
+	private static String encode(String prefix, long value) {
+		return Base64.getUrlEncoder().withoutPadding()
+				.encodeToString((prefix + value).getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static long decode(String prefix, String cursor) {
+		if (cursor == null || cursor.isBlank()) {
+			return 0L;
+		}
+		try {
+			String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			if (!value.startsWith(prefix)) {
+				throw new InvalidPaginationException("Invalid pagination cursor");
+			}
+			return Long.parseLong(value.substring(prefix.length()));
+		} catch (IllegalArgumentException e) {
+			throw new InvalidPaginationException("Invalid pagination cursor", e);
+		}
+	}
+}
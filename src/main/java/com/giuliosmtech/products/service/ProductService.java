@@ -1,11 +1,25 @@
 package com.giuliosmtech.products.service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
+import com.giuliosmtech.products.dto.CatalogStats;
+import com.giuliosmtech.products.dto.ProductBulkResult;
+import com.giuliosmtech.products.dto.ProductChangeFeed;
+import com.giuliosmtech.products.dto.ProductConnection;
+import com.giuliosmtech.products.dto.ProductFilter;
+import com.giuliosmtech.products.dto.ProductPatch;
 import com.giuliosmtech.products.dto.ProductRequest;
 import com.giuliosmtech.products.dto.ProductResponse;
+import com.giuliosmtech.products.dto.ProductUpdateRequest;
+import com.giuliosmtech.products.enums.ProductField;
+import com.giuliosmtech.products.enums.ProductOrder;
 import com.giuliosmtech.products.enums.ProductStatus;
+import com.giuliosmtech.products.repository.ProductVersionProjection;
 
 /**
  * Service interface for product operations.
@@ -30,6 +44,15 @@ public interface ProductService {
 	 * @return list of products with the given status
 	 */
 	List<ProductResponse> getByStatus(ProductStatus status);
+
+	/**
+	 * Returns products by status, reading only the requested fields.
+	 * Fields that were not requested are left null.
+	 * @param status the product status
+	 * @param fields the fields to read
+	 * @return list of products with the given status
+	 */
+	List<ProductResponse> getByStatus(ProductStatus status, Set<ProductField> fields);
 	
 	/**
 	 * Returns product by ID.
@@ -38,6 +61,26 @@ public interface ProductService {
 	 */
 	Optional<ProductResponse> getById(Long id);
 
+	/**
+	 * Returns the version of a product, read without loading or mapping the product.
+	 * @param id the product ID
+	 * @return optional containing the version if the product exists
+	 */
+	Optional<ProductVersionProjection> getVersion(Long id);
+
+	/**
+	 * Returns catalog statistics from in-memory aggregates, without querying the database.
+	 * @return the catalog statistics
+	 */
+	CatalogStats getCatalogStats();
+
+	/**
+	 * Returns products by ID in one batch.
+	 * @param ids the product IDs
+	 * @return the products found, keyed by ID
+	 */
+	Map<Long, ProductResponse> getByIds(Collection<Long> ids);
+
 	/**
 	 * Returns products by name.
 	 * @param name the product name
@@ -53,19 +96,62 @@ public interface ProductService {
 	ProductResponse create(ProductRequest productRequest);
 	
 	/**
-	 * Updates an existing product.
+	 * Replaces every field of an existing product. A full update is not retried when it
+	 * loses an optimistic locking race, since re-applying it would overwrite the concurrent
+	 * change, e.g. to the stock; it fails instead.
 	 * @param id the product ID
 	 * @param productRequest the product request data
+	 * @param expectedVersions the row versions the client accepts, or null to skip the check
 	 * @return the updated product response
+	 * @throws com.giuliosmtech.products.exceptions.ProductPreconditionFailedException when the
+	 *         product is at none of the expected versions
+	 * @throws org.springframework.dao.OptimisticLockingFailureException when the product changes
+	 *         while it is being updated
 	 */
-	ProductResponse update(Long id, ProductRequest productRequest);
+	ProductResponse update(Long id, ProductRequest productRequest, Set<Long> expectedVersions);
+
+	/**
+	 * Applies the fields present in a patch to an existing product. Nothing is written
+	 * when every present field already has the requested value.
+	 * @param id the product ID
+	 * @param patch the fields to change
+	 * @return the patched product response
+	 */
+	ProductResponse patch(Long id, ProductPatch patch);
 	
 	/**
-	 * Deletes a product.
+	 * Soft deletes a product with a single UPDATE.
 	 * @param id the product ID
+	 * @return 1 if the product was deleted, 0 if it does not exist or was already deleted
+	 */
+	int delete(Long id);
+
+	/**
+	 * Moves products to a status with set-based UPDATEs, at most one per previous status.
+	 * Products that do not exist or already have the status are skipped.
+	 * @param ids the product IDs
+	 * @param status the new status
+	 * @return the number of products moved
+	 */
+	int setStatus(Collection<Long> ids, ProductStatus status);
+
+	/**
+	 * Moves the products matching a filter to a status with set-based UPDATEs,
+	 * at most one per previous status. The filter must set at least one criterion.
+	 * @param filter the products to move
+	 * @param status the new status
+	 * @return the number of products moved
 	 */
-	void delete(Long id);
+	int setStatusWhere(ProductFilter filter, ProductStatus status);
 	
+	/**
+	 * Adds a delta to the stock of a product atomically; concurrent adjustments never lose updates.
+	 * @param id the product ID
+	 * @param delta the stock change, negative to take stock
+	 * @return the product with its new stock
+	 */
+	ProductResponse adjustStock(Long id, int delta);
+
 	/**
 	 * Searches products by term.
 	 * @param term the search term
@@ -73,4 +159,77 @@ public interface ProductService {
 	 */
 	List<ProductResponse> searchProductsByTerm(String term);
 
+	/**
+	 * Searches products by term, reading only the requested fields.
+	 * Fields that were not requested are left null.
+	 * @param term the search term
+	 * @param fields the fields to read
+	 * @return list of products matching the search term
+	 */
+	List<ProductResponse> searchProductsByTerm(String term, Set<ProductField> fields);
+
+	/**
+	 * Returns the first products of a status in the given order. The cheapest and
+	 * lowest-stock products are served from memory when the kept lists are long enough.
+	 * @param status the product status
+	 * @param order the order, or null to order by ID
+	 * @param limit the number of products, or null for the default page size
+	 * @return the first products of the status in order
+	 */
+	List<ProductResponse> getTop(ProductStatus status, ProductOrder order, Integer limit);
+
+	/**
+	 * Returns the product changes published after a cursor of the change feed, so consumers
+	 * can keep a copy of the catalog in sync without reading all of it again.
+	 * @param cursor the cursor returned with the last batch, or null for the oldest change retained
+	 * @param limit the batch size, or null for the default page size
+	 * @return the next changes, with the cursor to continue from
+	 * @throws com.giuliosmtech.products.exceptions.InvalidPaginationException when the cursor is
+	 *         invalid or older than the changes retained
+	 */
+	ProductChangeFeed getChangesSince(String cursor, Integer limit);
+
+	/**
+	 * Returns one page of products using keyset pagination on (status, id).
+	 * @param status the product status, or null for all products
+	 * @param limit the page size, or null for the default page size
+	 * @param after the cursor of the last product already seen, or null for the first page
+	 * @return the page of products with its pagination info
+	 */
+	ProductConnection getPage(ProductStatus status, Integer limit, String after);
+
+	/**
+	 * Returns one page of the products matching a filter, filtered in a single database
+	 * query and paginated by id. Inverted ranges and time windows are rejected.
+	 * @param filter the filter; an empty filter matches every product
+	 * @param limit the page size, or null for the default page size
+	 * @param after the cursor of the last product already seen, or null for the first page
+	 * @return the page of products with its pagination info
+	 */
+	ProductConnection getPageWhere(ProductFilter filter, Integer limit, String after);
+
+	/**
+	 * Streams every product to the given consumer without materializing the result list.
+	 * @param status the product status, or null for all products
+	 * @param consumer receives each product response in id order
+	 * @return the number of exported products
+	 */
+	long export(ProductStatus status, Consumer<ProductResponse> consumer);
+
+	/**
+	 * Creates many products using batched inserts in chunked transactions.
+	 * Invalid items are reported individually and do not fail the rest of the batch.
+	 * @param productRequests the products to create
+	 * @return one result per request, in request order
+	 */
+	List<ProductBulkResult> createAll(List<ProductRequest> productRequests);
+
+	/**
+	 * Updates many products using batched updates in chunked transactions.
+	 * Invalid items are reported individually and do not fail the rest of the batch.
+	 * @param updates the products to update
+	 * @return one result per update, in request order
+	 */
+	List<ProductBulkResult> updateAll(List<ProductUpdateRequest> updates);
+
 }
@@ -1,18 +1,82 @@
 package com.giuliosmtech.products.service;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.event.Level;
+import org.slf4j.spi.LoggingEventBuilder;
+import org.slf4j.spi.NOPLoggingEventBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.giuliosmtech.products.cache.ProductCache;
+import com.giuliosmtech.products.cache.ProductCatalogVersion;
+import com.giuliosmtech.products.cache.ProductTopK;
+import com.giuliosmtech.products.dto.CatalogStats;
+import com.giuliosmtech.products.dto.PageInfo;
+import com.giuliosmtech.products.dto.ProductChange;
+import com.giuliosmtech.products.dto.ProductChangeFeed;
+import com.giuliosmtech.products.dto.ProductBulkResult;
+import com.giuliosmtech.products.dto.ProductConnection;
+import com.giuliosmtech.products.dto.ProductEdge;
+import com.giuliosmtech.products.dto.ProductFilter;
+import com.giuliosmtech.products.dto.ProductPatch;
 import com.giuliosmtech.products.dto.ProductRequest;
 import com.giuliosmtech.products.dto.ProductResponse;
+import com.giuliosmtech.products.dto.ProductUpdateRequest;
 import com.giuliosmtech.products.entity.Product;
+import com.giuliosmtech.products.entity.ProductOutboxEntry;
+import com.giuliosmtech.products.events.ProductChangeBus;
+import com.giuliosmtech.products.events.ProductChangeEvent;
+import com.giuliosmtech.products.enums.ProductChangeType;
+import com.giuliosmtech.products.enums.ProductField;
+import com.giuliosmtech.products.enums.ProductOrder;
 import com.giuliosmtech.products.enums.ProductStatus;
+import com.giuliosmtech.products.exceptions.InsufficientStockException;
+import com.giuliosmtech.products.exceptions.InvalidPaginationException;
+import com.giuliosmtech.products.exceptions.InvalidProductFilterException;
 import com.giuliosmtech.products.exceptions.ProductAlreadyExistError;
 import com.giuliosmtech.products.exceptions.ProductNotFoundException;
+import com.giuliosmtech.products.exceptions.ProductPreconditionFailedException;
+import com.giuliosmtech.products.repository.ProductOutboxRepository;
 import com.giuliosmtech.products.repository.ProductRepository;
+import com.giuliosmtech.products.repository.ProductStatusProjection;
+import com.giuliosmtech.products.repository.ProductVersionProjection;
+import com.giuliosmtech.products.search.ProductSearchIndex;
+import com.giuliosmtech.products.stats.ProductCatalogStats;
 
+import jakarta.persistence.Tuple;
 import jakarta.transaction.Transactional;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -22,143 +86,992 @@ import lombok.extern.slf4j.Slf4j;
 @Service
 public class ProductServiceImpl implements ProductService {
 
+	private static final int ID_BATCH_SIZE = 1000;
+
 	private final ProductRepository productRepository;
 
-	public ProductServiceImpl(ProductRepository productRepository) {
+	private final ProductOutboxRepository outboxRepository;
+
+	private final ProductSearchIndex productSearchIndex;
+
+	private final ProductCache productCache;
+
+	private final ProductCatalogVersion catalogVersion;
+
+	private final ProductChangeBus productChangeBus;
+
+	private final ProductCatalogStats catalogStats;
+
+	private final ProductTopK topK;
+
+	private final int defaultPageSize;
+
+	private final int maxPageSize;
+
+	private final int exportFetchSize;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final Validator validator;
+
+	private final int bulkChunkSize;
+
+	private final int updateMaxAttempts;
+
+	private final Level callLogLevel;
+
+	private final double callLogSampleRate;
+
+	public ProductServiceImpl(ProductRepository productRepository, ProductOutboxRepository outboxRepository,
+			ProductSearchIndex productSearchIndex,
+			ProductCache productCache, ProductCatalogVersion catalogVersion, ProductChangeBus productChangeBus,
+			ProductCatalogStats catalogStats, ProductTopK topK, PlatformTransactionManager transactionManager, Validator validator,
+			@Value("${products.pagination.default-page-size:20}") int defaultPageSize,
+			@Value("${products.pagination.max-page-size:100}") int maxPageSize,
+			@Value("${products.export.fetch-size:500}") int exportFetchSize,
+			@Value("${products.bulk.chunk-size:500}") int bulkChunkSize,
+			@Value("${products.update.max-attempts:3}") int updateMaxAttempts,
+			@Value("${products.logging.call-level:INFO}") Level callLogLevel,
+			@Value("${products.logging.call-sample-rate:1.0}") double callLogSampleRate) {
 		this.productRepository = productRepository;
+		this.outboxRepository = outboxRepository;
+		this.productSearchIndex = productSearchIndex;
+		this.productCache = productCache;
+		this.catalogVersion = catalogVersion;
+		this.productChangeBus = productChangeBus;
+		this.catalogStats = catalogStats;
+		this.topK = topK;
+		this.defaultPageSize = defaultPageSize;
+		this.maxPageSize = maxPageSize;
+		this.exportFetchSize = exportFetchSize;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.validator = validator;
+		this.bulkChunkSize = bulkChunkSize;
+		this.updateMaxAttempts = updateMaxAttempts;
+		this.callLogLevel = callLogLevel;
+		this.callLogSampleRate = callLogSampleRate;
 	}
 
 	
 	@Override
 	public List<ProductResponse> getAll() {
-		log.info("Starting getAll");
+		callLog().log("Starting getAll");
 		List<Product> products = this.productRepository.findAll();
 		List<ProductResponse> responses = products.stream()
 				.map(this::toResponse)
 				.toList();
-		log.info("Completed getAll, retrieved {} products", responses.size());
+		callLog().log("Completed getAll, retrieved {} products", responses.size());
 		return responses;
 		
 	}
 
 	@Override
 	public Optional<ProductResponse> getById(Long id) {
-		log.info("Starting getById for id: {}", id);
+		callLog().log("Starting getById for id: {}", id);
 		
-		Optional<Product> product = productRepository.findById(id);
-		Optional<ProductResponse> response = product.stream()
-		                  .map(this::toResponse)
-		                  .findFirst();
-		log.info("Completed getById for id: {}, found: {}", id, response.isPresent());
+		Optional<ProductResponse> response = inWriteTransaction()
+				? productRepository.findById(id).map(this::toResponse)
+				: productCache.get(id, key -> productRepository.findById(key)
+						.map(this::toResponse)
+						.orElse(null));
+		callLog().log("Completed getById for id: {}, found: {}", id, response.isPresent());
 		return response;	 
 	}
 
+	@Override
+	public Optional<ProductVersionProjection> getVersion(Long id) {
+		return productRepository.findVersionById(id);
+	}
+
+	@Override
+	public CatalogStats getCatalogStats() {
+		return catalogStats.snapshot();
+	}
+
+	@Override
+	public Map<Long, ProductResponse> getByIds(Collection<Long> ids) {
+		callLog().log("Starting getByIds for {} ids", ids.size());
+		Map<Long, ProductResponse> responses = inWriteTransaction()
+				? findAllByIdOrdered(ids.stream().distinct().toList()).stream()
+						.collect(Collectors.toMap(Product::getId, this::toResponse))
+				: productCache.getAll(ids, missing -> findAllByIdOrdered(List.copyOf(missing))
+						.stream()
+						.collect(Collectors.toMap(Product::getId, this::toResponse)));
+		callLog().log("Completed getByIds, found {} products", responses.size());
+		return responses;
+	}
+
 	@Override
 	public List<ProductResponse> getByName(String name) {
-		log.info("Starting getByName for name: {}", name);
+		callLog().log("Starting getByName for name: {}", name);
 		
 		List<Product> products =  productRepository.findByName(name);
 		List<ProductResponse> responses = products.stream()
 				.map(this::toResponse)
 				.toList();
-		log.info("Completed getByName, retrieved {} products", responses.size());
+		callLog().log("Completed getByName, retrieved {} products", responses.size());
 		return responses;			
 	}
 
     @Transactional
 	@Override
 	public ProductResponse create(ProductRequest productRequest) {
-		log.info("Starting create for product: {}", productRequest.name());
+		callLog().log("Starting create for product: {}", productRequest.name());
 		
-		if (!productRepository.findByName(productRequest.name()).isEmpty()) {
-			log.warn("Product with name {} already exists", productRequest.name());
-			throw new ProductAlreadyExistError("Product with same name already exists");
-		}	
-
-		Product product =  productRepository.save(toEntity(productRequest));
-		log.info("Created product with id: {}", product.getId());
-		return toResponse(product);	
+		// the unique constraint on name is the uniqueness check, so creating is a single INSERT
+		Product product = saveAndFlush(toEntity(productRequest));
+		ProductResponse response = toResponse(product);
+		List<ProductChangeEvent> events = List.of(new ProductChangeEvent(response, null));
+		recordChanges(events);
+		afterCommit(() -> {
+			productSearchIndex.index(product.getId(), product.getName());
+			catalogVersion.bump(product.getStatus());
+			catalogStats.add(response);
+			topK.put(response, null);
+			productChangeBus.publish(events);
+		});
+		callLog().log("Created product with id: {}", product.getId());
+		return response;	
 	}
 	
+	@Override
+	public ProductResponse update(Long id, ProductRequest productRequest, Set<Long> expectedVersions) {
+		callLog().log("Starting update for id: {}, expected versions: {}", id, expectedVersions);
+		ProductResponse response = transactionTemplate.execute(status -> applyUpdate(id, productRequest, expectedVersions));
+		callLog().log("Updated product with id: {}", id);
+		return response;
+	}
+
+	@Override
+	public ProductResponse patch(Long id, ProductPatch patch) {
+		callLog().log("Starting patch for id: {}", id);
+		ProductResponse response = retryOnConflict(id, () -> applyPatch(id, patch));
+		callLog().log("Patched product with id: {}", id);
+		return response;
+	}
+
 	@Transactional
 	@Override
-	public ProductResponse update(Long id, ProductRequest productRequest) {
-		log.info("Starting update for id: {}", id);
+	public ProductResponse adjustStock(Long id, int delta) {
+		callLog().log("Starting adjustStock for id: {}, delta: {}", id, delta);
+		if (delta != 0 && productRepository.adjustStock(id, delta, LocalDateTime.now()) == 0) {
+			if (!productRepository.existsById(id)) {
+				log.error("Product not found for stock adjustment, id: {}", id);
+				throw new ProductNotFoundException("Product not found");
+			}
+			throw new InsufficientStockException("Insufficient stock for product " + id);
+		}
 		ProductResponse response = productRepository.findById(id)
-				.map(product -> {				
+				.map(this::toResponse)
+				.orElseThrow(() -> new ProductNotFoundException("Product not found"));
+		if (delta != 0) {
+			List<ProductChangeEvent> events = List.of(new ProductChangeEvent(response, response.status()));
+			recordChanges(events);
+			afterCommit(() -> {
+				productCache.invalidate(id);
+				catalogVersion.bump(response.status());
+				catalogStats.adjustStock(response.stock() - delta, response.stock());
+				topK.put(response, response.status());
+				productChangeBus.publish(events);
+			});
+		}
+		callLog().log("Adjusted stock of product with id: {} to {}", id, response.stock());
+		return response;
+	}
+
+	/**
+	 * Runs a single-product write in its own transaction, retrying it while it loses
+	 * optimistic locking races, up to the configured number of attempts.
+	 * Each attempt re-reads the row at its new version, so only writes that change
+	 * the fields they name, like a patch, may be retried.
+	 * @param id the product ID
+	 * @param work the write to run
+	 * @return the result of the write
+	 */
+	private ProductResponse retryOnConflict(Long id, Supplier<ProductResponse> work) {
+		for (int attempt = 1; ; attempt++) {
+			try {
+				return transactionTemplate.execute(status -> work.get());
+			} catch (OptimisticLockingFailureException e) {
+				if (attempt >= updateMaxAttempts) {
+					log.warn("Giving up write of product {} after {} concurrent modifications", id, attempt);
+					throw e;
+				}
+				log.debug("Product {} was modified concurrently, retrying write", id);
+			}
+		}
+	}
+
+	/**
+	 * Applies the present fields of a patch inside the current transaction. Only changed
+	 * fields are set, so the UPDATE covers only their columns, and an unchanged product
+	 * is neither written nor reported as changed.
+	 * @param id the product ID
+	 * @param patch the fields to change
+	 * @return the patched product response
+	 */
+	private ProductResponse applyPatch(Long id, ProductPatch patch) {
+		Product product = productRepository.findById(id)
+				.orElseThrow(() -> {
+					log.error("Product not found for patch, id: {}", id);
+					return new ProductNotFoundException("Product not found");
+				});
+		ProductResponse before = toResponse(product);
+		boolean renamed = changes(patch.name(), product.getName());
+		boolean repriced = patch.price() != null && patch.price().compareTo(product.getPrice()) != 0;
+		boolean changed = renamed || repriced
+				|| changes(patch.description(), product.getDescription())
+				|| changes(patch.stock(), product.getStock())
+				|| changes(patch.status(), product.getStatus());
+		if (!changed) {
+			return toResponse(product);
+		}
+		if (renamed) {
+			product.setName(patch.name());
+		}
+		if (patch.description() != null) {
+			product.setDescription(patch.description());
+		}
+		if (repriced) {
+			product.setPrice(patch.price());
+		}
+		if (patch.stock() != null) {
+			product.setStock(patch.stock());
+		}
+		if (patch.status() != null) {
+			product.setStatus(patch.status());
+		}
+		
+		ProductResponse saved = toResponse(saveAndFlush(product));
+		List<ProductChangeEvent> events = List.of(new ProductChangeEvent(saved, before.status()));
+		recordChanges(events);
+		afterCommit(() -> {
+			if (renamed) {
+				productSearchIndex.index(saved.id(), saved.name());
+			}
+			productCache.invalidate(saved.id());
+			catalogVersion.bump(before.status(), saved.status());
+			catalogStats.replace(before, saved);
+			topK.put(saved, before.status());
+			productChangeBus.publish(events);
+		});
+		return saved;
+	}
+
+	/**
+	 * Returns whether a patch value is present and differs from the current value.
+	 */
+	private static boolean changes(Object value, Object current) {
+		return value != null && !Objects.equals(value, current);
+	}
+
+	/**
+	 * Applies an update to a product inside the current transaction. The version check
+	 * on flush fails if the product changed since it was read.
+	 * @param id the product ID
+	 * @param productRequest the product request data
+	 * @param expectedVersions the row versions the client accepts, or null to skip the check
+	 * @return the updated product response
+	 */
+	private ProductResponse applyUpdate(Long id, ProductRequest productRequest, Set<Long> expectedVersions) {
+		return productRepository.findById(id)
+				.map(product -> {
+					if (expectedVersions != null && !expectedVersions.contains(product.getVersion())) {
+						log.warn("Product {} is at version {}, not one of {}", id, product.getVersion(), expectedVersions);
+						throw new ProductPreconditionFailedException("Product " + id + " is not at version " + expectedVersions);
+					}
+					ProductResponse before = toResponse(product);
 					product.setName(productRequest.name());
 					product.setDescription(productRequest.description());
 					product.setPrice(productRequest.price());
 					product.setStatus(productRequest.status());
 					product.setStock(productRequest.stock());
 					
-					return productRepository.save(product);
+					ProductResponse saved = toResponse(saveAndFlush(product));
+					List<ProductChangeEvent> events = List.of(new ProductChangeEvent(saved, before.status()));
+					recordChanges(events);
+					afterCommit(() -> {
+						productSearchIndex.index(saved.id(), saved.name());
+						productCache.invalidate(saved.id());
+						catalogVersion.bump(before.status(), saved.status());
+						catalogStats.replace(before, saved);
+						topK.put(saved, before.status());
+						productChangeBus.publish(events);
+					});
+					return saved;
 					
 				})
-				.map(this::toResponse)
 				.orElseThrow(()-> {
 					log.error("Product not found for update, id: {}", id);
 					return new ProductNotFoundException("Product not found");
 				});
-		log.info("Updated product with id: {}", id);
-		return response;			
 	}
 
 	@Override
 	public List<ProductResponse> searchProductsByTerm(String term) {
-		log.info("Starting searchProductsByTerm for term: {}", term);
-		List<Product> products = productRepository.findByNameContainingIgnoreCase(term);
+		callLog().log("Starting searchProductsByTerm for term: {}", term);
+		List<Product> products = productSearchIndex.isReady()
+				? findAllByIdOrdered(productSearchIndex.search(term))
+				: productRepository.findByNameContainingIgnoreCase(term);
 		List<ProductResponse> responses = products.stream()
 				.map(this::toResponse)
 				.toList();
-		log.info("Completed searchProductsByTerm, found {} products", responses.size());
+		callLog().log("Completed searchProductsByTerm, found {} products", responses.size());
 		return responses;			
 	}
 
 	@Override
-	public void delete(Long id) {
-		log.info("Starting delete for id: {}", id);
-		Product product = productRepository.findById(id)
-				.orElseThrow(() -> {
-					log.error("Product not found for delete, id: {}", id);
-					return new ProductNotFoundException("Product not found");
-				});
-		
-		product.setStatus(ProductStatus.DELETED);
-		productRepository.save(product);
-		log.info("Deleted product with id: {}", id);	
+	public List<ProductResponse> searchProductsByTerm(String term, Set<ProductField> fields) {
+		if (!productSearchIndex.isReady()) {
+			return searchProductsByTerm(term);
+		}
+		callLog().log("Starting searchProductsByTerm for term: {}, fields: {}", term, fields);
+		Set<ProductField> columns = withId(fields);
+		List<Long> ids = productSearchIndex.search(term);
+		List<ProductResponse> responses = new ArrayList<>(ids.size());
+		for (int from = 0; from < ids.size(); from += ID_BATCH_SIZE) {
+			productRepository.findFieldsByIds(columns, ids.subList(from, Math.min(from + ID_BATCH_SIZE, ids.size())))
+					.forEach(tuple -> responses.add(toResponse(tuple, columns)));
+		}
+		callLog().log("Completed searchProductsByTerm, found {} products", responses.size());
+		return responses;
+	}
+
+	@Override
+	public int delete(Long id) {
+		callLog().log("Starting delete for id: {}", id);
+		int deleted = setStatus(List.of(id), ProductStatus.DELETED);
+		if (deleted == 0) {
+			log.error("Product not found for delete, id: {}", id);
+		}
+		callLog().log("Deleted {} product with id: {}", deleted, id);
+		return deleted;
+	}
+
+	@Override
+	public int setStatus(Collection<Long> ids, ProductStatus status) {
+		callLog().log("Starting setStatus to {} for {} ids", status, ids.size());
+		List<Long> distinctIds = ids.stream().distinct().toList();
+		int moved = transactionTemplate.execute(tx -> {
+			int count = 0;
+			for (int from = 0; from < distinctIds.size(); from += ID_BATCH_SIZE) {
+				List<Long> chunk = distinctIds.subList(from, Math.min(from + ID_BATCH_SIZE, distinctIds.size()));
+				count += moveToStatus(status, productRepository.lockStatusesOtherThan(chunk, status));
+			}
+			return count;
+		});
+		callLog().log("Completed setStatus, moved {} products to {}", moved, status);
+		return moved;
+	}
+
+	@Override
+	public int setStatusWhere(ProductFilter filter, ProductStatus status) {
+		callLog().log("Starting setStatusWhere to {} for filter: {}", status, filter);
+		if (filter == null || filter.isEmpty()) {
+			throw new InvalidProductFilterException("The filter must set at least one criterion");
+		}
+		checkRanges(filter);
+		Set<ProductStatus> previousStatuses = filter.statuses() == null || filter.statuses().isEmpty()
+				? EnumSet.allOf(ProductStatus.class)
+				: EnumSet.copyOf(filter.statuses());
+		previousStatuses.remove(status);
+		int moved = previousStatuses.isEmpty()
+				? 0
+				: transactionTemplate.execute(tx -> moveToStatus(status, productRepository.lockStatusesWhere(filter, previousStatuses)));
+		callLog().log("Completed setStatusWhere, moved {} products to {}", moved, status);
+		return moved;
 	}
 
 	@Override
 	public List<ProductResponse> getAllActive() {
 		
-		log.info("Starting getAllActive");
+		callLog().log("Starting getAllActive");
         
 		List<Product> products = productRepository.findAllByStatus(ProductStatus.ACTIVE);
 		List<ProductResponse> responses = products.stream()
 				.map(this::toResponse)
 				.toList();
-		log.info("Completed getAllActive, retrieved {} products", responses.size());
+		callLog().log("Completed getAllActive, retrieved {} products", responses.size());
 		return responses;
 	}
 	
 	@Override
 	public List<ProductResponse> getByStatus(ProductStatus status) {
-		log.info("Starting getByStatus for status: {}", status);
+		callLog().log("Starting getByStatus for status: {}", status);
 		List<Product> products = productRepository.findAllByStatus(status);
 		List<ProductResponse> responses = products.stream()
 				.map(this::toResponse)
 				.toList();
-		log.info("Completed getByStatus, retrieved {} products", responses.size());
+		callLog().log("Completed getByStatus, retrieved {} products", responses.size());
+		return responses;
+	}
+
+	@Override
+	public List<ProductResponse> getByStatus(ProductStatus status, Set<ProductField> fields) {
+		callLog().log("Starting getByStatus for status: {}, fields: {}", status, fields);
+		Set<ProductField> columns = withId(fields);
+		List<ProductResponse> responses = productRepository.findFieldsByStatus(columns, status).stream()
+				.map(tuple -> toResponse(tuple, columns))
+				.toList();
+		callLog().log("Completed getByStatus, retrieved {} products", responses.size());
 		return responses;
 	}
 	
+	@Override
+	public List<ProductResponse> getTop(ProductStatus status, ProductOrder order, Integer limit) {
+		callLog().log("Starting getTop for status: {}, order: {}, limit: {}", status, order, limit);
+		int size = resolvePageSize(limit);
+		List<ProductResponse> responses;
+		if (order == null || !topK.supports(order)) {
+			responses = productRepository.findByStatusAndIdGreaterThanOrderByIdAsc(status, 0L, Limit.of(size)).stream()
+					.map(this::toResponse)
+					.toList();
+		} else {
+			responses = topK.first(status, order, size).orElseGet(() -> loadTop(status, order, size));
+		}
+		callLog().log("Completed getTop, retrieved {} products", responses.size());
+		return responses;
+	}
+
+	/**
+	 * Reads the first products of a status with an indexed ORDER BY ... LIMIT query and
+	 * refills the matching top-k list with them.
+	 * @param status the product status
+	 * @param order the order, kept in memory
+	 * @param size the number of products requested
+	 * @return the first products of the status in order
+	 */
+	private List<ProductResponse> loadTop(ProductStatus status, ProductOrder order, int size) {
+		// read before the query, so a change committed meanwhile discards the refill
+		long generation = topK.generation(status, order);
+		int fetchSize = Math.max(size, topK.capacity());
+		Limit fetchLimit = Limit.of(fetchSize);
+		List<Product> products = order == ProductOrder.PRICE
+				? productRepository.findCheapestByStatus(status, fetchLimit)
+				: productRepository.findLowestStockByStatus(status, fetchLimit);
+		List<ProductResponse> responses = products.stream()
+				.map(this::toResponse)
+				.toList();
+		topK.fill(status, order, generation, responses, responses.size() < fetchSize);
+		return responses.subList(0, Math.min(size, responses.size()));
+	}
+
+	@Override
+	public ProductConnection getPage(ProductStatus status, Integer limit, String after) {
+		callLog().log("Starting getPage for status: {}, limit: {}, after: {}", status, limit, after);
+		int pageSize = resolvePageSize(limit);
+		long afterId = ProductCursor.decode(after);
+
+		// fetch one extra row to know whether another page follows
+		Limit fetchLimit = Limit.of(pageSize + 1);
+		List<Product> products = status == null
+				? productRepository.findByIdGreaterThanOrderByIdAsc(afterId, fetchLimit)
+				: productRepository.findByStatusAndIdGreaterThanOrderByIdAsc(status, afterId, fetchLimit);
+
+		ProductConnection page = toConnection(products, pageSize, afterId);
+		callLog().log("Completed getPage, retrieved {} products, hasNextPage: {}", page.edges().size(),
+				page.pageInfo().hasNextPage());
+		return page;
+	}
+
+	@Override
+	public ProductConnection getPageWhere(ProductFilter filter, Integer limit, String after) {
+		callLog().log("Starting getPageWhere for filter: {}, limit: {}, after: {}", filter, limit, after);
+		checkRanges(filter);
+		int pageSize = resolvePageSize(limit);
+		long afterId = ProductCursor.decode(after);
+
+		// fetch one extra row to know whether another page follows
+		List<Product> products = productRepository.findPageWhere(filter, afterId, pageSize + 1);
+
+		ProductConnection page = toConnection(products, pageSize, afterId);
+		callLog().log("Completed getPageWhere, retrieved {} products, hasNextPage: {}", page.edges().size(),
+				page.pageInfo().hasNextPage());
+		return page;
+	}
+
+	@Override
+	public ProductChangeFeed getChangesSince(String cursor, Integer limit) {
+		callLog().log("Starting getChangesSince for cursor: {}, limit: {}", cursor, limit);
+		int pageSize = resolvePageSize(limit);
+		long after = ProductCursor.decodeChange(cursor);
+		if (after > 0 && outboxRepository.findMinSequenceNumber().filter(oldest -> oldest > after + 1).isPresent()) {
+			throw new InvalidPaginationException("Changes after this cursor are no longer retained");
+		}
+
+		// fetch one extra row to know whether more changes follow
+		List<ProductChange> changes = outboxRepository
+				.findBySequenceNumberGreaterThanOrderBySequenceNumberAsc(after, Limit.of(pageSize + 1)).stream()
+				.map(ProductChange::from)
+				.toList();
+		boolean hasMore = changes.size() > pageSize;
+		if (hasMore) {
+			changes = changes.subList(0, pageSize);
+		}
+		long last = changes.isEmpty() ? after : changes.get(changes.size() - 1).sequenceNumber();
+
+		callLog().log("Completed getChangesSince, retrieved {} changes, hasMore: {}", changes.size(), hasMore);
+		return new ProductChangeFeed(changes, ProductCursor.encodeChange(last), hasMore);
+	}
+
+	/**
+	 * Builds a page from products fetched with one extra row beyond the page size.
+	 * @param products the products ordered by id, at most one more than the page size
+	 * @param pageSize the page size
+	 * @param afterId the id the page starts after
+	 * @return the page of products with its pagination info
+	 */
+	private ProductConnection toConnection(List<Product> products, int pageSize, long afterId) {
+		boolean hasNextPage = products.size() > pageSize;
+		List<ProductEdge> edges = products.stream()
+				.limit(pageSize)
+				.map(product -> new ProductEdge(ProductCursor.encode(product.getId()), toResponse(product)))
+				.toList();
+
+		PageInfo pageInfo = new PageInfo(
+				hasNextPage,
+				afterId > 0,
+				edges.isEmpty() ? null : edges.get(0).cursor(),
+				edges.isEmpty() ? null : edges.get(edges.size() - 1).cursor());
+		return new ProductConnection(edges, pageInfo);
+	}
+
+	@Transactional
+	@Override
+	public long export(ProductStatus status, Consumer<ProductResponse> consumer) {
+		callLog().log("Starting export for status: {}", status);
+		long count = 0;
+		try (Stream<Product> products = productRepository.streamByStatus(status, exportFetchSize)) {
+			for (Product product : (Iterable<Product>) products::iterator) {
+				consumer.accept(toResponse(product));
+				// keep the persistence context from growing with the table
+				productRepository.detach(product);
+				count++;
+			}
+		}
+		callLog().log("Completed export, exported {} products", count);
+		return count;
+	}
+
+	@Override
+	public List<ProductBulkResult> createAll(List<ProductRequest> productRequests) {
+		callLog().log("Starting createAll for {} products", productRequests.size());
+		ProductBulkResult[] results = new ProductBulkResult[productRequests.size()];
+		Set<String> names = new HashSet<>();
+		List<Integer> pending = new ArrayList<>();
+		for (int i = 0; i < productRequests.size(); i++) {
+			ProductRequest productRequest = productRequests.get(i);
+			String error = validate(productRequest);
+			if (error == null && !names.add(productRequest.name())) {
+				error = "Duplicate product name in batch";
+			}
+			if (error != null) {
+				results[i] = ProductBulkResult.failure(i, error);
+			} else {
+				pending.add(i);
+			}
+		}
+		
+		inChunks(pending, chunk -> createChunk(chunk, productRequests, results), results);
+		callLog().log("Completed createAll, created {} of {} products", countSuccesses(results), results.length);
+		return Arrays.asList(results);
+	}
+
+	@Override
+	public List<ProductBulkResult> updateAll(List<ProductUpdateRequest> updates) {
+		callLog().log("Starting updateAll for {} products", updates.size());
+		ProductBulkResult[] results = new ProductBulkResult[updates.size()];
+		Set<Long> ids = new HashSet<>();
+		List<Integer> pending = new ArrayList<>();
+		for (int i = 0; i < updates.size(); i++) {
+			ProductUpdateRequest update = updates.get(i);
+			String error = validate(update);
+			if (error == null && update.input().status() == null) {
+				error = "Status is required";
+			}
+			if (error == null && !ids.add(update.id())) {
+				error = "Duplicate product id in batch";
+			}
+			if (error != null) {
+				results[i] = ProductBulkResult.failure(i, error);
+			} else {
+				pending.add(i);
+			}
+		}
+		
+		inChunks(pending, chunk -> updateChunk(chunk, updates, results), results);
+		callLog().log("Completed updateAll, updated {} of {} products", countSuccesses(results), results.length);
+		return Arrays.asList(results);
+	}
+
+	/**
+	 * Inserts one chunk of products; the inserts are sent as a JDBC batch on flush.
+	 * @param chunk indexes of the requests to insert
+	 * @param productRequests all requests of the batch
+	 * @param results per-item results, filled in for the chunk
+	 */
+	private void createChunk(List<Integer> chunk, List<ProductRequest> productRequests, ProductBulkResult[] results) {
+		Set<String> existingNames = productRepository.findExistingNames(
+				chunk.stream().map(i -> productRequests.get(i).name()).toList());
+		
+		List<Integer> created = new ArrayList<>();
+		List<Product> products = new ArrayList<>();
+		for (int i : chunk) {
+			ProductRequest productRequest = productRequests.get(i);
+			if (existingNames.contains(productRequest.name())) {
+				results[i] = ProductBulkResult.failure(i, "Product with same name already exists");
+			} else {
+				created.add(i);
+				products.add(toEntity(productRequest));
+			}
+		}
+		List<Product> saved = productRepository.saveAll(products);
+		productRepository.flush();
+		
+		List<ProductChangeEvent> events = new ArrayList<>(saved.size());
+		for (int n = 0; n < saved.size(); n++) {
+			int i = created.get(n);
+			results[i] = ProductBulkResult.success(i, toResponse(saved.get(n)));
+			events.add(new ProductChangeEvent(results[i].product(), null));
+		}
+		recordChanges(events);
+		afterCommit(() -> {
+			saved.forEach(product -> productSearchIndex.index(product.getId(), product.getName()));
+			catalogVersion.bump(ProductStatus.ACTIVE);
+			events.forEach(event -> {
+				catalogStats.add(event.product());
+				topK.put(event.product(), event.previousStatus());
+			});
+			productChangeBus.publish(events);
+		});
+	}
+
+	/**
+	 * Updates one chunk of products; the updates are sent as a JDBC batch on flush.
+	 * @param chunk indexes of the updates to apply
+	 * @param updates all updates of the batch
+	 * @param results per-item results, filled in for the chunk
+	 */
+	private void updateChunk(List<Integer> chunk, List<ProductUpdateRequest> updates, ProductBulkResult[] results) {
+		Map<Long, Product> products = productRepository.findAllById(chunk.stream().map(i -> updates.get(i).id()).toList())
+				.stream()
+				.collect(Collectors.toMap(Product::getId, Function.identity()));
+		
+		List<Integer> updated = new ArrayList<>();
+		Map<Long, ProductResponse> previous = new HashMap<>();
+		Set<ProductStatus> statuses = EnumSet.noneOf(ProductStatus.class);
+		for (int i : chunk) {
+			ProductUpdateRequest update = updates.get(i);
+			Product product = products.get(update.id());
+			if (product == null) {
+				results[i] = ProductBulkResult.failure(i, "Product not found");
+				continue;
+			}
+			ProductRequest productRequest = update.input();
+			statuses.add(product.getStatus());
+			previous.putIfAbsent(product.getId(), toResponse(product));
+			product.setName(productRequest.name());
+			product.setDescription(productRequest.description());
+			product.setPrice(productRequest.price());
+			product.setStatus(productRequest.status());
+			product.setStock(productRequest.stock());
+			statuses.add(product.getStatus());
+			updated.add(i);
+		}
+		productRepository.flush();
+		
+		List<Product> saved = new ArrayList<>(updated.size());
+		List<ProductChangeEvent> events = new ArrayList<>(updated.size());
+		for (int i : updated) {
+			Product product = products.get(updates.get(i).id());
+			saved.add(product);
+			results[i] = ProductBulkResult.success(i, toResponse(product));
+			events.add(new ProductChangeEvent(results[i].product(), previous.get(product.getId()).status()));
+		}
+		recordChanges(events);
+		afterCommit(() -> {
+			saved.forEach(product -> {
+				productSearchIndex.index(product.getId(), product.getName());
+				productCache.invalidate(product.getId());
+			});
+			catalogVersion.bump(statuses.toArray(ProductStatus[]::new));
+			events.forEach(event -> {
+				catalogStats.replace(previous.get(event.product().id()), event.product());
+				topK.put(event.product(), event.previousStatus());
+			});
+			productChangeBus.publish(events);
+		});
+	}
+
+	/**
+	 * Runs the work for each chunk of items in its own transaction. When a chunk fails
+	 * as a whole, its items are retried one per transaction so that only the offending
+	 * items are reported as failed.
+	 * @param items indexes of the items to process
+	 * @param work processes a chunk of item indexes
+	 * @param results per-item results
+	 */
+	private void inChunks(List<Integer> items, Consumer<List<Integer>> work, ProductBulkResult[] results) {
+		for (int from = 0; from < items.size(); from += bulkChunkSize) {
+			List<Integer> chunk = items.subList(from, Math.min(from + bulkChunkSize, items.size()));
+			try {
+				transactionTemplate.executeWithoutResult(status -> work.accept(chunk));
+			} catch (RuntimeException e) {
+				log.warn("Bulk chunk of {} items failed, retrying items individually: {}", chunk.size(), e.getMessage());
+				for (int i : chunk) {
+					try {
+						transactionTemplate.executeWithoutResult(status -> work.accept(List.of(i)));
+					} catch (DataIntegrityViolationException itemException) {
+						results[i] = ProductBulkResult.failure(i, translate(itemException).getMessage());
+					} catch (RuntimeException itemException) {
+						results[i] = ProductBulkResult.failure(i, itemException.getMessage());
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Saves and flushes a product so constraint violations surface here rather than at commit.
+	 * @param product the product to save
+	 * @return the saved product
+	 */
+	private Product saveAndFlush(Product product) {
+		try {
+			return productRepository.saveAndFlush(product);
+		} catch (DataIntegrityViolationException e) {
+			throw translate(e);
+		}
+	}
+
+	/**
+	 * Translates a violation of the unique name constraint into {@link ProductAlreadyExistError}.
+	 * @param e the data integrity violation
+	 * @return the exception to throw
+	 */
+	private RuntimeException translate(DataIntegrityViolationException e) {
+		for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+			if (cause instanceof ConstraintViolationException violation
+					&& violation.getConstraintName() != null
+					&& violation.getConstraintName().toLowerCase(Locale.ROOT).contains(Product.NAME_CONSTRAINT)) {
+				log.warn("Product name already exists: {}", violation.getConstraintName());
+				return new ProductAlreadyExistError("Product with same name already exists", e);
+			}
+		}
+		return e;
+	}
+
+	/**
+	 * Validates an object with Bean Validation.
+	 * @param object the object to validate
+	 * @return the joined violation messages, or null when valid
+	 */
+	private String validate(Object object) {
+		if (object == null) {
+			return "Item is required";
+		}
+		Set<ConstraintViolation<Object>> violations = validator.validate(object);
+		if (violations.isEmpty()) {
+			return null;
+		}
+		return violations.stream()
+				.map(ConstraintViolation::getMessage)
+				.sorted()
+				.collect(Collectors.joining(", "));
+	}
+
+	private static long countSuccesses(ProductBulkResult[] results) {
+		return Arrays.stream(results).filter(ProductBulkResult::success).count();
+	}
+
+	/**
+	 * Loads products by primary key in bounded IN batches, ordered by id.
+	 * @param ids the product IDs
+	 * @return the products that still exist
+	 */
+	private List<Product> findAllByIdOrdered(List<Long> ids) {
+		List<Product> products = new ArrayList<>(ids.size());
+		for (int from = 0; from < ids.size(); from += ID_BATCH_SIZE) {
+			products.addAll(productRepository.findAllById(ids.subList(from, Math.min(from + ID_BATCH_SIZE, ids.size()))));
+		}
+		products.sort(Comparator.comparing(Product::getId));
+		return products;
+	}
+
+	/**
+	 * Moves products to a status inside the current transaction with set-based UPDATEs.
+	 * The products were locked when their previous status was read, so no concurrent
+	 * transaction can move them in between, and exactly these products are moved.
+	 * @param status the new status
+	 * @param locked the locked products to move, with their current status
+	 * @return the number of products moved
+	 */
+	private int moveToStatus(ProductStatus status, List<ProductStatusProjection> locked) {
+		if (locked.isEmpty()) {
+			return 0;
+		}
+		LocalDateTime updatedAt = LocalDateTime.now();
+		boolean publish = productChangeBus.hasSubscribers();
+		Map<Long, ProductStatus> moved = new LinkedHashMap<>();
+		Map<ProductStatus, Integer> movedFrom = new EnumMap<>(ProductStatus.class);
+		for (ProductStatusProjection product : locked) {
+			moved.put(product.getId(), product.getStatus());
+			movedFrom.merge(product.getStatus(), 1, Integer::sum);
+		}
+		List<Long> ids = List.copyOf(moved.keySet());
+		int count = 0;
+		for (int from = 0; from < ids.size(); from += ID_BATCH_SIZE) {
+			count += productRepository.updateStatus(ids.subList(from, Math.min(from + ID_BATCH_SIZE, ids.size())), status,
+					updatedAt);
+		}
+		
+		Set<ProductStatus> statuses = EnumSet.of(status);
+		statuses.addAll(movedFrom.keySet());
+		outboxRepository.saveAll(moved.entrySet().stream()
+				.map(entry -> outboxEntry(entry.getKey(), status, entry.getValue(), updatedAt))
+				.toList());
+		List<ProductChangeEvent> events = publish
+				? findAllByIdOrdered(ids).stream()
+						.map(product -> new ProductChangeEvent(toResponse(product), moved.get(product.getId())))
+						.toList()
+				: List.of();
+		afterCommit(() -> {
+			ids.forEach(productCache::invalidate);
+			catalogVersion.bump(statuses.toArray(ProductStatus[]::new));
+			movedFrom.forEach((previousStatus, updated) -> catalogStats.move(previousStatus, status, updated));
+			moveTopK(status, moved, events);
+			productChangeBus.publish(events);
+		});
+		return count;
+	}
+
+	/**
+	 * Applies a status change to the top-k lists. Loaded products are re-inserted; otherwise
+	 * the moved ids leave the lists of their previous status, and the lists of the new status
+	 * are dropped since the rows entering them were not read.
+	 * @param status the new status
+	 * @param moved the moved ids, with their previous status
+	 * @param events the changes, when the moved products were loaded
+	 */
+	private void moveTopK(ProductStatus status, Map<Long, ProductStatus> moved, List<ProductChangeEvent> events) {
+		if (events.size() == moved.size()) {
+			events.forEach(event -> topK.put(event.product(), event.previousStatus()));
+			return;
+		}
+		moved.entrySet().stream()
+				.collect(Collectors.groupingBy(Map.Entry::getValue, Collectors.mapping(Map.Entry::getKey, Collectors.toList())))
+				.forEach(topK::removeAll);
+		topK.invalidate(status);
+	}
+
+	/**
+	 * Writes the outbox records of changes in the current transaction, so they commit or roll back with them.
+	 * @param events the changes
+	 */
+	private void recordChanges(List<ProductChangeEvent> events) {
+		outboxRepository.saveAll(events.stream()
+				.map(event -> {
+					ProductResponse product = event.product();
+					LocalDateTime changedAt = product.updatedAt() != null ? product.updatedAt() : product.createdAt();
+					return outboxEntry(product.id(), product.status(), event.previousStatus(), changedAt);
+				})
+				.toList());
+	}
+
+	private static ProductOutboxEntry outboxEntry(Long productId, ProductStatus status, ProductStatus previousStatus,
+			LocalDateTime changedAt) {
+		return ProductOutboxEntry.builder()
+				.productId(productId)
+				.changeType(ProductChangeType.of(status, previousStatus))
+				.status(status)
+				.previousStatus(previousStatus)
+				.changedAt(changedAt)
+				.build();
+	}
+
+	/**
+	 * Rejects filters whose lower bound is above their upper bound, or whose time window ends before it starts.
+	 * @param filter the filter
+	 */
+	private static void checkRanges(ProductFilter filter) {
+		if (filter.minPrice() != null && filter.maxPrice() != null && filter.minPrice().compareTo(filter.maxPrice()) > 0) {
+			throw new InvalidProductFilterException("minPrice must not be greater than maxPrice");
+		}
+		if (filter.minStock() != null && filter.maxStock() != null && filter.minStock() > filter.maxStock()) {
+			throw new InvalidProductFilterException("minStock must not be greater than maxStock");
+		}
+		if (filter.createdAfter() != null && filter.createdBefore() != null
+				&& filter.createdAfter().isAfter(filter.createdBefore())) {
+			throw new InvalidProductFilterException("createdAfter must not be later than createdBefore");
+		}
+		if (filter.updatedAfter() != null && filter.updatedBefore() != null
+				&& filter.updatedAfter().isAfter(filter.updatedBefore())) {
+			throw new InvalidProductFilterException("updatedAfter must not be later than updatedBefore");
+		}
+	}
+
+	/**
+	 * Tells whether the caller runs inside a read-write transaction, whose reads may see
+	 * its own uncommitted writes. Such reads bypass the product cache, which must only
+	 * ever hold committed rows.
+	 * @return true inside a transaction that is not read-only
+	 */
+	private static boolean inWriteTransaction() {
+		return TransactionSynchronizationManager.isActualTransactionActive()
+				&& !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+	}
+
+	/**
+	 * Runs the action once the current transaction commits, or immediately when
+	 * no transaction is active, so in-memory structures never see rolled back data.
+	 * @param action the action to run
+	 */
+	private void afterCommit(Runnable action) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			action.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
+	}
+
+	/**
+	 * Validates the requested page size and caps it at the configured maximum.
+	 * @param limit the requested page size, may be null
+	 * @return the page size to use
+	 */
+	private int resolvePageSize(Integer limit) {
+		if (limit == null) {
+			return defaultPageSize;
+		}
+		if (limit < 1) {
+			throw new InvalidPaginationException("Page size must be greater than zero");
+		}
+		return Math.min(limit, maxPageSize);
+	}
+
+	/**
+	 * Returns the logger for per-call trace lines, at the configured level and
+	 * sampled at the configured rate; skipped lines cost no formatting.
+	 * @return the logging event builder
+	 */
+	private LoggingEventBuilder callLog() {
+		if (callLogSampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= callLogSampleRate) {
+			return NOPLoggingEventBuilder.singleton();
+		}
+		return log.atLevel(callLogLevel);
+	}
+
 	/**
 	 * Converts a Product entity to ProductResponse DTO.
 	 * @param productEntity the product entity
 	 * @return the product response DTO
 	 */
-	private ProductResponse toResponse(Product productEntity){
+	ProductResponse toResponse(Product productEntity){
 		
 			return ProductResponse.builder()
 					.id(productEntity.getId())
@@ -169,15 +1082,52 @@ public class ProductServiceImpl implements ProductService {
 					.status(productEntity.getStatus())
 					.createdAt(productEntity.getCreatedAt())
 					.updatedAt(productEntity.getUpdatedAt())
+					.version(productEntity.getVersion())
 					.build();
 	}
 	
+	/**
+	 * Converts a projected tuple to ProductResponse DTO, leaving unselected fields null.
+	 * @param tuple the tuple, aliased by field name
+	 * @param fields the selected fields
+	 * @return the product response DTO
+	 */
+	private ProductResponse toResponse(Tuple tuple, Set<ProductField> fields) {
+		
+			ProductResponse.ProductResponseBuilder builder = ProductResponse.builder();
+			for (ProductField field : fields) {
+				Object value = tuple.get(field.fieldName());
+				switch (field) {
+					case ID -> builder.id((Long) value);
+					case NAME -> builder.name((String) value);
+					case DESCRIPTION -> builder.description((String) value);
+					case PRICE -> builder.price((BigDecimal) value);
+					case STOCK -> builder.stock((Integer) value);
+					case STATUS -> builder.status((ProductStatus) value);
+					case CREATED_AT -> builder.createdAt((LocalDateTime) value);
+					case UPDATED_AT -> builder.updatedAt((LocalDateTime) value);
+				}
+			}
+			return builder.build();
+	}
+	
+	/**
+	 * Adds the id to a field selection; it is always read to keep rows ordered and identifiable.
+	 * @param fields the requested fields
+	 * @return the fields to read
+	 */
+	private static Set<ProductField> withId(Set<ProductField> fields) {
+		Set<ProductField> columns = EnumSet.of(ProductField.ID);
+		columns.addAll(fields);
+		return columns;
+	}
+	
 	/**
 	 * Converts a ProductRequest DTO to Product entity.
 	 * @param productRequest the product request DTO
 	 * @return the product entity
 	 */	
-	private Product toEntity(ProductRequest productRequest){
+	Product toEntity(ProductRequest productRequest){
 			
 			return Product.builder()
 					.name(productRequest.name())
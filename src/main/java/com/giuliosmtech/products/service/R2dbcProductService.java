@@ -0,0 +1,124 @@
+package com.giuliosmtech.products.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.giuliosmtech.products.cache.ProductCache;
+import com.giuliosmtech.products.dto.ProductResponse;
+import com.giuliosmtech.products.enums.ProductField;
+import com.giuliosmtech.products.enums.ProductOrder;
+import com.giuliosmtech.products.enums.ProductStatus;
+import com.giuliosmtech.products.repository.ProductReactiveRepository;
+import com.giuliosmtech.products.search.ProductSearchIndex;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Reactive read operations served by {@link ProductReactiveRepository}, without blocking a thread
+ * for the database round-trip. Active when {@code products.graphql.data-access=r2dbc}.
+ * <p>
+ * Lookups by ID are answered from {@link ProductCache} where possible. Misses are read
+ * without populating the cache, so a concurrent update can never be overwritten by a stale row.
+ * <p>
+ * Sorted listings go through {@link ProductService#getTop}, since the top-k lists it serves
+ * from memory are refilled by the JPA repository; the call is moved to the bounded elastic scheduler.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "products.graphql.data-access", havingValue = "r2dbc")
+public class R2dbcProductService implements ReactiveProductService {
+
+	private static final int ID_BATCH_SIZE = 1000;
+
+	private static final Set<ProductField> ALL_FIELDS = EnumSet.allOf(ProductField.class);
+
+	private final ProductReactiveRepository productReactiveRepository;
+
+	private final ProductSearchIndex productSearchIndex;
+
+	private final ProductCache productCache;
+
+	private final ProductService productService;
+
+	public R2dbcProductService(ProductReactiveRepository productReactiveRepository,
+			ProductSearchIndex productSearchIndex, ProductCache productCache, ProductService productService) {
+		this.productReactiveRepository = productReactiveRepository;
+		this.productSearchIndex = productSearchIndex;
+		this.productCache = productCache;
+		this.productService = productService;
+	}
+
+	@Override
+	public Flux<ProductResponse> getByStatus(ProductStatus status, Set<ProductField> fields) {
+		log.debug("Starting reactive getByStatus for status: {}, fields: {}", status, fields);
+		return productReactiveRepository.findFieldsByStatus(withId(fields), status);
+	}
+
+	@Override
+	public Flux<ProductResponse> getTop(ProductStatus status, ProductOrder order, Integer limit) {
+		log.debug("Starting reactive getTop for status: {}, order: {}, limit: {}", status, order, limit);
+		return Mono.fromCallable(() -> productService.getTop(status, order, limit))
+				.subscribeOn(Schedulers.boundedElastic())
+				.flatMapIterable(products -> products);
+	}
+
+	@Override
+	public Mono<Map<Long, ProductResponse>> getByIds(Collection<Long> ids) {
+		log.debug("Starting reactive getByIds for {} ids", ids.size());
+		Map<Long, ProductResponse> cached = productCache.getAllPresent(ids);
+		List<Long> missing = ids.stream()
+				.filter(id -> !cached.containsKey(id))
+				.distinct()
+				.toList();
+		if (missing.isEmpty()) {
+			return Mono.just(cached);
+		}
+		return findByIds(ALL_FIELDS, missing)
+				.collect(() -> new HashMap<>(cached), (products, product) -> products.put(product.id(), product));
+	}
+
+	@Override
+	public Flux<ProductResponse> searchProductsByTerm(String term, Set<ProductField> fields) {
+		log.debug("Starting reactive searchProductsByTerm for term: {}, fields: {}", term, fields);
+		Set<ProductField> columns = withId(fields);
+		if (!productSearchIndex.isReady()) {
+			return productReactiveRepository.findFieldsByNameContainingIgnoreCase(columns, term);
+		}
+		return findByIds(columns, productSearchIndex.search(term));
+	}
+
+	/**
+	 * Reads products by ID in batches, one query at a time, keeping ID order.
+	 */
+	private Flux<ProductResponse> findByIds(Set<ProductField> fields, List<Long> ids) {
+		List<List<Long>> batches = new ArrayList<>();
+		for (int from = 0; from < ids.size(); from += ID_BATCH_SIZE) {
+			batches.add(ids.subList(from, Math.min(from + ID_BATCH_SIZE, ids.size())));
+		}
+		return Flux.fromIterable(batches)
+				.concatMap(batch -> productReactiveRepository.findFieldsByIds(fields, batch));
+	}
+
+	/**
+	 * Adds the id to a field selection; it is always read to keep rows ordered and identifiable.
+	 * @param fields the requested fields
+	 * @return the fields to read
+	 */
+	private static Set<ProductField> withId(Set<ProductField> fields) {
+		Set<ProductField> columns = EnumSet.of(ProductField.ID);
+		columns.addAll(fields);
+		return columns;
+	}
+
+}
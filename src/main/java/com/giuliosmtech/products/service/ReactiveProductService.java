@@ -0,0 +1,55 @@
+package com.giuliosmtech.products.service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+import com.giuliosmtech.products.dto.ProductResponse;
+import com.giuliosmtech.products.enums.ProductField;
+import com.giuliosmtech.products.enums.ProductOrder;
+import com.giuliosmtech.products.enums.ProductStatus;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking read operations backing the GraphQL query resolvers.
+ * The implementation is selected with {@code products.graphql.data-access} ({@code jpa} or {@code r2dbc}).
+ */
+public interface ReactiveProductService {
+
+	/**
+	 * Returns products by status, reading only the requested fields.
+	 * Fields that were not requested are left null.
+	 * @param status the product status
+	 * @param fields the fields to read
+	 * @return the products with the given status
+	 */
+	Flux<ProductResponse> getByStatus(ProductStatus status, Set<ProductField> fields);
+
+	/**
+	 * Returns the first products of a status in the given order.
+	 * @param status the product status
+	 * @param order the order, or null to order by ID
+	 * @param limit the number of products, or null for the default page size
+	 * @return the first products of the status in order
+	 */
+	Flux<ProductResponse> getTop(ProductStatus status, ProductOrder order, Integer limit);
+
+	/**
+	 * Returns products by ID in one batch.
+	 * @param ids the product IDs
+	 * @return the products found, keyed by ID
+	 */
+	Mono<Map<Long, ProductResponse>> getByIds(Collection<Long> ids);
+
+	/**
+	 * Searches products by name term, reading only the requested fields.
+	 * Fields that were not requested are left null.
+	 * @param term the search term
+	 * @param fields the fields to read
+	 * @return the matching products
+	 */
+	Flux<ProductResponse> searchProductsByTerm(String term, Set<ProductField> fields);
+
+}
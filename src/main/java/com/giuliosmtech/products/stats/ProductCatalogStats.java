@@ -0,0 +1,198 @@
+package com.giuliosmtech.products.stats;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.giuliosmtech.products.dto.CatalogStats;
+import com.giuliosmtech.products.dto.ProductResponse;
+import com.giuliosmtech.products.enums.ProductStatus;
+import com.giuliosmtech.products.repository.ProductPriceGroup;
+import com.giuliosmtech.products.repository.ProductRepository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory aggregates over the product catalog, maintained incrementally so that
+ * reading them never touches the database.
+ * <p>
+ * Counters are {@link LongAdder}s, so concurrent mutations do not contend on a single
+ * cache line. Prices are kept as a sorted multiset to answer min/max as products come
+ * and go, and summed in cents for the average. Figures cover every stored product;
+ * only the per-status counts depend on the status, so status changes need no row data.
+ * <p>
+ * The aggregates are seeded before the application accepts requests, since a change
+ * applied on top of a seed that already contains it would be counted twice.
+ */
+@Slf4j
+@Component
+public class ProductCatalogStats {
+
+	private static final int PRICE_SCALE = 2;
+
+	private final ProductRepository productRepository;
+
+	private final int lowStockThreshold;
+
+	private final List<BigDecimal> bucketBounds;
+
+	private final LongAdder[] statusCounts = newAdders(ProductStatus.values().length);
+
+	private final LongAdder totalStock = new LongAdder();
+
+	private final LongAdder lowStock = new LongAdder();
+
+	private final LongAdder priceSumCents = new LongAdder();
+
+	private final LongAdder[] priceBuckets;
+
+	private final ConcurrentNavigableMap<BigDecimal, Long> prices = new ConcurrentSkipListMap<>();
+
+	public ProductCatalogStats(ProductRepository productRepository,
+			@Value("${products.stats.low-stock-threshold:5}") int lowStockThreshold,
+			@Value("${products.stats.price-buckets:10,25,50,100,250,500,1000}") List<BigDecimal> bucketBounds) {
+		this.productRepository = productRepository;
+		this.lowStockThreshold = lowStockThreshold;
+		this.bucketBounds = bucketBounds.stream().sorted().map(ProductCatalogStats::normalize).toList();
+		this.priceBuckets = newAdders(this.bucketBounds.size() + 1);
+	}
+
+	/**
+	 * Seeds the aggregates from one grouped query over the catalog.
+	 */
+	@PostConstruct
+	void seed() {
+		log.info("Starting catalog statistics seed");
+		List<ProductPriceGroup> groups = productRepository.aggregateByStatusAndPrice(lowStockThreshold);
+		for (ProductPriceGroup group : groups) {
+			long count = group.getCount();
+			statusCounts[group.getStatus().ordinal()].add(count);
+			totalStock.add(group.getStock());
+			lowStock.add(group.getLowStock());
+			addPrice(normalize(group.getPrice()), count);
+		}
+		log.info("Completed catalog statistics seed from {} status and price groups", groups.size());
+	}
+
+	/**
+	 * Records a created product.
+	 * @param product the product as committed
+	 */
+	public void add(ProductResponse product) {
+		apply(product, 1);
+	}
+
+	/**
+	 * Records a change to a product.
+	 * @param before the product before the change
+	 * @param after the product as committed
+	 */
+	public void replace(ProductResponse before, ProductResponse after) {
+		apply(before, -1);
+		apply(after, 1);
+	}
+
+	/**
+	 * Records a stock adjustment; the product's other figures are unchanged.
+	 * @param previousStock the stock before the adjustment
+	 * @param stock the stock after the adjustment
+	 */
+	public void adjustStock(int previousStock, int stock) {
+		totalStock.add((long) stock - previousStock);
+		boolean wasLow = previousStock <= lowStockThreshold;
+		boolean isLow = stock <= lowStockThreshold;
+		if (wasLow != isLow) {
+			lowStock.add(isLow ? 1 : -1);
+		}
+	}
+
+	/**
+	 * Records products moving from one status to another; their other figures are unchanged.
+	 * @param previousStatus the status the products had
+	 * @param status the status they have now
+	 * @param count the number of products moved
+	 */
+	public void move(ProductStatus previousStatus, ProductStatus status, long count) {
+		statusCounts[previousStatus.ordinal()].add(-count);
+		statusCounts[status.ordinal()].add(count);
+	}
+
+	/**
+	 * Returns the current figures; each is read independently, without blocking writers.
+	 * @return the catalog statistics
+	 */
+	public CatalogStats snapshot() {
+		List<CatalogStats.StatusCount> byStatus = new ArrayList<>(statusCounts.length);
+		long total = 0;
+		for (ProductStatus status : ProductStatus.values()) {
+			long count = statusCounts[status.ordinal()].sum();
+			byStatus.add(new CatalogStats.StatusCount(status, count));
+			total += count;
+		}
+		List<CatalogStats.PriceBucket> histogram = new ArrayList<>(priceBuckets.length);
+		BigDecimal from = BigDecimal.ZERO.setScale(PRICE_SCALE);
+		for (int i = 0; i < priceBuckets.length; i++) {
+			BigDecimal to = i < bucketBounds.size() ? bucketBounds.get(i) : null;
+			histogram.add(new CatalogStats.PriceBucket(from, to, priceBuckets[i].sum()));
+			from = to;
+		}
+		Map.Entry<BigDecimal, Long> min = prices.firstEntry();
+		Map.Entry<BigDecimal, Long> max = prices.lastEntry();
+		BigDecimal average = total == 0 ? null
+				: BigDecimal.valueOf(priceSumCents.sum(), PRICE_SCALE).divide(BigDecimal.valueOf(total), PRICE_SCALE, RoundingMode.HALF_UP);
+		return new CatalogStats(total, byStatus, totalStock.sum(), lowStock.sum(), lowStockThreshold,
+				min == null ? null : min.getKey(), max == null ? null : max.getKey(), average, histogram);
+	}
+
+	private void apply(ProductResponse product, int sign) {
+		statusCounts[product.status().ordinal()].add(sign);
+		int stock = product.stock() == null ? 0 : product.stock();
+		totalStock.add((long) sign * stock);
+		if (stock <= lowStockThreshold) {
+			lowStock.add(sign);
+		}
+		addPrice(normalize(product.price()), sign);
+	}
+
+	private void addPrice(BigDecimal price, long count) {
+		priceSumCents.add(price.unscaledValue().longValueExact() * count);
+		priceBuckets[bucket(price)].add(count);
+		prices.compute(price, (key, current) -> {
+			long updated = (current == null ? 0 : current) + count;
+			return updated == 0 ? null : updated;
+		});
+	}
+
+	/**
+	 * Returns the histogram bucket of a price: the number of bounds at or below it.
+	 */
+	private int bucket(BigDecimal price) {
+		int bucket = 0;
+		while (bucket < bucketBounds.size() && price.compareTo(bucketBounds.get(bucket)) >= 0) {
+			bucket++;
+		}
+		return bucket;
+	}
+
+	private static BigDecimal normalize(BigDecimal price) {
+		return price.setScale(PRICE_SCALE, RoundingMode.HALF_UP);
+	}
+
+	private static LongAdder[] newAdders(int length) {
+		LongAdder[] adders = new LongAdder[length];
+		for (int i = 0; i < length; i++) {
+			adders[i] = new LongAdder();
+		}
+		return adders;
+	}
+
+}
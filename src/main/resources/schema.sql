@@ -0,0 +1,60 @@
+-- Products schema. Managed here rather than generated by Hibernate, which only validates
+-- it against the entity mappings (spring.jpa.hibernate.ddl-auto=validate).
+-- Recreated on every start, like the in-memory database it runs on.
+
+drop table if exists product_outbox;
+drop sequence if exists product_outbox_seq;
+drop table if exists products;
+drop sequence if exists products_seq;
+
+create sequence products_seq start with 1 increment by 50;
+
+create table products (
+	id bigint not null,
+	name varchar(255) not null,
+	-- Lower-cased name for case-insensitive searches, maintained by the database
+	name_lower varchar(255) generated always as (lower(name)),
+	description varchar(255),
+	price numeric(38,2) not null,
+	stock integer not null,
+	status enum ('ACTIVE','BLOCKED','DELETED') not null,
+	created_at timestamp(6) not null,
+	updated_at timestamp(6),
+	version bigint not null,
+	primary key (id),
+	-- Also serves exact name lookups
+	constraint uk_products_name unique (name)
+);
+
+-- Listings and keyset pages by status, and set-based status changes
+create index idx_products_status_id on products (status, id);
+
+-- Substring searches scan this narrow index instead of the table rows
+create index idx_products_name_lower on products (name_lower);
+
+-- Cheapest products per status, walked in order; also covers the per-status price and
+-- stock aggregation that seeds the catalog statistics
+create index idx_products_status_price on products (status, price, id, stock);
+
+-- Lowest-stock products per status, walked in order
+create index idx_products_status_stock on products (status, stock, id);
+
+-- Transactional outbox: one compact record per product change, written in the change's
+-- transaction and drained in batches to the configured sink
+create sequence product_outbox_seq start with 1 increment by 50;
+
+create table product_outbox (
+	id bigint not null,
+	product_id bigint not null,
+	change_type enum ('CREATED','UPDATED','DELETED') not null,
+	status enum ('ACTIVE','BLOCKED','DELETED') not null,
+	previous_status enum ('ACTIVE','BLOCKED','DELETED'),
+	changed_at timestamp(6) not null,
+	-- Position in the change feed, assigned in commit order when the record is drained;
+	-- null until then
+	sequence_number bigint,
+	primary key (id)
+);
+
+-- Undrained records in ID order, the change feed by position and the purge of old positions
+create index idx_product_outbox_sequence on product_outbox (sequence_number, id);
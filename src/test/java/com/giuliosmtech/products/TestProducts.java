@@ -0,0 +1,65 @@
+package com.giuliosmtech.products;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import com.giuliosmtech.products.dto.ProductRequest;
+import com.giuliosmtech.products.enums.ProductStatus;
+
+/**
+ * Product requests for the tests. Most tests share one database and names must be unique,
+ * so the names handed out never repeat.
+ */
+public final class TestProducts {
+
+	private TestProducts() {
+	}
+
+	/**
+	 * Returns a product name no other test uses.
+	 * @return the name
+	 */
+	public static String uniqueName() {
+		return "Product " + UUID.randomUUID();
+	}
+
+	/**
+	 * Returns a request for an active product with a unique name.
+	 * @return the request
+	 */
+	public static ProductRequest request() {
+		return request(uniqueName());
+	}
+
+	/**
+	 * Returns a request for an active product with a stock of 10.
+	 * @param name the product name
+	 * @return the request
+	 */
+	public static ProductRequest request(String name) {
+		return request(name, 10);
+	}
+
+	/**
+	 * Returns a request for an active product priced 9.99.
+	 * @param name the product name
+	 * @param stock the stock
+	 * @return the request
+	 */
+	public static ProductRequest request(String name, int stock) {
+		return request(name, "9.99", stock, ProductStatus.ACTIVE);
+	}
+
+	/**
+	 * Returns a request for a product.
+	 * @param name the product name
+	 * @param price the price
+	 * @param stock the stock
+	 * @param status the status
+	 * @return the request
+	 */
+	public static ProductRequest request(String name, String price, int stock, ProductStatus status) {
+		return new ProductRequest(name, "Test product", new BigDecimal(price), stock, status);
+	}
+
+}
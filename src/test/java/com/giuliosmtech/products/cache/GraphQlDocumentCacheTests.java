@@ -0,0 +1,114 @@
+package com.giuliosmtech.products.cache;
+
+import static com.giuliosmtech.products.TestProducts.request;
+import static com.giuliosmtech.products.TestProducts.uniqueName;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.giuliosmtech.products.dto.ProductResponse;
+import com.giuliosmtech.products.service.ProductService;
+
+/**
+ * Sends Apollo automatic persisted queries over HTTP: an unknown hash is answered with
+ * {@code PersistedQueryNotFound}, the full text registers it, and the hash alone then runs
+ * the registered document.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:documents")
+@AutoConfigureMockMvc
+class GraphQlDocumentCacheTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private ProductService productService;
+
+	@Test
+	void persistedQueryMissesUntilTheFullTextRegistersIt() throws Exception {
+		ProductResponse product = productService.create(request(uniqueName()));
+		String query = "{ product(id: " + product.id() + ") { name } }";
+		String hash = sha256(query);
+
+		graphQl(null, hash)
+				.andExpect(jsonPath("$.errors[0].message").value("PersistedQueryNotFound"))
+				.andExpect(jsonPath("$.errors[0].extensions.code").value("PERSISTED_QUERY_NOT_FOUND"))
+				.andExpect(jsonPath("$.data").doesNotExist());
+
+		graphQl(query, hash)
+				.andExpect(jsonPath("$.errors").doesNotExist())
+				.andExpect(jsonPath("$.data.product.name").value(product.name()));
+
+		graphQl(null, hash)
+				.andExpect(jsonPath("$.errors").doesNotExist())
+				.andExpect(jsonPath("$.data.product.name").value(product.name()));
+	}
+
+	@Test
+	void hashOfAnotherTextIsRejected() throws Exception {
+		String query = "{ products(status: ACTIVE) { id } }";
+
+		graphQl(query, sha256(query + " "))
+				.andExpect(jsonPath("$.errors[0].message").value("PersistedQueryIdInvalid"))
+				.andExpect(jsonPath("$.errors[0].extensions.code").value("PERSISTED_QUERY_ID_INVALID"));
+	}
+
+	@Test
+	void plainTextQueriesRunWithoutAHash() throws Exception {
+		ProductResponse product = productService.create(request(uniqueName()));
+		String query = "{ product(id: " + product.id() + ") { stock } }";
+
+		graphQl(query, null).andExpect(jsonPath("$.data.product.stock").value(product.stock()));
+		graphQl(query, null).andExpect(jsonPath("$.data.product.stock").value(product.stock()));
+	}
+
+	/**
+	 * Posts a GraphQL request.
+	 * @param query the query text, or null to send the hash alone
+	 * @param hash the persisted query hash, or null for a plain request
+	 * @return the result of the response, dispatched when it completed asynchronously
+	 */
+	private ResultActions graphQl(String query, String hash) throws Exception {
+		Map<String, Object> body = new HashMap<>();
+		if (query != null) {
+			body.put("query", query);
+		}
+		if (hash != null) {
+			body.put("extensions", Map.of("persistedQuery", Map.of("version", 1, "sha256Hash", hash)));
+		}
+		ResultActions response = mockMvc.perform(post("/graphql")
+				.contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(body)));
+		MvcResult result = response.andReturn();
+		if (result.getRequest().isAsyncStarted()) {
+			response = mockMvc.perform(asyncDispatch(result));
+		}
+		return response.andExpect(status().isOk());
+	}
+
+	private static String sha256(String query) throws Exception {
+		return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(query.getBytes(StandardCharsets.UTF_8)));
+	}
+
+}
@@ -0,0 +1,80 @@
+package com.giuliosmtech.products.cache;
+
+import static com.giuliosmtech.products.TestProducts.request;
+import static com.giuliosmtech.products.TestProducts.uniqueName;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.giuliosmtech.products.dto.ProductPatch;
+import com.giuliosmtech.products.dto.ProductResponse;
+import com.giuliosmtech.products.enums.ProductStatus;
+import com.giuliosmtech.products.service.ProductService;
+
+/**
+ * Checks that the product cache behind getById only ever serves committed rows.
+ */
+@SpringBootTest
+class ProductCacheTests {
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ProductCache productCache;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	void committedChangesAreVisibleOnTheNextRead() {
+		ProductResponse product = productService.create(request(uniqueName()));
+		assertThat(productService.getById(product.id()).orElseThrow().name()).isEqualTo(product.name());
+		assertThat(productCache.getAllPresent(List.of(product.id()))).containsKey(product.id());
+
+		productService.patch(product.id(), ProductPatch.builder().description("Patched").build());
+		assertThat(productService.getById(product.id()).orElseThrow().description()).isEqualTo("Patched");
+
+		productService.adjustStock(product.id(), 3);
+		assertThat(productService.getById(product.id()).orElseThrow().stock()).isEqualTo(product.stock() + 3);
+
+		productService.delete(product.id());
+		assertThat(productService.getById(product.id()).orElseThrow().status()).isEqualTo(ProductStatus.DELETED);
+	}
+
+	@Test
+	void rolledBackChangesNeverReachTheCache() {
+		ProductResponse product = productService.create(request(uniqueName()));
+		ProductResponse cached = productService.getById(product.id()).orElseThrow();
+
+		transactionTemplate.executeWithoutResult(status -> {
+			productService.patch(product.id(), ProductPatch.builder().description("Rolled back").build());
+			status.setRollbackOnly();
+		});
+
+		assertThat(productCache.getAllPresent(List.of(product.id()))).containsEntry(product.id(), cached);
+		assertThat(productService.getById(product.id())).contains(cached);
+	}
+
+	@Test
+	void readsOfUncommittedChangesAreNotCached() {
+		ProductResponse product = productService.create(request(uniqueName()));
+
+		transactionTemplate.executeWithoutResult(status -> {
+			productService.patch(product.id(), ProductPatch.builder().description("Rolled back").build());
+			// the transaction sees its own change, which must not be cached for others
+			assertThat(productService.getById(product.id()).orElseThrow().description()).isEqualTo("Rolled back");
+			assertThat(productService.getByIds(List.of(product.id())).get(product.id()).description()).isEqualTo("Rolled back");
+			status.setRollbackOnly();
+		});
+
+		assertThat(productCache.getAllPresent(List.of(product.id()))).isEmpty();
+		assertThat(productService.getById(product.id()).orElseThrow().description()).isEqualTo(product.description());
+	}
+
+}
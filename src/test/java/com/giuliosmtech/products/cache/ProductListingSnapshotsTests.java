@@ -0,0 +1,79 @@
+package com.giuliosmtech.products.cache;
+
+import static com.giuliosmtech.products.TestProducts.request;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.giuliosmtech.products.dto.ProductPatch;
+import com.giuliosmtech.products.dto.ProductResponse;
+import com.giuliosmtech.products.enums.ProductStatus;
+import com.giuliosmtech.products.service.ProductService;
+
+/**
+ * Checks that listing snapshots are only served while they match the committed catalog.
+ */
+@SpringBootTest
+class ProductListingSnapshotsTests {
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ProductListingSnapshots listingSnapshots;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	void committedChangeIsInTheNextSnapshot() {
+		ProductResponse product = createBlocked();
+		assertThat(currentSnapshot()).contains(product.name());
+
+		productService.patch(product.id(), ProductPatch.builder().description("Committed " + product.name()).build());
+
+		// the stale snapshot is never served; the rebuilt one has the change
+		assertThat(currentSnapshot()).contains("Committed " + product.name());
+	}
+
+	@Test
+	void rolledBackChangeKeepsTheSnapshot() {
+		ProductResponse product = createBlocked();
+		String snapshot = currentSnapshot();
+
+		transactionTemplate.executeWithoutResult(status -> {
+			productService.patch(product.id(), ProductPatch.builder().description("Rolled back " + product.name()).build());
+			status.setRollbackOnly();
+		});
+
+		assertThat(listingSnapshots.get(ProductStatus.BLOCKED))
+				.map(json -> new String(json, StandardCharsets.UTF_8))
+				.contains(snapshot);
+	}
+
+	/**
+	 * Waits for the snapshot of the blocked listing to be current.
+	 * @return the snapshot's JSON
+	 */
+	private String currentSnapshot() {
+		return await().atMost(Duration.ofSeconds(10))
+				.until(() -> listingSnapshots.get(ProductStatus.BLOCKED), json -> json.isPresent())
+				.map(json -> new String(json, StandardCharsets.UTF_8))
+				.orElseThrow();
+	}
+
+	private ProductResponse createBlocked() {
+		ProductResponse product = productService.create(request());
+		productService.setStatus(List.of(product.id()), ProductStatus.BLOCKED);
+		return product;
+	}
+
+}
@@ -0,0 +1,124 @@
+package com.giuliosmtech.products.cache;
+
+import static com.giuliosmtech.products.TestProducts.uniqueName;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+
+import com.giuliosmtech.products.TestProducts;
+import com.giuliosmtech.products.dto.ProductPatch;
+import com.giuliosmtech.products.dto.ProductRequest;
+import com.giuliosmtech.products.dto.ProductResponse;
+import com.giuliosmtech.products.entity.Product;
+import com.giuliosmtech.products.enums.ProductOrder;
+import com.giuliosmtech.products.enums.ProductStatus;
+import com.giuliosmtech.products.repository.ProductRepository;
+import com.giuliosmtech.products.service.ProductService;
+
+/**
+ * Checks that the in-memory top-k lists always hold an exact prefix of the database
+ * ordering, through a seeded random run of creates, price and stock changes, status
+ * changes and deletes. The capacity is small so lists overflow and shrink often.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:topk",
+		"products.top-k.capacity=4"
+})
+class ProductTopKConsistencyTests {
+
+	private static final int MAX_LIMIT = 7;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private ProductTopK topK;
+
+	@Test
+	void listsMatchTheDatabaseAfterEveryChange() {
+		Random random = new Random(42);
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < 12; i++) {
+			ids.add(productService.create(request(random)).id());
+		}
+		assertMatchesDatabase("seed");
+
+		for (int step = 0; step < 80; step++) {
+			Long id = ids.get(random.nextInt(ids.size()));
+			String change;
+			switch (random.nextInt(6)) {
+				case 0 -> {
+					ProductResponse created = productService.create(request(random));
+					ids.add(created.id());
+					change = "create " + created.id();
+				}
+				case 1 -> {
+					productService.patch(id, ProductPatch.builder().price(price(random)).build());
+					change = "price " + id;
+				}
+				case 2 -> {
+					productService.adjustStock(id, random.nextInt(20));
+					change = "stock " + id;
+				}
+				case 3 -> {
+					productService.setStatus(List.of(id), random.nextBoolean() ? ProductStatus.ACTIVE : ProductStatus.BLOCKED);
+					change = "status " + id;
+				}
+				case 4 -> {
+					productService.delete(id);
+					change = "delete " + id;
+				}
+				default -> {
+					// a read between changes refills lists emptied by the changes
+					productService.getTop(ProductStatus.values()[random.nextInt(3)], ProductOrder.PRICE, 1 + random.nextInt(MAX_LIMIT));
+					change = "read";
+				}
+			}
+			assertMatchesDatabase("step " + step + ": " + change);
+		}
+	}
+
+	private void assertMatchesDatabase(String description) {
+		for (ProductStatus status : ProductStatus.values()) {
+			for (ProductOrder order : List.of(ProductOrder.PRICE, ProductOrder.STOCK)) {
+				for (int limit = 1; limit <= MAX_LIMIT; limit++) {
+					List<Long> expected = ids(order == ProductOrder.PRICE
+							? productRepository.findCheapestByStatus(status, Limit.of(limit))
+							: productRepository.findLowestStockByStatus(status, Limit.of(limit)));
+					Optional<List<ProductResponse>> held = topK.first(status, order, limit);
+					String label = description + ", " + status + " by " + order + " limit " + limit;
+					held.ifPresent(products -> assertThat(products.stream().map(ProductResponse::id).toList())
+							.as("held %s", label).isEqualTo(expected));
+					assertThat(productService.getTop(status, order, limit).stream().map(ProductResponse::id).toList())
+							.as("served %s", label).isEqualTo(expected);
+				}
+			}
+		}
+	}
+
+	private static List<Long> ids(List<Product> products) {
+		return products.stream().map(Product::getId).toList();
+	}
+
+	private static ProductRequest request(Random random) {
+		return TestProducts.request(uniqueName(), price(random).toString(), random.nextInt(30), ProductStatus.ACTIVE);
+	}
+
+	private static BigDecimal price(Random random) {
+		// few distinct prices, so ties are broken by id
+		return BigDecimal.valueOf(random.nextInt(8) + 1);
+	}
+
+}
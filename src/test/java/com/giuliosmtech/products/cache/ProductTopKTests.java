@@ -0,0 +1,148 @@
+package com.giuliosmtech.products.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import com.giuliosmtech.products.dto.ProductResponse;
+import com.giuliosmtech.products.enums.ProductOrder;
+import com.giuliosmtech.products.enums.ProductStatus;
+
+class ProductTopKTests {
+
+	private final ProductTopK topK = new ProductTopK(3);
+
+	@Test
+	void emptyListNeedsAFill() {
+		assertThat(topK.first(ProductStatus.ACTIVE, ProductOrder.PRICE, 1)).isEmpty();
+	}
+
+	@Test
+	void completeFillAnswersAnyLimit() {
+		long generation = topK.generation(ProductStatus.ACTIVE, ProductOrder.PRICE);
+		topK.fill(ProductStatus.ACTIVE, ProductOrder.PRICE, generation, List.of(product(1, "1.00"), product(2, "2.00")), true);
+
+		assertThat(ids(topK.first(ProductStatus.ACTIVE, ProductOrder.PRICE, 1))).containsExactly(1L);
+		assertThat(ids(topK.first(ProductStatus.ACTIVE, ProductOrder.PRICE, 10))).containsExactly(1L, 2L);
+	}
+
+	@Test
+	void partialFillAnswersOnlyWhatItHolds() {
+		long generation = topK.generation(ProductStatus.ACTIVE, ProductOrder.PRICE);
+		topK.fill(ProductStatus.ACTIVE, ProductOrder.PRICE, generation,
+				List.of(product(1, "1.00"), product(2, "2.00"), product(3, "3.00"), product(4, "4.00")), false);
+
+		assertThat(ids(topK.first(ProductStatus.ACTIVE, ProductOrder.PRICE, 3))).containsExactly(1L, 2L, 3L);
+		assertThat(topK.first(ProductStatus.ACTIVE, ProductOrder.PRICE, 4)).isEmpty();
+	}
+
+	@Test
+	void fillRacingAChangeToItsListIsDiscarded() {
+		long generation = topK.generation(ProductStatus.ACTIVE, ProductOrder.PRICE);
+		topK.put(product(5, "0.50"), null);
+
+		topK.fill(ProductStatus.ACTIVE, ProductOrder.PRICE, generation, List.of(product(1, "1.00")), true);
+
+		assertThat(topK.first(ProductStatus.ACTIVE, ProductOrder.PRICE, 1)).isEmpty();
+	}
+
+	@Test
+	void fillIsKeptWhenOnlyOtherListsChanged() {
+		long generation = topK.generation(ProductStatus.BLOCKED, ProductOrder.PRICE);
+		topK.put(product(5, "0.50"), null);
+		topK.put(product(5, "0.60"), ProductStatus.ACTIVE);
+
+		topK.fill(ProductStatus.BLOCKED, ProductOrder.PRICE, generation, List.of(product(1, ProductStatus.BLOCKED, "1.00")), true);
+
+		assertThat(ids(topK.first(ProductStatus.BLOCKED, ProductOrder.PRICE, 5))).containsExactly(1L);
+	}
+
+	@Test
+	void statusChangeTouchesTheListsOfBothStatuses() {
+		long active = topK.generation(ProductStatus.ACTIVE, ProductOrder.STOCK);
+		long blocked = topK.generation(ProductStatus.BLOCKED, ProductOrder.STOCK);
+		long deleted = topK.generation(ProductStatus.DELETED, ProductOrder.STOCK);
+
+		topK.put(product(1, ProductStatus.BLOCKED, "1.00"), ProductStatus.ACTIVE);
+
+		assertThat(topK.generation(ProductStatus.ACTIVE, ProductOrder.STOCK)).isGreaterThan(active);
+		assertThat(topK.generation(ProductStatus.BLOCKED, ProductOrder.STOCK)).isGreaterThan(blocked);
+		assertThat(topK.generation(ProductStatus.DELETED, ProductOrder.STOCK)).isEqualTo(deleted);
+	}
+
+	@Test
+	void statusChangeMovesTheProductBetweenCompleteLists() {
+		fill(ProductStatus.ACTIVE, List.of(product(1, "1.00"), product(2, "2.00")), true);
+		fill(ProductStatus.BLOCKED, List.of(), true);
+
+		topK.put(product(1, ProductStatus.BLOCKED, "1.00"), ProductStatus.ACTIVE);
+
+		assertThat(ids(topK.first(ProductStatus.ACTIVE, ProductOrder.PRICE, 5))).containsExactly(2L);
+		assertThat(ids(topK.first(ProductStatus.BLOCKED, ProductOrder.PRICE, 5))).containsExactly(1L);
+	}
+
+	@Test
+	void partialListOnlyTakesProductsWithinItsPrefix() {
+		fill(ProductStatus.ACTIVE, List.of(product(1, "1.00"), product(2, "2.00"), product(3, "3.00")), false);
+
+		topK.put(product(4, "9.00"), null);
+		assertThat(ids(topK.first(ProductStatus.ACTIVE, ProductOrder.PRICE, 3))).containsExactly(1L, 2L, 3L);
+
+		topK.put(product(5, "1.50"), null);
+		assertThat(ids(topK.first(ProductStatus.ACTIVE, ProductOrder.PRICE, 3))).containsExactly(1L, 5L, 2L);
+
+		// product 1 now sorts after the last one held, where an unseen product may precede it
+		topK.put(product(1, "5.00"), ProductStatus.ACTIVE);
+		assertThat(ids(topK.first(ProductStatus.ACTIVE, ProductOrder.PRICE, 2))).containsExactly(5L, 2L);
+		assertThat(topK.first(ProductStatus.ACTIVE, ProductOrder.PRICE, 3)).isEmpty();
+	}
+
+	@Test
+	void completeListDropsItsCompletenessWhenItOverflows() {
+		fill(ProductStatus.ACTIVE, List.of(product(1, "1.00"), product(2, "2.00"), product(3, "3.00")), true);
+
+		topK.put(product(4, "0.50"), null);
+
+		assertThat(ids(topK.first(ProductStatus.ACTIVE, ProductOrder.PRICE, 3))).containsExactly(4L, 1L, 2L);
+		assertThat(topK.first(ProductStatus.ACTIVE, ProductOrder.PRICE, 4)).isEmpty();
+	}
+
+	@Test
+	void removeAllAndInvalidate() {
+		fill(ProductStatus.ACTIVE, List.of(product(1, "1.00"), product(2, "2.00")), true);
+
+		topK.removeAll(ProductStatus.ACTIVE, List.of(1L));
+		assertThat(ids(topK.first(ProductStatus.ACTIVE, ProductOrder.PRICE, 5))).containsExactly(2L);
+
+		topK.invalidate(ProductStatus.ACTIVE);
+		assertThat(topK.first(ProductStatus.ACTIVE, ProductOrder.PRICE, 1)).isEmpty();
+	}
+
+	private void fill(ProductStatus status, List<ProductResponse> products, boolean complete) {
+		topK.fill(status, ProductOrder.PRICE, topK.generation(status, ProductOrder.PRICE), products, complete);
+	}
+
+	private static ProductResponse product(long id, String price) {
+		return product(id, ProductStatus.ACTIVE, price);
+	}
+
+	private static ProductResponse product(long id, ProductStatus status, String price) {
+		return ProductResponse.builder()
+				.id(id)
+				.name("Product " + id)
+				.price(new BigDecimal(price))
+				.stock(10)
+				.status(status)
+				.build();
+	}
+
+	private static List<Long> ids(Optional<List<ProductResponse>> products) {
+		assertThat(products).isPresent();
+		return products.get().stream().map(ProductResponse::id).toList();
+	}
+
+}
@@ -0,0 +1,183 @@
+package com.giuliosmtech.products.config;
+
+import static com.giuliosmtech.products.TestProducts.request;
+import static com.giuliosmtech.products.TestProducts.uniqueName;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Runs the application with the virtual-threads profile behind a real server, and checks
+ * that REST and GraphQL requests reach the service on virtual threads, and that far more
+ * concurrent requests than pooled connections never hold more connections than the pool.
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+		"spring.datasource.url=jdbc:h2:mem:virtualrequests",
+		"spring.datasource.hikari.maximum-pool-size=3"
+})
+@ActiveProfiles("virtual-threads")
+@Import(VirtualThreadRequestsTests.ServiceThreadsConfiguration.class)
+class VirtualThreadRequestsTests {
+
+	private static final int POOL_SIZE = 3;
+
+	private static final int CONCURRENT_REQUESTS = 200;
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private HikariDataSource dataSource;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private ServiceThreads serviceThreads;
+
+	private final HttpClient client = HttpClient.newHttpClient();
+
+	@BeforeEach
+	void clearServiceThreads() {
+		serviceThreads.calls.clear();
+	}
+
+	@Test
+	void restRequestsReachTheServiceOnVirtualThreads() throws Exception {
+		HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/api/v1/products?limit=1")).build(),
+				HttpResponse.BodyHandlers.ofString());
+
+		assertThat(response.statusCode()).isEqualTo(200);
+		assertThat(serviceThreads.calls.get("getPage")).containsExactly(true);
+	}
+
+	@Test
+	void graphQlMutationsReachTheServiceOnVirtualThreads() throws Exception {
+		String query = "mutation { createProduct(input: {name: \"" + uniqueName() + "\", price: 1.5, stock: 2}) { id } }";
+
+		HttpResponse<String> response = client.send(graphQl(query), HttpResponse.BodyHandlers.ofString());
+
+		assertThat(response.statusCode()).isEqualTo(200);
+		assertThat(response.body()).doesNotContain("errors");
+		assertThat(serviceThreads.calls.get("create")).containsExactly(true);
+	}
+
+	@Test
+	void concurrentRequestsNeverHoldMoreConnectionsThanThePool() throws Exception {
+		AtomicBoolean running = new AtomicBoolean(true);
+		AtomicInteger peak = new AtomicInteger();
+		Thread sampler = Thread.ofPlatform().start(() -> {
+			while (running.get()) {
+				peak.accumulateAndGet(dataSource.getHikariPoolMXBean().getActiveConnections(), Math::max);
+				Thread.onSpinWait();
+			}
+		});
+		List<Integer> statuses;
+		try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+			List<CompletableFuture<Integer>> calls = IntStream.range(0, CONCURRENT_REQUESTS)
+					.mapToObj(i -> CompletableFuture.supplyAsync(() -> create(i), callers))
+					.toList();
+			statuses = calls.stream().map(CompletableFuture::join).toList();
+		} finally {
+			running.set(false);
+			sampler.join();
+		}
+
+		assertThat(statuses).hasSize(CONCURRENT_REQUESTS).containsOnly(200);
+		assertThat(peak.get()).isBetween(1, POOL_SIZE);
+		assertThat(serviceThreads.calls.get("create")).containsExactly(true);
+	}
+
+	/**
+	 * Creates a product over REST, alternating with GraphQL.
+	 * @param i the number of the call
+	 * @return the HTTP status, or 500 for a GraphQL response carrying errors
+	 */
+	private int create(int i) {
+		try {
+			if (i % 2 == 0) {
+				HttpRequest request = HttpRequest.newBuilder(uri("/api/v1/products"))
+						.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+						.POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(request(uniqueName()))))
+						.build();
+				return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+			}
+			String query = "mutation { createProduct(input: {name: \"" + uniqueName() + "\", price: 1.5, stock: 2}) { id } }";
+			HttpResponse<String> response = client.send(graphQl(query), HttpResponse.BodyHandlers.ofString());
+			return response.body().contains("errors") ? 500 : response.statusCode();
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private HttpRequest graphQl(String query) throws Exception {
+		return HttpRequest.newBuilder(uri("/graphql"))
+				.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+				.POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(Map.of("query", query))))
+				.build();
+	}
+
+	private URI uri(String path) {
+		return URI.create("http://localhost:" + port + path);
+	}
+
+	/**
+	 * Records, for each service method called, whether its calls ran on virtual threads, platform threads or both.
+	 */
+	@Aspect
+	static class ServiceThreads {
+
+		private final Map<String, Set<Boolean>> calls = new ConcurrentHashMap<>();
+
+		@Around("execution(* com.giuliosmtech.products.service.ProductService.*(..))")
+		Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+			calls.computeIfAbsent(joinPoint.getSignature().getName(), name -> ConcurrentHashMap.newKeySet())
+					.add(Thread.currentThread().isVirtual());
+			return joinPoint.proceed();
+		}
+
+	}
+
+	@TestConfiguration(proxyBeanMethods = false)
+	static class ServiceThreadsConfiguration {
+
+		@Bean
+		ServiceThreads serviceThreads() {
+			return new ServiceThreads();
+		}
+
+	}
+
+}
@@ -0,0 +1,64 @@
+package com.giuliosmtech.products.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Checks that under virtual threads JDBC concurrency is capped by the Hikari pool alone,
+ * which stays visible to the pool metrics.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:virtualthreads",
+		"spring.threads.virtual.enabled=true",
+		"spring.datasource.hikari.maximum-pool-size=3",
+		"spring.datasource.hikari.connection-timeout=250"
+})
+class VirtualThreadsDataSourceTests {
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void dataSourceIsThePoolWithItsMetrics() {
+		assertThat(dataSource).isInstanceOf(HikariDataSource.class);
+		assertThat(meterRegistry.find("hikaricp.connections.max").gauge()).isNotNull()
+				.satisfies(gauge -> assertThat(gauge.value()).isEqualTo(3));
+	}
+
+	@Test
+	void checkoutsBeyondThePoolSizeTimeOut() throws Exception {
+		List<Connection> held = new ArrayList<>();
+		try {
+			for (int i = 0; i < 3; i++) {
+				held.add(dataSource.getConnection());
+			}
+			assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+		} finally {
+			for (Connection connection : held) {
+				connection.close();
+			}
+		}
+		try (Connection connection = dataSource.getConnection()) {
+			assertThat(connection.isValid(1)).isTrue();
+		}
+	}
+
+}
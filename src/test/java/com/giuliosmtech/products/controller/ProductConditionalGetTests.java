@@ -0,0 +1,129 @@
+package com.giuliosmtech.products.controller;
+
+import static com.giuliosmtech.products.TestProducts.request;
+import static com.giuliosmtech.products.TestProducts.uniqueName;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.giuliosmtech.products.dto.ProductResponse;
+import com.giuliosmtech.products.service.ProductService;
+
+/**
+ * Checks that product and listing GETs answer 304 while the ETag or modification time the
+ * client holds is current, and a full response once the product or the catalog changed.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProductConditionalGetTests {
+
+	private static final String PRODUCTS = "/api/v1/products";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private ProductService productService;
+
+	@Test
+	void getByIdAnswersNotModifiedWhileTheProductIsUnchanged() throws Exception {
+		ProductResponse product = productService.create(request(uniqueName()));
+		MockHttpServletResponse response = mockMvc.perform(get(PRODUCTS + "/{id}", product.id()))
+				.andExpect(status().isOk())
+				.andReturn().getResponse();
+		String eTag = response.getHeader(HttpHeaders.ETAG);
+
+		mockMvc.perform(get(PRODUCTS + "/{id}", product.id()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+				.andExpect(status().isNotModified())
+				.andExpect(content().string(""));
+		mockMvc.perform(get(PRODUCTS + "/{id}", product.id())
+				.header(HttpHeaders.IF_MODIFIED_SINCE, response.getHeader(HttpHeaders.LAST_MODIFIED)))
+				.andExpect(status().isNotModified());
+	}
+
+	@Test
+	void getByIdETagChangesAfterAMutation() throws Exception {
+		ProductResponse product = productService.create(request(uniqueName()));
+		String eTag = mockMvc.perform(get(PRODUCTS + "/{id}", product.id()))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		mockMvc.perform(put(PRODUCTS + "/{id}", product.id())
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(request(product.name(), product.stock() + 1))))
+				.andExpect(status().isOk());
+
+		String changed = mockMvc.perform(get(PRODUCTS + "/{id}", product.id()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.stock").value(product.stock() + 1))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertThat(changed).isNotNull().isNotEqualTo(eTag);
+	}
+
+	@Test
+	void conditionalGetOfMissingProductReturnsNotFound() throws Exception {
+		mockMvc.perform(get(PRODUCTS + "/{id}", Long.MAX_VALUE).header(HttpHeaders.IF_NONE_MATCH, "\"1-0\""))
+				.andExpect(status().isNotFound());
+	}
+
+	@Test
+	void listingsAnswerNotModifiedUntilTheCatalogChanges() throws Exception {
+		List<String> listings = List.of(PRODUCTS, PRODUCTS + "/active", PRODUCTS + "/status/ACTIVE");
+		productService.create(request(uniqueName()));
+		List<String> eTags = listings.stream().map(this::eTagOf).toList();
+
+		for (int i = 0; i < listings.size(); i++) {
+			mockMvc.perform(get(listings.get(i)).header(HttpHeaders.IF_NONE_MATCH, eTags.get(i)))
+					.andExpect(status().isNotModified());
+		}
+
+		productService.create(request(uniqueName()));
+
+		for (int i = 0; i < listings.size(); i++) {
+			String changed = mockMvc.perform(get(listings.get(i)).header(HttpHeaders.IF_NONE_MATCH, eTags.get(i)))
+					.andExpect(status().isOk())
+					.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+			assertThat(changed).as(listings.get(i)).isNotNull().isNotEqualTo(eTags.get(i));
+		}
+	}
+
+	@Test
+	void statusListingIgnoresChangesToOtherStatuses() throws Exception {
+		String eTag = eTagOf(PRODUCTS + "/status/BLOCKED");
+
+		productService.create(request(uniqueName()));
+
+		mockMvc.perform(get(PRODUCTS + "/status/BLOCKED").header(HttpHeaders.IF_NONE_MATCH, eTag))
+				.andExpect(status().isNotModified());
+	}
+
+	private String eTagOf(String url) {
+		try {
+			String eTag = mockMvc.perform(get(url))
+					.andExpect(status().isOk())
+					.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+			assertThat(eTag).as(url).isNotNull();
+			return eTag;
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
@@ -0,0 +1,130 @@
+package com.giuliosmtech.products.controller;
+
+import static com.giuliosmtech.products.TestProducts.request;
+import static com.giuliosmtech.products.TestProducts.uniqueName;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.giuliosmtech.products.dto.ProductResponse;
+import com.giuliosmtech.products.service.ProductService;
+
+/**
+ * Checks that a PUT carrying If-Match only applies while the product is at a version the
+ * header names, and answers 412 otherwise.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProductConditionalUpdateTests {
+
+	private static final String PRODUCTS = "/api/v1/products";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private ProductService productService;
+
+	@Test
+	void updateWithStaleIfMatchKeepsConcurrentStockChange() throws Exception {
+		ProductResponse product = productService.create(request(uniqueName()));
+		String eTag = eTagOf(product);
+
+		productService.adjustStock(product.id(), 5);
+
+		mockMvc.perform(put(PRODUCTS + "/{id}", product.id())
+				.header(HttpHeaders.IF_MATCH, eTag)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(request(product.name()))))
+				.andExpect(status().isPreconditionFailed());
+
+		assertThat(productService.getById(product.id()).orElseThrow().stock()).isEqualTo(product.stock() + 5);
+	}
+
+	@Test
+	void updateWithCurrentIfMatchSucceeds() throws Exception {
+		ProductResponse product = productService.create(request(uniqueName()));
+		String eTag = eTagOf(product);
+
+		mockMvc.perform(put(PRODUCTS + "/{id}", product.id())
+				.header(HttpHeaders.IF_MATCH, eTag)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(request(product.name(), 3))))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.stock").value(3))
+				.andExpect(header().string(HttpHeaders.ETAG, "\"" + product.id() + "-" + (product.version() + 1) + "\""));
+	}
+
+	@Test
+	void updateWithIfMatchListingTheCurrentETagSucceeds() throws Exception {
+		ProductResponse product = productService.create(request(uniqueName()));
+		String stale = eTagOf(product);
+		productService.adjustStock(product.id(), 5);
+		String current = eTagOf(product);
+
+		mockMvc.perform(put(PRODUCTS + "/{id}", product.id())
+				.header(HttpHeaders.IF_MATCH, "\"" + (product.id() + 1) + "-0\", " + stale + ",W/" + current + ", " + current)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(request(product.name(), 3))))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.stock").value(3));
+	}
+
+	@Test
+	void updateWithIfMatchListingOnlyStaleETagsFailsItsPrecondition() throws Exception {
+		ProductResponse product = productService.create(request(uniqueName()));
+		String stale = eTagOf(product);
+		productService.adjustStock(product.id(), 5);
+
+		mockMvc.perform(put(PRODUCTS + "/{id}", product.id())
+				.header(HttpHeaders.IF_MATCH, stale + ", \"" + (product.id() + 1) + "-" + (product.version() + 1) + "\"")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(request(product.name(), 3))))
+				.andExpect(status().isPreconditionFailed());
+	}
+
+	@Test
+	void updateWithETagOfAnotherProductFailsItsPrecondition() throws Exception {
+		ProductResponse product = productService.create(request(uniqueName()));
+
+		mockMvc.perform(put(PRODUCTS + "/{id}", product.id())
+				.header(HttpHeaders.IF_MATCH, "\"" + (product.id() + 1) + "-" + product.version() + "\"")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(request(product.name()))))
+				.andExpect(status().isPreconditionFailed());
+	}
+
+	@Test
+	void updateWithAnyIfMatchSucceeds() throws Exception {
+		ProductResponse product = productService.create(request(uniqueName()));
+		productService.adjustStock(product.id(), 5);
+
+		mockMvc.perform(put(PRODUCTS + "/{id}", product.id())
+				.header(HttpHeaders.IF_MATCH, "*")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(request(product.name(), 3))))
+				.andExpect(status().isOk());
+	}
+
+	private String eTagOf(ProductResponse product) throws Exception {
+		return mockMvc.perform(get(PRODUCTS + "/{id}", product.id()))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+	}
+
+}
@@ -0,0 +1,103 @@
+package com.giuliosmtech.products.controller;
+
+import static com.giuliosmtech.products.TestProducts.request;
+import static com.giuliosmtech.products.TestProducts.uniqueName;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.giuliosmtech.products.dto.ProductResponse;
+import com.giuliosmtech.products.exceptions.ProductAlreadyExistError;
+import com.giuliosmtech.products.service.ProductService;
+
+/**
+ * Checks how the REST API reports names already in use and missing products.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProductControllerTests {
+
+	private static final String PRODUCTS = "/api/v1/products";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private ProductService productService;
+
+	@Test
+	void createWithNameInUseReturnsConflict() throws Exception {
+		ProductResponse product = productService.create(request(uniqueName()));
+
+		mockMvc.perform(post(PRODUCTS)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(request(product.name()))))
+				.andExpect(status().isConflict())
+				.andExpect(jsonPath("$.message").exists());
+	}
+
+	@Test
+	void concurrentCreatesOfOneNameCreateOneProduct() {
+		String name = uniqueName();
+		CyclicBarrier start = new CyclicBarrier(4);
+		List<CompletableFuture<ProductResponse>> creates = IntStream.range(0, 4)
+				.mapToObj(i -> CompletableFuture.supplyAsync(() -> {
+					try {
+						start.await();
+					} catch (Exception e) {
+						throw new IllegalStateException(e);
+					}
+					return productService.create(request(name));
+				}))
+				.toList();
+
+		List<Throwable> failures = creates.stream()
+				.map(create -> create.handle((product, failure) -> failure))
+				.map(CompletableFuture::join)
+				.filter(failure -> failure != null)
+				.map(Throwable::getCause)
+				.toList();
+
+		assertThat(failures).hasSize(3).allMatch(ProductAlreadyExistError.class::isInstance);
+		assertThat(productService.getByName(name)).hasSize(1);
+	}
+
+	@Test
+	void updateToNameInUseReturnsConflict() throws Exception {
+		ProductResponse first = productService.create(request(uniqueName()));
+		ProductResponse second = productService.create(request(uniqueName()));
+
+		mockMvc.perform(put(PRODUCTS + "/{id}", second.id())
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(request(first.name()))))
+				.andExpect(status().isConflict())
+				.andExpect(jsonPath("$.message").exists());
+	}
+
+	@Test
+	void updateOfMissingProductReturnsNotFound() throws Exception {
+		mockMvc.perform(put(PRODUCTS + "/{id}", Long.MAX_VALUE)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(request(uniqueName()))))
+				.andExpect(status().isNotFound());
+	}
+
+}
@@ -0,0 +1,113 @@
+package com.giuliosmtech.products.controller;
+
+import static com.giuliosmtech.products.TestProducts.request;
+import static com.giuliosmtech.products.TestProducts.uniqueName;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.graphql.test.tester.GraphQlTester;
+
+import com.giuliosmtech.products.dto.ProductResponse;
+import com.giuliosmtech.products.service.ProductService;
+
+/**
+ * Checks that every product-by-id lookup of a GraphQL operation, aliased fields and
+ * productsByIds included, reaches the service as a single getByIds call.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:dataloader")
+@AutoConfigureGraphQlTester
+@Import(ProductDataLoaderTests.GetByIdsCallsConfiguration.class)
+class ProductDataLoaderTests {
+
+	@Autowired
+	private GraphQlTester graphQlTester;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private GetByIdsCalls getByIdsCalls;
+
+	@BeforeEach
+	void clearCalls() {
+		getByIdsCalls.ids.clear();
+	}
+
+	@Test
+	void lookupsOfOneOperationShareOneGetByIdsCall() {
+		ProductResponse first = productService.create(request(uniqueName()));
+		ProductResponse second = productService.create(request(uniqueName()));
+		ProductResponse third = productService.create(request(uniqueName()));
+		long missing = Long.MAX_VALUE;
+
+		GraphQlTester.Response response = graphQlTester.document("{"
+				+ " a: product(id: " + first.id() + ") { name }"
+				+ " b: product(id: " + second.id() + ") { name }"
+				+ " c: product(id: " + first.id() + ") { id }"
+				+ " many: productsByIds(ids: [" + first.id() + ", " + third.id() + ", " + missing + "]) { id } }")
+				.execute();
+
+		response.path("a.name").entity(String.class).isEqualTo(first.name());
+		response.path("b.name").entity(String.class).isEqualTo(second.name());
+		response.path("c.id").entity(Long.class).isEqualTo(first.id());
+		response.path("many[0].id").entity(Long.class).isEqualTo(first.id());
+		response.path("many[1].id").entity(Long.class).isEqualTo(third.id());
+		response.path("many[2]").valueIsNull();
+		assertThat(getByIdsCalls.ids).hasSize(1);
+		assertThat(Set.copyOf(getByIdsCalls.ids.get(0)))
+				.containsExactlyInAnyOrder(first.id(), second.id(), third.id(), missing);
+	}
+
+	@Test
+	void eachOperationMakesItsOwnGetByIdsCall() {
+		ProductResponse product = productService.create(request(uniqueName()));
+		String document = "{ product(id: " + product.id() + ") { name } }";
+
+		graphQlTester.document(document).execute().path("product.name").entity(String.class).isEqualTo(product.name());
+		graphQlTester.document(document).execute().path("product.name").entity(String.class).isEqualTo(product.name());
+
+		assertThat(getByIdsCalls.ids).hasSize(2);
+	}
+
+	/**
+	 * Records the ids of every getByIds call made to the service.
+	 */
+	@Aspect
+	static class GetByIdsCalls {
+
+		private final List<Collection<Long>> ids = new CopyOnWriteArrayList<>();
+
+		@Around("execution(* com.giuliosmtech.products.service.ProductService.getByIds(..)) && args(ids)")
+		Object record(ProceedingJoinPoint joinPoint, Collection<Long> ids) throws Throwable {
+			this.ids.add(List.copyOf(ids));
+			return joinPoint.proceed();
+		}
+
+	}
+
+	@TestConfiguration(proxyBeanMethods = false)
+	static class GetByIdsCallsConfiguration {
+
+		@Bean
+		GetByIdsCalls getByIdsCalls() {
+			return new GetByIdsCalls();
+		}
+
+	}
+
+}
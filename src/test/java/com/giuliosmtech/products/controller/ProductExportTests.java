@@ -0,0 +1,110 @@
+package com.giuliosmtech.products.controller;
+
+import static com.giuliosmtech.products.TestProducts.request;
+import static com.giuliosmtech.products.TestProducts.uniqueName;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.giuliosmtech.products.dto.ProductResponse;
+import com.giuliosmtech.products.enums.ProductStatus;
+import com.giuliosmtech.products.service.ProductService;
+
+/**
+ * Checks the NDJSON export against the catalog. The context has a database of its own, and a
+ * fetch size smaller than the catalog so the export reads the cursor in several fetches.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:export",
+		"products.export.fetch-size=2"
+})
+@AutoConfigureMockMvc
+class ProductExportTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private ProductService productService;
+
+	@BeforeEach
+	void createProducts() {
+		for (int i = 0; i < 5; i++) {
+			productService.create(request(uniqueName()));
+		}
+		ProductResponse blocked = productService.create(request(uniqueName()));
+		productService.update(blocked.id(), request(blocked.name(), "9.99", 10, ProductStatus.BLOCKED), null);
+	}
+
+	@Test
+	void exportWritesEveryProductAsOneJsonLineInIdOrder() throws Exception {
+		List<ProductResponse> exported = export("/api/v1/products/export");
+
+		assertThat(exported).extracting(ProductResponse::id, ProductResponse::name, ProductResponse::status)
+				.isEqualTo(productService.getAll().stream()
+						.sorted(Comparator.comparing(ProductResponse::id))
+						.map(product -> tuple(product.id(), product.name(), product.status()))
+						.toList());
+	}
+
+	@Test
+	void exportWithStatusWritesOnlyProductsInThatStatus() throws Exception {
+		List<ProductResponse> exported = export("/api/v1/products/export?status=BLOCKED");
+
+		assertThat(exported).isNotEmpty()
+				.allMatch(product -> product.status() == ProductStatus.BLOCKED);
+		assertThat(exported).extracting(ProductResponse::id)
+				.isEqualTo(productService.getByStatus(ProductStatus.BLOCKED).stream()
+						.map(ProductResponse::id)
+						.sorted()
+						.toList());
+	}
+
+	@Test
+	void exportCountsTheProductsItHandsOver() {
+		List<ProductResponse> exported = new ArrayList<>();
+
+		long count = productService.export(null, exported::add);
+
+		assertThat(count).isEqualTo(exported.size()).isEqualTo(productService.getAll().size());
+	}
+
+	private List<ProductResponse> export(String url) throws Exception {
+		MvcResult started = mockMvc.perform(get(url))
+				.andExpect(MockMvcResultMatchers.request().asyncStarted())
+				.andReturn();
+		String body = mockMvc.perform(asyncDispatch(started))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+				.andReturn().getResponse().getContentAsString();
+
+		assertThat(body).endsWith("\n");
+		List<ProductResponse> products = new ArrayList<>();
+		for (String line : body.split("\n")) {
+			products.add(objectMapper.readValue(line, ProductResponse.class));
+		}
+		return products;
+	}
+
+}
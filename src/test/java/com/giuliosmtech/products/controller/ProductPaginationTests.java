@@ -0,0 +1,153 @@
+package com.giuliosmtech.products.controller;
+
+import static com.giuliosmtech.products.TestProducts.request;
+import static com.giuliosmtech.products.TestProducts.uniqueName;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.giuliosmtech.products.dto.ProductConnection;
+import com.giuliosmtech.products.dto.ProductEdge;
+import com.giuliosmtech.products.dto.ProductResponse;
+import com.giuliosmtech.products.enums.ProductStatus;
+import com.giuliosmtech.products.service.ProductService;
+
+/**
+ * Walks keyset pages over REST and GraphQL. The context has a database of its own, so a walk
+ * from the first page covers exactly the products these tests created.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:pagination",
+		"products.pagination.max-page-size=3"
+})
+@AutoConfigureMockMvc
+@AutoConfigureGraphQlTester
+class ProductPaginationTests {
+
+	private static final String PRODUCTS = "/api/v1/products";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private GraphQlTester graphQlTester;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private ProductService productService;
+
+	@Test
+	void restPagesWalkTheCatalogInIdOrder() throws Exception {
+		createProducts(5);
+
+		List<Long> ids = new ArrayList<>();
+		String after = null;
+		ProductConnection page;
+		do {
+			page = restPage("?limit=2" + (after == null ? "" : "&after=" + after));
+			assertThat(page.pageInfo().hasPreviousPage()).isEqualTo(after != null);
+			if (page.pageInfo().hasNextPage()) {
+				assertThat(page.edges()).hasSize(2);
+			}
+			page.edges().forEach(edge -> ids.add(edge.node().id()));
+			after = page.pageInfo().endCursor();
+		} while (page.pageInfo().hasNextPage());
+
+		assertThat(ids).isEqualTo(allIds());
+	}
+
+	@Test
+	void graphQlPagesWalkTheCatalogInIdOrder() {
+		createProducts(5);
+
+		List<Long> ids = new ArrayList<>();
+		String after = null;
+		boolean hasNextPage;
+		do {
+			GraphQlTester.Response response = graphQlTester
+					.document("query($after: String) { productsConnection(first: 2, after: $after) {"
+							+ " edges { cursor node { id } } pageInfo { hasNextPage endCursor } } }")
+					.variable("after", after)
+					.execute();
+			List<String> pageIds = response.path("productsConnection.edges[*].node.id").entityList(String.class).get();
+			List<String> cursors = response.path("productsConnection.edges[*].cursor").entityList(String.class).get();
+			hasNextPage = response.path("productsConnection.pageInfo.hasNextPage").entity(Boolean.class).get();
+			after = response.path("productsConnection.pageInfo.endCursor").entity(String.class).get();
+
+			assertThat(pageIds).hasSize(hasNextPage ? 2 : pageIds.size());
+			assertThat(after).isEqualTo(cursors.get(cursors.size() - 1));
+			pageIds.forEach(id -> ids.add(Long.valueOf(id)));
+		} while (hasNextPage);
+
+		assertThat(ids).isEqualTo(allIds());
+	}
+
+	@Test
+	void statusPagesHoldOnlyProductsInThatStatus() {
+		List<ProductResponse> products = createProducts(3);
+		ProductResponse blocked = products.get(1);
+		productService.update(blocked.id(), request(blocked.name(), "9.99", 10, ProductStatus.BLOCKED), null);
+
+		List<ProductEdge> blockedEdges = productService.getPage(ProductStatus.BLOCKED, 3, null).edges();
+		List<ProductEdge> activeEdges = productService.getPage(ProductStatus.ACTIVE, 3, null).edges();
+
+		assertThat(blockedEdges).extracting(edge -> edge.node().id()).contains(blocked.id());
+		assertThat(blockedEdges).allMatch(edge -> edge.node().status() == ProductStatus.BLOCKED);
+		assertThat(activeEdges).isNotEmpty().allMatch(edge -> edge.node().status() == ProductStatus.ACTIVE);
+	}
+
+	@Test
+	void pageSizeIsCappedAtTheConfiguredMaximum() throws Exception {
+		createProducts(4);
+
+		ProductConnection page = restPage("?limit=50");
+
+		assertThat(page.edges()).hasSize(3);
+		assertThat(page.pageInfo().hasNextPage()).isTrue();
+	}
+
+	@Test
+	void invalidPageSizeOrCursorIsRejected() throws Exception {
+		mockMvc.perform(get(PRODUCTS).param("limit", "0"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(get(PRODUCTS).param("after", "not a cursor"))
+				.andExpect(status().isBadRequest());
+	}
+
+	private List<ProductResponse> createProducts(int count) {
+		List<ProductResponse> products = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			products.add(productService.create(request(uniqueName())));
+		}
+		return products;
+	}
+
+	private ProductConnection restPage(String query) throws Exception {
+		String body = mockMvc.perform(get(PRODUCTS + query))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readValue(body, ProductConnection.class);
+	}
+
+	private List<Long> allIds() {
+		return productService.getAll().stream()
+				.map(ProductResponse::id)
+				.sorted()
+				.toList();
+	}
+
+}
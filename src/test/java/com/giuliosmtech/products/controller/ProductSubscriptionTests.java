@@ -0,0 +1,109 @@
+package com.giuliosmtech.products.controller;
+
+import static com.giuliosmtech.products.TestProducts.request;
+import static com.giuliosmtech.products.TestProducts.uniqueName;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.graphql.test.tester.GraphQlTester;
+
+import com.giuliosmtech.products.dto.ProductResponse;
+import com.giuliosmtech.products.enums.ProductStatus;
+import com.giuliosmtech.products.events.ProductChangeBus;
+import com.giuliosmtech.products.service.ProductService;
+
+/**
+ * Checks that productChanged subscribers receive the committed changes matching their
+ * filters, in commit order, and nothing else. Each test ends with a change the subscriber
+ * does receive, so a change that slipped through a filter would show up before it.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:subscriptions")
+@AutoConfigureGraphQlTester
+class ProductSubscriptionTests {
+
+	@Autowired
+	private GraphQlTester graphQlTester;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ProductChangeBus productChangeBus;
+
+	@Test
+	void idFilterDeliversOnlyChangesOfThoseProducts() throws Exception {
+		ProductResponse watched = productService.create(request(uniqueName()));
+		ProductResponse other = productService.create(request(uniqueName()));
+		CompletableFuture<List<ProductResponse>> received = subscribe(
+				"subscription { productChanged(ids: [" + watched.id() + "]) { id stock status } }", 1);
+
+		productService.update(other.id(), request(other.name(), 1), null);
+		productService.update(watched.id(), request(watched.name(), 2), null);
+
+		assertThat(received.get(10, TimeUnit.SECONDS))
+				.extracting(ProductResponse::id, ProductResponse::stock)
+				.containsExactly(tuple(watched.id(), 2));
+	}
+
+	@Test
+	void statusFilterDeliversChangesIntoAndOutOfThatStatus() throws Exception {
+		ProductResponse moved = productService.create(request(uniqueName()));
+		ProductResponse active = productService.create(request(uniqueName()));
+		CompletableFuture<List<ProductResponse>> received = subscribe("subscription { productChanged(ids: ["
+				+ moved.id() + ", " + active.id() + "], status: BLOCKED) { id stock status } }", 2);
+
+		productService.update(moved.id(), request(moved.name(), "9.99", 10, ProductStatus.BLOCKED), null);
+		productService.update(active.id(), request(active.name(), 3), null);
+		productService.update(moved.id(), request(moved.name(), 4), null);
+
+		assertThat(received.get(10, TimeUnit.SECONDS))
+				.extracting(ProductResponse::id, ProductResponse::status)
+				.containsExactly(
+						tuple(moved.id(), ProductStatus.BLOCKED),
+						tuple(moved.id(), ProductStatus.ACTIVE));
+	}
+
+	@Test
+	void subscriptionWithoutFiltersDeliversCreatesAndDeletes() throws Exception {
+		CompletableFuture<List<ProductResponse>> received = subscribe(
+				"subscription { productChanged { id name status } }", 2);
+
+		ProductResponse created = productService.create(request(uniqueName()));
+		productService.delete(created.id());
+
+		assertThat(received.get(10, TimeUnit.SECONDS))
+				.extracting(ProductResponse::id, ProductResponse::status)
+				.containsExactly(
+						tuple(created.id(), ProductStatus.ACTIVE),
+						tuple(created.id(), ProductStatus.DELETED));
+	}
+
+	/**
+	 * Subscribes and waits until the bus has the subscriber, so changes made afterwards reach it.
+	 * @param document the subscription document
+	 * @param count the number of changes to collect
+	 * @return the first changes received
+	 */
+	private CompletableFuture<List<ProductResponse>> subscribe(String document, int count) {
+		CompletableFuture<List<ProductResponse>> received = graphQlTester.document(document)
+				.executeSubscription()
+				.toFlux("productChanged", ProductResponse.class)
+				.take(count)
+				.timeout(Duration.ofSeconds(10))
+				.collectList()
+				.toFuture();
+		await().until(productChangeBus::hasSubscribers);
+		return received;
+	}
+
+}
@@ -0,0 +1,45 @@
+package com.giuliosmtech.products.graphql;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+class ClientCostBudgetsTests {
+
+	@Test
+	void budgetIsExhaustedThenRefilled() throws InterruptedException {
+		ClientCostBudgets budgets = new ClientCostBudgets(100, Duration.ofMillis(200));
+		assertTrue(budgets.tryConsume("client", 60));
+		assertFalse(budgets.tryConsume("client", 60), "Budget should be exhausted");
+		assertTrue(budgets.tryConsume("other", 60), "Budgets are per client");
+		Thread.sleep(250);
+		assertTrue(budgets.tryConsume("client", 100), "Budget should have refilled");
+	}
+
+	@Test
+	void refillIsCappedAtTheBudget() throws InterruptedException {
+		ClientCostBudgets budgets = new ClientCostBudgets(100, Duration.ofMillis(100));
+		Thread.sleep(250);
+		assertFalse(budgets.tryConsume("client", 101));
+		assertTrue(budgets.tryConsume("client", 100));
+	}
+
+	@Test
+	void negativeCostIsRejectedAndDoesNotRefill() {
+		ClientCostBudgets budgets = new ClientCostBudgets(100, Duration.ofHours(1));
+		assertTrue(budgets.tryConsume("client", 100));
+		assertFalse(budgets.tryConsume("client", -1_000_000));
+		assertFalse(budgets.tryConsume("client", 1), "A negative cost must not add to the budget");
+	}
+
+	@Test
+	void disabledBudgetAcceptsAnyNonNegativeCost() {
+		ClientCostBudgets budgets = new ClientCostBudgets(0, Duration.ofMinutes(1));
+		assertTrue(budgets.tryConsume("client", Long.MAX_VALUE));
+		assertFalse(budgets.tryConsume("client", -1));
+	}
+
+}
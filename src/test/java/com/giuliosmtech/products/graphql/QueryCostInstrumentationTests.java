@@ -0,0 +1,83 @@
+package com.giuliosmtech.products.graphql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.graphql.ResponseError;
+import org.springframework.graphql.test.tester.GraphQlTester;
+
+/**
+ * Checks the cost computed for GraphQL documents. With a maximum cost of 0 every document
+ * is rejected before any resolver runs, and the error reports the cost it was given.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:querycost",
+		"products.graphql.cost.max-cost=0"
+})
+@AutoConfigureGraphQlTester
+class QueryCostInstrumentationTests {
+
+	@Autowired
+	private GraphQlTester graphQlTester;
+
+	@Test
+	void listFieldCostsItsConfiguredSize() {
+		assertEquals(1000, costOf("{ activeProducts { id name } }"));
+	}
+
+	@Test
+	void limitArgumentSetsListSize() {
+		assertEquals(5, costOf("{ activeProducts(limit: 5) { id } }"));
+	}
+
+	@Test
+	void nestedListsMultiplyByTheirSizes() {
+		// connection 1 + edges 5 x (edge 1 + node 1) + pageInfo 1
+		assertEquals(12, costOf("{ productsConnection(first: 5) { edges { cursor node { id name } } pageInfo { hasNextPage } } }"));
+		// catalogStats 1 + byStatus 3 + priceHistogram 8
+		assertEquals(12, costOf("{ catalogStats { total byStatus { count } priceHistogram { count } } }"));
+	}
+
+	@Test
+	void listArgumentSetsListSize() {
+		assertEquals(3, costOf("{ productsByIds(ids: [1, 2, 3]) { id } }"));
+	}
+
+	@Test
+	void aliasedFieldsAreEachCounted() {
+		assertEquals(2000, costOf("{ a: activeProducts { id } b: activeProducts { id } }"));
+	}
+
+	@Test
+	void zeroOrNegativeSizesCountAsOne() {
+		assertEquals(1, costOf("{ activeProducts(limit: 0) { id } }"));
+		assertEquals(1, costOf("{ activeProducts(limit: -1000000) { id } }"));
+		assertEquals(1, costOf("{ productsByIds(ids: []) { id } }"));
+		assertEquals(4, costOf("{ productsConnection(first: -50) { edges { node { id } } pageInfo { hasNextPage } } }"));
+	}
+
+	@Test
+	void negativeSizeCannotOffsetAnotherField() {
+		assertEquals(1001, costOf("{ cheap: activeProducts(limit: -1000000) { id } expensive: products(status: ACTIVE) { id } }"));
+	}
+
+	private long costOf(String document) {
+		List<ResponseError> errors = new ArrayList<>();
+		graphQlTester.document(document)
+				.execute()
+				.errors()
+				.satisfy(errors::addAll);
+		assertEquals(1, errors.size(), () -> "Expected one error, got " + errors);
+		ResponseError error = errors.get(0);
+		assertEquals("QUERY_TOO_COMPLEX", error.getErrorType().toString());
+		assertEquals("cost", error.getExtensions().get("limit"));
+		return ((Number) error.getExtensions().get("actual")).longValue();
+	}
+
+}
@@ -0,0 +1,66 @@
+package com.giuliosmtech.products.metrics;
+
+import static com.giuliosmtech.products.TestProducts.request;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.giuliosmtech.products.dto.ProductResponse;
+import com.giuliosmtech.products.enums.ProductStatus;
+import com.giuliosmtech.products.service.ProductService;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Checks which service results are recorded as result sizes.
+ */
+@SpringBootTest
+class ProductMetricsAspectTests {
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void productResultsRecordTheirSize() {
+		ProductResponse first = productService.create(request());
+		ProductResponse second = productService.create(request());
+		double before = totalAmount("getByIds");
+
+		productService.getByIds(List.of(first.id(), second.id()));
+
+		assertThat(totalAmount("getByIds") - before).isEqualTo(2);
+		assertThat(resultSize("create")).isNotNull();
+	}
+
+	@Test
+	void countsAndAggregatesRecordNoSize() {
+		ProductResponse product = productService.create(request());
+
+		productService.setStatus(List.of(product.id()), ProductStatus.BLOCKED);
+		productService.delete(product.id());
+		productService.getCatalogStats();
+
+		assertThat(resultSize("setStatus")).isNull();
+		assertThat(resultSize("delete")).isNull();
+		assertThat(resultSize("getCatalogStats")).isNull();
+		assertThat(meterRegistry.find("products.service").tag("method", "setStatus").timer()).isNotNull();
+	}
+
+	private DistributionSummary resultSize(String method) {
+		return meterRegistry.find("products.service.result.size").tag("method", method).summary();
+	}
+
+	private double totalAmount(String method) {
+		DistributionSummary summary = resultSize(method);
+		return summary == null ? 0 : summary.totalAmount();
+	}
+
+}
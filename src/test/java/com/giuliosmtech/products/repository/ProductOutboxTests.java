@@ -0,0 +1,174 @@
+package com.giuliosmtech.products.repository;
+
+import static com.giuliosmtech.products.TestProducts.request;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.giuliosmtech.products.dto.ProductChange;
+import com.giuliosmtech.products.dto.ProductChangeFeed;
+import com.giuliosmtech.products.exceptions.InvalidPaginationException;
+import com.giuliosmtech.products.outbox.InMemoryProductChangeSink;
+import com.giuliosmtech.products.outbox.ProductOutboxDrainer;
+import com.giuliosmtech.products.service.ProductService;
+
+/**
+ * Checks how the outbox drainer numbers, publishes and purges product changes, and how
+ * the change feed pages over them. The scheduled drain is pushed out of the way so each
+ * test drains explicitly; batches are small so a drain spans several of them.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:outbox",
+		"products.outbox.drain-interval=1h",
+		"products.outbox.batch-size=3",
+		"products.outbox.retained-changes=5"
+})
+class ProductOutboxTests {
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ProductOutboxRepository outboxRepository;
+
+	@Autowired
+	private ProductOutboxDrainer drainer;
+
+	@Autowired
+	private InMemoryProductChangeSink sink;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@BeforeEach
+	void drainEarlierChanges() {
+		drainer.drain();
+		sink.clear();
+	}
+
+	@Test
+	void positionsFollowCommitOrderWithoutGaps() throws Exception {
+		long start = outboxRepository.findMaxSequenceNumber().orElse(0L);
+		CountDownLatch written = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		// the first product's outbox row gets the lower id but commits last
+		CompletableFuture<Long> first = CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> {
+			Long id = productService.create(request()).id();
+			written.countDown();
+			await(release);
+			return id;
+		}));
+		assertThat(written.await(10, TimeUnit.SECONDS)).isTrue();
+		Long second = productService.create(request()).id();
+		Long third = productService.create(request()).id();
+
+		assertThat(drainer.drain()).isEqualTo(2);
+		release.countDown();
+		Long late = first.get(10, TimeUnit.SECONDS);
+		assertThat(drainer.drain()).isEqualTo(1);
+
+		List<ProductChange> changes = sink.changes();
+		assertThat(changes).extracting(ProductChange::productId).containsExactly(second, third, late);
+		assertThat(changes).extracting(ProductChange::sequenceNumber)
+				.containsExactly(start + 1, start + 2, start + 3);
+	}
+
+	@Test
+	void drainSpanningBatchesNumbersEveryChangeOnce() {
+		long start = outboxRepository.findMaxSequenceNumber().orElse(0L);
+		create(7);
+
+		assertThat(drainer.drain()).isEqualTo(7);
+
+		assertThat(sink.changes()).extracting(ProductChange::sequenceNumber)
+				.containsExactlyElementsOf(LongStream.rangeClosed(start + 1, start + 7).boxed().toList());
+		assertThat(outboxRepository.findBySequenceNumberIsNullOrderByIdAsc(Limit.of(1))).isEmpty();
+	}
+
+	@Test
+	void purgeKeepsTheRetainedChanges() {
+		create(8);
+		drainer.drain();
+
+		long last = outboxRepository.findMaxSequenceNumber().orElseThrow();
+		assertThat(outboxRepository.findMinSequenceNumber()).contains(last - 4);
+		assertThat(outboxRepository.count()).isEqualTo(5);
+	}
+
+	@Test
+	void changesSinceRejectsACursorOncePurged() {
+		// a cursor at the start of the feed never expires, so hold one past a change
+		create(1);
+		drainer.drain();
+		String held = latestCursor();
+		create(3);
+		drainer.drain();
+
+		ProductChangeFeed feed = productService.getChangesSince(held, 10);
+		assertThat(feed.changes()).hasSize(3);
+
+		// two more positions purge the change right after the held cursor, but not after the new one
+		create(3);
+		drainer.drain();
+
+		assertThatThrownBy(() -> productService.getChangesSince(held, 10))
+				.isInstanceOf(InvalidPaginationException.class);
+		assertThat(productService.getChangesSince(feed.cursor(), 10).changes()).hasSize(3);
+	}
+
+	@Test
+	void changesSincePagesWithItsCursor() {
+		String cursor = latestCursor();
+		create(4);
+		drainer.drain();
+		long last = outboxRepository.findMaxSequenceNumber().orElseThrow();
+
+		ProductChangeFeed page = productService.getChangesSince(cursor, 3);
+		assertThat(page.changes()).extracting(ProductChange::sequenceNumber).containsExactly(last - 3, last - 2, last - 1);
+		assertThat(page.hasMore()).isTrue();
+
+		ProductChangeFeed next = productService.getChangesSince(page.cursor(), 3);
+		assertThat(next.changes()).extracting(ProductChange::sequenceNumber).containsExactly(last);
+		assertThat(next.hasMore()).isFalse();
+		assertThat(productService.getChangesSince(next.cursor(), 3).changes()).isEmpty();
+	}
+
+	/**
+	 * Reads the change feed to its end, the way a consumer catches up.
+	 * @return the cursor after the latest change
+	 */
+	private String latestCursor() {
+		ProductChangeFeed feed = productService.getChangesSince(null, 10);
+		while (feed.hasMore()) {
+			feed = productService.getChangesSince(feed.cursor(), 10);
+		}
+		return feed.cursor();
+	}
+
+	private void create(int count) {
+		for (int i = 0; i < count; i++) {
+			productService.create(request());
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
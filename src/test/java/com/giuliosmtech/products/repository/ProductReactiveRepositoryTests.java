@@ -0,0 +1,62 @@
+package com.giuliosmtech.products.repository;
+
+import static com.giuliosmtech.products.TestProducts.request;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.giuliosmtech.products.dto.ProductResponse;
+import com.giuliosmtech.products.entity.Product;
+import com.giuliosmtech.products.enums.ProductField;
+import com.giuliosmtech.products.service.ProductService;
+
+/**
+ * Checks that the R2DBC name search matches terms literally, like the JPA search does.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:reactive",
+		"products.r2dbc.url=r2dbc:h2:mem:///reactive",
+		"products.graphql.data-access=r2dbc"
+})
+class ProductReactiveRepositoryTests {
+
+	private static final Set<ProductField> FIELDS = EnumSet.of(ProductField.ID, ProductField.NAME);
+
+	@Autowired
+	private ProductReactiveRepository reactiveRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private ProductService productService;
+
+	@Test
+	void nameSearchMatchesWildcardsLiterally() {
+		String tag = UUID.randomUUID().toString().substring(0, 8);
+		for (String name : List.of("Sale 50% " + tag, "Sale 500 " + tag, "Snake_case " + tag, "Snakeycase " + tag,
+				"Back\\slash " + tag, "Backslash " + tag, "ÉCLAIR " + tag)) {
+			productService.create(request(name));
+		}
+
+		for (String term : List.of("50% " + tag, "e_c", "k\\s", "%", "_", "\\", "éclair " + tag, tag.toUpperCase())) {
+			List<Long> found = reactiveRepository.findFieldsByNameContainingIgnoreCase(FIELDS, term)
+					.map(ProductResponse::id)
+					.collectList()
+					.block();
+			assertThat(found).as("term %s", term)
+					.isEqualTo(productRepository.findByNameContainingIgnoreCase(term).stream().map(Product::getId).sorted().toList());
+		}
+		assertThat(reactiveRepository.findFieldsByNameContainingIgnoreCase(FIELDS, "50% " + tag).collectList().block())
+				.extracting(ProductResponse::name)
+				.containsExactly("Sale 50% " + tag);
+	}
+
+}
@@ -0,0 +1,423 @@
+package com.giuliosmtech.products.repository;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.giuliosmtech.products.dto.ProductFilter;
+import com.giuliosmtech.products.dto.ProductRequest;
+import com.giuliosmtech.products.enums.ProductField;
+import com.giuliosmtech.products.enums.ProductStatus;
+import com.giuliosmtech.products.service.ProductService;
+
+/**
+ * Runs {@code EXPLAIN} on H2 for the SQL issued by every query of {@link ProductRepository}
+ * and {@link ProductOutboxRepository},
+ * replaying the statements with the values they were bound to, and fails when a plan falls
+ * back to a table scan or stops using the index it is expected to use.
+ * <p>
+ * Queries that read the whole catalog on purpose ({@code findAll}, the unfiltered export)
+ * are not covered. The outbox drainer is kept idle, so its own queries never mix with the
+ * recorded ones.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:queryplans",
+		"products.outbox.drain-interval=1h"
+})
+@Import(ProductRepositoryQueryPlanTests.RecordingConfiguration.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ProductRepositoryQueryPlanTests {
+
+	private static final int CATALOG_SIZE = 2_000;
+
+	private static final String PRIMARY_KEY_LOOKUP = "PUBLIC\\.PRIMARY_KEY_\\w+: ID ";
+
+	private static final String STATUS_LOOKUP = "PUBLIC\\.IDX_PRODUCTS_STATUS_ID: STATUS = ";
+
+	private static final String STATUS_LED_LOOKUP = "PUBLIC\\.IDX_PRODUCTS_STATUS_\\w+: [^*]*STATUS = ";
+
+	private static final String NAME_LOOKUP = "PUBLIC\\.UK_PRODUCTS_NAME_INDEX_\\w+: NAME ";
+
+	private static final String NAME_SCAN = "PUBLIC\\.UK_PRODUCTS_NAME_INDEX_\\w+ \\*/";
+
+	private static final String NAME_LOWER_SCAN = "PUBLIC\\.IDX_PRODUCTS_NAME_LOWER \\*/";
+
+	private static final String STATUS_PRICE_SCAN = "PUBLIC\\.IDX_PRODUCTS_STATUS_PRICE \\*/";
+
+	private static final String CHEAPEST_LOOKUP = "PUBLIC\\.IDX_PRODUCTS_STATUS_PRICE: STATUS = [^*]*\\*/ .*/\\* index sorted \\*/";
+
+	private static final String LOWEST_STOCK_LOOKUP = "PUBLIC\\.IDX_PRODUCTS_STATUS_STOCK: STATUS = [^*]*\\*/ .*/\\* index sorted \\*/";
+
+	private static final String OUTBOX_SEQUENCE_LOOKUP = "PUBLIC\\.IDX_PRODUCT_OUTBOX_SEQUENCE: SEQUENCE_NUMBER ";
+
+	private static final String OUTBOX_SEQUENCE_DIRECT = "PUBLIC\\.IDX_PRODUCT_OUTBOX_SEQUENCE \\*/ /\\* direct lookup \\*/";
+
+	private static final String TABLE_SCAN = ".tableScan";
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private ProductOutboxRepository outboxRepository;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private RecordingDataSource dataSource;
+
+	private List<Long> ids;
+
+	@BeforeAll
+	void seedCatalog() throws SQLException {
+		List<ProductRequest> requests = new ArrayList<>();
+		for (int n = 0; n < CATALOG_SIZE; n++) {
+			requests.add(ProductRequest.builder()
+					.name(String.format("Product %05d", n))
+					.description("Query plan test product")
+					.price(BigDecimal.valueOf(100 + n % 5_000, 2))
+					.stock(n % 50)
+					.status(n % 10 == 0 ? ProductStatus.BLOCKED : ProductStatus.ACTIVE)
+					.build());
+		}
+		ids = productService.createAll(requests).stream()
+				.map(result -> result.product().id())
+				.toList();
+		productService.setStatus(ids.subList(0, CATALOG_SIZE / 10), ProductStatus.BLOCKED);
+		try (Connection connection = dataSource.getTargetDataSource().getConnection();
+				Statement statement = connection.createStatement()) {
+			statement.execute("ANALYZE");
+		}
+	}
+
+	@Test
+	void findByNameContainingIgnoreCaseScansNameLowerIndex() {
+		assertPlans(repository -> repository.findByNameContainingIgnoreCase("ct 0012"), NAME_LOWER_SCAN);
+	}
+
+	@Test
+	void findByNameUsesNameIndex() {
+		assertPlans(repository -> repository.findByName("Product 00042"), NAME_LOOKUP);
+	}
+
+	@Test
+	void findAllByStatusUsesStatusIndex() {
+		assertPlans(repository -> repository.findAllByStatus(ProductStatus.BLOCKED), STATUS_LOOKUP);
+	}
+
+	@Test
+	void findByIdGreaterThanUsesPrimaryKey() {
+		assertPlans(repository -> repository.findByIdGreaterThanOrderByIdAsc(middleId(), Limit.of(20)), PRIMARY_KEY_LOOKUP);
+	}
+
+	@Test
+	void findByStatusAndIdGreaterThanUsesStatusIndex() {
+		assertPlans(repository -> repository.findByStatusAndIdGreaterThanOrderByIdAsc(ProductStatus.ACTIVE, middleId(),
+				Limit.of(20)), STATUS_LOOKUP);
+	}
+
+	@Test
+	void findCheapestByStatusWalksStatusPriceIndex() {
+		assertPlans(repository -> repository.findCheapestByStatus(ProductStatus.ACTIVE, Limit.of(100)), CHEAPEST_LOOKUP);
+	}
+
+	@Test
+	void findLowestStockByStatusWalksStatusStockIndex() {
+		assertPlans(repository -> repository.findLowestStockByStatus(ProductStatus.ACTIVE, Limit.of(100)),
+				LOWEST_STOCK_LOOKUP);
+	}
+
+	@Test
+	void findAllProjectedByScansNameIndex() {
+		assertPlans(repository -> {
+			try (var rows = repository.findAllProjectedBy()) {
+				rows.count();
+			}
+		}, NAME_SCAN);
+	}
+
+	@Test
+	void findVersionByIdUsesPrimaryKey() {
+		assertPlans(repository -> repository.findVersionById(middleId()), PRIMARY_KEY_LOOKUP);
+	}
+
+	@Test
+	void findExistingNamesUsesNameIndex() {
+		assertPlans(repository -> repository.findExistingNames(List.of("Product 00001", "Product 99999")), NAME_LOOKUP);
+	}
+
+	@Test
+	void aggregateByStatusAndPriceScansStatusPriceIndex() {
+		assertPlans(repository -> repository.aggregateByStatusAndPrice(5), STATUS_PRICE_SCAN);
+	}
+
+	@Test
+	void adjustStockUsesPrimaryKey() {
+		assertPlans(repository -> repository.adjustStock(middleId(), 0, LocalDateTime.now()), PRIMARY_KEY_LOOKUP);
+	}
+
+	@Test
+	void lockStatusesOtherThanUsesPrimaryKey() {
+		assertPlans(repository -> repository.lockStatusesOtherThan(someIds(), ProductStatus.DELETED), PRIMARY_KEY_LOOKUP);
+	}
+
+	@Test
+	void updateStatusUsesPrimaryKey() {
+		assertPlans(repository -> repository.updateStatus(someIds(), ProductStatus.DELETED, LocalDateTime.now()),
+				PRIMARY_KEY_LOOKUP);
+	}
+
+	@Test
+	void streamByStatusUsesStatusIndex() {
+		assertPlans(repository -> {
+			try (var products = repository.streamByStatus(ProductStatus.BLOCKED, 100)) {
+				products.count();
+			}
+		}, STATUS_LOOKUP);
+	}
+
+	@Test
+	void findFieldsByStatusUsesStatusIndex() {
+		assertPlans(repository -> repository.findFieldsByStatus(EnumSet.of(ProductField.ID, ProductField.NAME),
+				ProductStatus.BLOCKED), STATUS_LOOKUP);
+	}
+
+	@Test
+	void findFieldsByIdsUsesPrimaryKey() {
+		assertPlans(repository -> repository.findFieldsByIds(EnumSet.of(ProductField.ID, ProductField.NAME), someIds()),
+				PRIMARY_KEY_LOOKUP);
+	}
+
+	@Test
+	void findPageWhereWithOneStatusUsesStatusLedIndex() {
+		assertPlans(repository -> repository.findPageWhere(rangeFilter(Set.of(ProductStatus.ACTIVE)), middleId(), 21),
+				STATUS_LED_LOOKUP);
+	}
+
+	@Test
+	void findPageWhereWithoutStatusUsesPrimaryKey() {
+		assertPlans(repository -> repository.findPageWhere(rangeFilter(null), middleId(), 21), PRIMARY_KEY_LOOKUP);
+	}
+
+	@Test
+	void lockStatusesWhereUsesStatusIndex() {
+		assertPlans(repository -> repository.lockStatusesWhere(nameFilter(), EnumSet.of(ProductStatus.BLOCKED)),
+				STATUS_LOOKUP);
+	}
+
+	@Test
+	void findUndrainedOutboxEntriesUsesSequenceIndex() {
+		assertOutboxPlans(repository -> repository.findBySequenceNumberIsNullOrderByIdAsc(Limit.of(500)),
+				OUTBOX_SEQUENCE_LOOKUP);
+	}
+
+	@Test
+	void findOutboxEntriesAfterSequenceNumberUsesSequenceIndex() {
+		assertOutboxPlans(repository -> repository.findBySequenceNumberGreaterThanOrderBySequenceNumberAsc(100L,
+				Limit.of(21)), OUTBOX_SEQUENCE_LOOKUP);
+	}
+
+	@Test
+	void findMaxSequenceNumberReadsSequenceIndex() {
+		assertOutboxPlans(ProductOutboxRepository::findMaxSequenceNumber, OUTBOX_SEQUENCE_DIRECT);
+	}
+
+	@Test
+	void findMinSequenceNumberReadsSequenceIndex() {
+		assertOutboxPlans(ProductOutboxRepository::findMinSequenceNumber, OUTBOX_SEQUENCE_DIRECT);
+	}
+
+	@Test
+	void deleteDrainedThroughUsesSequenceIndex() {
+		assertOutboxPlans(repository -> repository.deleteDrainedThrough(0), OUTBOX_SEQUENCE_LOOKUP);
+	}
+
+	private void assertPlans(Consumer<ProductRepository> call, String expectedAccess) {
+		assertPlans(productRepository, "products", call, expectedAccess);
+	}
+
+	private void assertOutboxPlans(Consumer<ProductOutboxRepository> call, String expectedAccess) {
+		assertPlans(outboxRepository, "product_outbox", call, expectedAccess);
+	}
+
+	/**
+	 * Runs the repository call in a transaction, then explains every statement it issued
+	 * against the given table.
+	 * @param repository the repository
+	 * @param table the table the call reads or writes
+	 * @param call the repository call
+	 * @param expectedAccess a pattern for the index access every plan must contain,
+	 * matched against the plan with its whitespace collapsed
+	 */
+	private <R> void assertPlans(R repository, String table, Consumer<R> call, String expectedAccess) {
+		dataSource.statements.clear();
+		transactionTemplate.executeWithoutResult(tx -> call.accept(repository));
+		List<RecordedStatement> statements = dataSource.statements.stream()
+				.filter(statement -> statement.sql().toLowerCase(Locale.ROOT).contains(table))
+				.toList();
+		assertFalse(statements.isEmpty(), "No statement was issued against the " + table + " table");
+		for (RecordedStatement statement : statements) {
+			String plan = explain(statement).replaceAll("\\s+", " ");
+			assertFalse(plan.contains(TABLE_SCAN), () -> "Table scan in plan: " + plan);
+			assertTrue(Pattern.compile(expectedAccess).matcher(plan).find(),
+					() -> "Expected " + expectedAccess + " in plan: " + plan);
+		}
+	}
+
+	private String explain(RecordedStatement statement) {
+		try (Connection connection = dataSource.getTargetDataSource().getConnection();
+				PreparedStatement explain = connection.prepareStatement("EXPLAIN " + statement.sql())) {
+			for (Map.Entry<Integer, Object> parameter : statement.parameters().entrySet()) {
+				explain.setObject(parameter.getKey(), parameter.getValue());
+			}
+			try (ResultSet plan = explain.executeQuery()) {
+				plan.next();
+				return plan.getString(1);
+			}
+		} catch (SQLException e) {
+			throw new IllegalStateException("Could not explain " + statement.sql(), e);
+		}
+	}
+
+	private long middleId() {
+		return ids.get(CATALOG_SIZE / 2);
+	}
+
+	private List<Long> someIds() {
+		return ids.subList(CATALOG_SIZE / 2, CATALOG_SIZE / 2 + 10);
+	}
+
+	private static ProductFilter rangeFilter(Set<ProductStatus> statuses) {
+		LocalDateTime now = LocalDateTime.now();
+		return new ProductFilter(statuses, null, BigDecimal.TEN, BigDecimal.valueOf(50), null, 5, now.minusDays(1), now,
+				null, null);
+	}
+
+	private static ProductFilter nameFilter() {
+		return new ProductFilter(Set.of(ProductStatus.BLOCKED), "0012", null, null, null, null, null, null, null, null);
+	}
+
+	/**
+	 * A prepared statement as it was executed.
+	 * @param sql the SQL text
+	 * @param parameters the bound values by parameter index
+	 */
+	record RecordedStatement(String sql, Map<Integer, Object> parameters) {
+	}
+
+	@TestConfiguration
+	static class RecordingConfiguration {
+
+		@Bean
+		static BeanPostProcessor recordingDataSourcePostProcessor() {
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String beanName) {
+					return bean instanceof DataSource dataSource && !(bean instanceof RecordingDataSource)
+							? new RecordingDataSource(dataSource)
+							: bean;
+				}
+			};
+		}
+
+	}
+
+	/**
+	 * Records the SQL and bound values of every prepared statement executed through it.
+	 */
+	static class RecordingDataSource extends DelegatingDataSource {
+
+		private final List<RecordedStatement> statements = new CopyOnWriteArrayList<>();
+
+		RecordingDataSource(DataSource targetDataSource) {
+			super(targetDataSource);
+		}
+
+		@Override
+		public Connection getConnection() throws SQLException {
+			return recording(super.getConnection());
+		}
+
+		@Override
+		public Connection getConnection(String username, String password) throws SQLException {
+			return recording(super.getConnection(username, password));
+		}
+
+		private Connection recording(Connection connection) {
+			return proxy(Connection.class, connection, (method, args, result) -> method.getName().equals("prepareStatement")
+					? recording((PreparedStatement) result, (String) args[0])
+					: result);
+		}
+
+		private PreparedStatement recording(PreparedStatement statement, String sql) {
+			Map<Integer, Object> parameters = new TreeMap<>();
+			return proxy(PreparedStatement.class, statement, (method, args, result) -> {
+				String name = method.getName();
+				if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+					parameters.put(index, name.equals("setNull") ? null : args[1]);
+				} else if (name.equals("clearParameters")) {
+					parameters.clear();
+				} else if (name.startsWith("execute") && (args == null || args.length == 0)) {
+					statements.add(new RecordedStatement(sql, new TreeMap<>(parameters)));
+				}
+				return result;
+			});
+		}
+
+		private static <T> T proxy(Class<T> type, T target, Interception interception) {
+			return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+				try {
+					return interception.apply(method, args, method.invoke(target, args));
+				} catch (InvocationTargetException e) {
+					throw e.getTargetException();
+				}
+			}));
+		}
+
+		private interface Interception {
+
+			Object apply(Method method, Object[] args, Object result) throws Throwable;
+
+		}
+
+	}
+
+}
@@ -0,0 +1,55 @@
+package com.giuliosmtech.products.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class PostingListTests {
+
+	@Test
+	void addKeepsIdsSortedAndDistinct() {
+		PostingList list = listOf(9, 3, 7, 3, 1, 9, 5, 11);
+
+		assertThat(list.toArray()).containsExactly(1, 3, 5, 7, 9, 11);
+		assertThat(list.size()).isEqualTo(6);
+	}
+
+	@Test
+	void removeDropsOnlyPresentIds() {
+		PostingList list = listOf(1, 2, 3, 4);
+
+		list.remove(1);
+		list.remove(4);
+		list.remove(42);
+
+		assertThat(list.toArray()).containsExactly(2, 3);
+		list.remove(2);
+		list.remove(3);
+		assertThat(list.isEmpty()).isTrue();
+	}
+
+	@Test
+	void intersectKeepsCommonIdsInOrder() {
+		PostingList list = listOf(2, 4, 6, 8, 10);
+
+		assertThat(list.intersect(new int[] { 1, 2, 3, 6, 10, 12 }, 6)).containsExactly(2, 6, 10);
+		assertThat(list.intersect(new int[] { 1, 3, 5 }, 3)).isEmpty();
+		assertThat(list.intersect(new int[0], 0)).isEmpty();
+	}
+
+	@Test
+	void intersectReadsOnlyTheGivenLength() {
+		PostingList list = listOf(2, 4, 6);
+
+		assertThat(list.intersect(new int[] { 2, 4, 6 }, 2)).containsExactly(2, 4);
+	}
+
+	private static PostingList listOf(int... ids) {
+		PostingList list = new PostingList();
+		for (int id : ids) {
+			list.add(id);
+		}
+		return list;
+	}
+
+}
@@ -0,0 +1,85 @@
+package com.giuliosmtech.products.search;
+
+import static com.giuliosmtech.products.TestProducts.request;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.giuliosmtech.products.dto.ProductResponse;
+import com.giuliosmtech.products.entity.Product;
+import com.giuliosmtech.products.repository.ProductRepository;
+import com.giuliosmtech.products.service.ProductService;
+
+/**
+ * Checks that the search index answers like the database search, and follows committed
+ * changes only.
+ */
+@SpringBootTest
+class ProductSearchConsistencyTests {
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private ProductSearchIndex productSearchIndex;
+
+	@Test
+	void searchIndexMatchesTheDatabaseSearch() {
+		String tag = UUID.randomUUID().toString().substring(0, 8);
+		for (String name : List.of("Crème BRÛLÉE " + tag, "crème brûlée " + tag + " mix", "Tag_" + tag + " 50%",
+				"TAG" + tag + " 500", "Straße " + tag)) {
+			productService.create(request(name, 1));
+		}
+
+		for (String term : List.of(tag, tag.toUpperCase(), "CRÈME", "brûlée " + tag, "_" + tag, "50%", "0%", "%",
+				"tag", "ss", "STRASSE", "é", "x")) {
+			assertThat(productSearchIndex.search(term))
+					.as("term %s", term)
+					.isEqualTo(productRepository.findByNameContainingIgnoreCase(term).stream().map(Product::getId).sorted().toList());
+		}
+	}
+
+	@Test
+	void searchFollowsCommittedRenamesAndDeletes() {
+		String oldName = "Lamp " + UUID.randomUUID();
+		String newName = "Chair " + UUID.randomUUID();
+		ProductResponse product = productService.create(request(oldName, 1));
+
+		productService.update(product.id(), request(newName, 1), null);
+
+		assertThat(productSearchIndex.search(oldName)).isEmpty();
+		assertThat(productSearchIndex.search(newName)).containsExactly(product.id());
+
+		productService.delete(product.id());
+
+		assertThat(productSearchIndex.search(newName))
+				.isEqualTo(productRepository.findByNameContainingIgnoreCase(newName).stream().map(Product::getId).toList());
+	}
+
+	@Test
+	void rolledBackRenameLeavesTheIndexUnchanged() {
+		String name = "Shelf " + UUID.randomUUID();
+		ProductResponse product = productService.create(request(name, 1));
+
+		transactionTemplate.executeWithoutResult(status -> {
+			productService.update(product.id(), request("Renamed " + name, 1), null);
+			status.setRollbackOnly();
+		});
+
+		assertThat(productSearchIndex.search(name)).containsExactly(product.id());
+		assertThat(productSearchIndex.search("Renamed " + name)).isEmpty();
+	}
+
+}
@@ -0,0 +1,75 @@
+package com.giuliosmtech.products.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class ProductSearchIndexTests {
+
+	private final ProductSearchIndex index = new ProductSearchIndex(null);
+
+	@Test
+	void matchesSubstringsIgnoringCase() {
+		index.index(1L, "Blue Widget");
+		index.index(2L, "WIDGETS Deluxe");
+		index.index(3L, "Gadget");
+
+		assertThat(index.search("widget")).containsExactly(1L, 2L);
+		assertThat(index.search("DeLuXe")).containsExactly(2L);
+		assertThat(index.search("dget")).containsExactly(1L, 2L, 3L);
+		assertThat(index.search("sprocket")).isEmpty();
+	}
+
+	@Test
+	void dropsCandidatesWhoseGramsAreNotContiguous() {
+		index.index(1L, "abc bcd");
+		index.index(2L, "abcd");
+
+		assertThat(index.search("abcd")).containsExactly(2L);
+	}
+
+	@Test
+	void shortTermsScanEveryName() {
+		index.index(1L, "Ax");
+		index.index(2L, "Box");
+		index.index(3L, "Crate");
+
+		assertThat(index.search("x")).containsExactly(1L, 2L);
+		assertThat(index.search("OX")).containsExactly(2L);
+		assertThat(index.search("")).containsExactly(1L, 2L, 3L);
+	}
+
+	@Test
+	void renameRemovesStalePostings() {
+		index.index(1L, "Old Lamp");
+		index.index(1L, "New Chair");
+
+		assertThat(index.search("lamp")).isEmpty();
+		assertThat(index.search("old")).isEmpty();
+		assertThat(index.search("chair")).containsExactly(1L);
+	}
+
+	@Test
+	void removeDropsTheProduct() {
+		index.index(1L, "Desk Lamp");
+		index.index(2L, "Floor Lamp");
+
+		index.remove(1L);
+		index.remove(99L);
+
+		assertThat(index.search("lamp")).containsExactly(2L);
+		assertThat(index.search("la")).containsExactly(2L);
+	}
+
+	@Test
+	void idBeyondIntRangeDisablesTheIndex() {
+		index.index(1L, "Desk Lamp");
+
+		index.index((long) Integer.MAX_VALUE + 1, "Floor Lamp");
+		index.index(2L, "Table Lamp");
+
+		assertThat(index.isReady()).isFalse();
+		assertThat(index.search("lamp")).isEmpty();
+	}
+
+}
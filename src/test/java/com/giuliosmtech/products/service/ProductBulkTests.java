@@ -0,0 +1,112 @@
+package com.giuliosmtech.products.service;
+
+import static com.giuliosmtech.products.TestProducts.request;
+import static com.giuliosmtech.products.TestProducts.uniqueName;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.giuliosmtech.products.dto.ProductBulkResult;
+import com.giuliosmtech.products.dto.ProductRequest;
+import com.giuliosmtech.products.dto.ProductResponse;
+import com.giuliosmtech.products.dto.ProductUpdateRequest;
+import com.giuliosmtech.products.enums.ProductStatus;
+
+/**
+ * Checks that bulk creates and updates report one result per item, in request order, and
+ * that failed items leave the catalog unchanged while the others are written. A chunk size
+ * of 2 spreads the items over several transactions.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:bulk",
+		"products.bulk.chunk-size=2"
+})
+@AutoConfigureMockMvc
+class ProductBulkTests {
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void createAllReportsEachItemAtItsPosition() {
+		String taken = productService.create(request(uniqueName())).name();
+		String repeated = uniqueName();
+		List<ProductRequest> requests = List.of(
+				request(uniqueName()),
+				request(" "),
+				request(repeated),
+				request(repeated),
+				request(taken),
+				request(uniqueName()));
+
+		List<ProductBulkResult> results = productService.createAll(requests);
+
+		assertThat(results).extracting(ProductBulkResult::index).containsExactly(0, 1, 2, 3, 4, 5);
+		assertThat(results).extracting(ProductBulkResult::success).containsExactly(true, false, true, false, false, true);
+		assertThat(results).filteredOn(result -> !result.success())
+				.allMatch(result -> result.product() == null && result.error() != null);
+		for (int i : new int[] { 0, 2, 5 }) {
+			ProductResponse created = results.get(i).product();
+			assertThat(created.name()).isEqualTo(requests.get(i).name());
+			assertThat(productService.getById(created.id())).map(ProductResponse::name).contains(created.name());
+		}
+		assertThat(productService.getByName(repeated)).hasSize(1);
+		assertThat(productService.getByName(taken)).hasSize(1);
+	}
+
+	@Test
+	void updateAllReportsEachItemAtItsPosition() {
+		ProductResponse first = productService.create(request(uniqueName()));
+		ProductResponse second = productService.create(request(uniqueName()));
+		ProductResponse invalid = productService.create(request(uniqueName()));
+		List<ProductUpdateRequest> updates = List.of(
+				new ProductUpdateRequest(first.id(), request(first.name(), "1.50", 3, ProductStatus.BLOCKED)),
+				new ProductUpdateRequest(Long.MAX_VALUE, request(uniqueName())),
+				new ProductUpdateRequest(first.id(), request(first.name(), 4)),
+				new ProductUpdateRequest(invalid.id(), request(invalid.name(), "-1", 1, ProductStatus.ACTIVE)),
+				new ProductUpdateRequest(second.id(), request(second.name(), 7)));
+
+		List<ProductBulkResult> results = productService.updateAll(updates);
+
+		assertThat(results).extracting(ProductBulkResult::index).containsExactly(0, 1, 2, 3, 4);
+		assertThat(results).extracting(ProductBulkResult::success).containsExactly(true, false, false, false, true);
+		ProductResponse updated = productService.getById(first.id()).orElseThrow();
+		assertThat(updated.stock()).isEqualTo(3);
+		assertThat(updated.status()).isEqualTo(ProductStatus.BLOCKED);
+		assertThat(productService.getById(second.id()).orElseThrow().stock()).isEqualTo(7);
+		assertThat(productService.getById(invalid.id()).orElseThrow().price()).isEqualByComparingTo("9.99");
+	}
+
+	@Test
+	void bulkCreateOverRestAnswersWithThePerItemResults() throws Exception {
+		List<ProductRequest> requests = List.of(request(uniqueName()), request(" "));
+
+		mockMvc.perform(post("/api/v1/products/bulk")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(requests)))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(2))
+				.andExpect(jsonPath("$[0].success").value(true))
+				.andExpect(jsonPath("$[0].product.name").value(requests.get(0).name()))
+				.andExpect(jsonPath("$[1].success").value(false))
+				.andExpect(jsonPath("$[1].error").isNotEmpty());
+	}
+
+}
@@ -0,0 +1,67 @@
+package com.giuliosmtech.products.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+import com.giuliosmtech.products.exceptions.InvalidPaginationException;
+
+/**
+ * Checks that cursors decode back to what they encode, and that blank, malformed or foreign
+ * cursors are told apart.
+ */
+class ProductCursorTests {
+
+	@Test
+	void productCursorRoundTrips() {
+		for (long id : new long[] { 1, 42, 1_000_000, Long.MAX_VALUE }) {
+			assertThat(ProductCursor.decode(ProductCursor.encode(id))).isEqualTo(id);
+		}
+	}
+
+	@Test
+	void missingProductCursorStartsFromTheFirstPage() {
+		assertThat(ProductCursor.decode(null)).isZero();
+		assertThat(ProductCursor.decode(" ")).isZero();
+	}
+
+	@Test
+	void malformedProductCursorsAreRejected() {
+		assertThatThrownBy(() -> ProductCursor.decode("not base64!")).isInstanceOf(InvalidPaginationException.class);
+		assertThatThrownBy(() -> ProductCursor.decode(ProductCursor.encode(1L).substring(2)))
+				.isInstanceOf(InvalidPaginationException.class);
+		assertThatThrownBy(() -> ProductCursor.decode(ProductCursor.encode(1L) + "x"))
+				.isInstanceOf(InvalidPaginationException.class);
+	}
+
+	@Test
+	void changeCursorRoundTrips() {
+		for (long position : new long[] { 0, 1, 49, 1_000_000, Long.MAX_VALUE }) {
+			assertThat(ProductCursor.decodeChange(ProductCursor.encodeChange(position))).isEqualTo(position);
+		}
+	}
+
+	@Test
+	void missingCursorStartsFromTheBeginning() {
+		assertThat(ProductCursor.decodeChange(null)).isZero();
+		assertThat(ProductCursor.decodeChange(" ")).isZero();
+	}
+
+	@Test
+	void cursorsOfOneKindAreRejectedAsTheOther() {
+		String productCursor = ProductCursor.encode(7L);
+		String changeCursor = ProductCursor.encodeChange(7L);
+
+		assertThatThrownBy(() -> ProductCursor.decodeChange(productCursor)).isInstanceOf(InvalidPaginationException.class);
+		assertThatThrownBy(() -> ProductCursor.decode(changeCursor)).isInstanceOf(InvalidPaginationException.class);
+	}
+
+	@Test
+	void malformedCursorsAreRejected() {
+		assertThatThrownBy(() -> ProductCursor.decodeChange("not base64!")).isInstanceOf(InvalidPaginationException.class);
+		assertThatThrownBy(() -> ProductCursor.decodeChange(ProductCursor.encodeChange(1).substring(2)))
+				.isInstanceOf(InvalidPaginationException.class);
+	}
+
+}
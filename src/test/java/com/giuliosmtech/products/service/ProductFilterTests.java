@@ -0,0 +1,173 @@
+package com.giuliosmtech.products.service;
+
+import static com.giuliosmtech.products.TestProducts.request;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.giuliosmtech.products.dto.ProductConnection;
+import com.giuliosmtech.products.dto.ProductFilter;
+import com.giuliosmtech.products.dto.ProductResponse;
+import com.giuliosmtech.products.enums.ProductStatus;
+import com.giuliosmtech.products.exceptions.InvalidProductFilterException;
+
+/**
+ * Checks the products a filter selects, page by page. Every test names its products with a
+ * tag of its own and filters on it, so the products of other tests never match.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:filter")
+@AutoConfigureMockMvc
+class ProductFilterTests {
+
+	private static final String FILTER = "/api/v1/products/filter";
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	private String tag;
+
+	@BeforeEach
+	void newTag() {
+		tag = "Filter " + UUID.randomUUID();
+	}
+
+	@Test
+	void filterMatchesProductsMeetingEveryCriterion() {
+		ProductResponse match = create("cheap", "5.00", 8, ProductStatus.ACTIVE);
+		create("pricey", "50.00", 8, ProductStatus.ACTIVE);
+		create("low stock", "5.00", 1, ProductStatus.ACTIVE);
+		create("blocked", "5.00", 8, ProductStatus.BLOCKED);
+		ProductResponse edge = create("edge", "10.00", 5, ProductStatus.ACTIVE);
+
+		ProductFilter filter = new ProductFilter(EnumSet.of(ProductStatus.ACTIVE), tag,
+				new BigDecimal("1.00"), new BigDecimal("10.00"), 5, null, null, null, null, null);
+
+		assertThat(ids(filter, 20)).containsExactly(match.id(), edge.id());
+	}
+
+	@Test
+	void nameTermMatchesAnyCase() {
+		ProductResponse product = create("Mixed Case", "5.00", 1, ProductStatus.ACTIVE);
+
+		assertThat(ids(nameFilter(tag.toUpperCase() + " MIXED"), 20)).containsExactly(product.id());
+	}
+
+	@Test
+	void pagesOfAFilterFollowEachOtherInIdOrder() {
+		List<Long> created = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			created.add(create("item " + i, "5.00", 1, ProductStatus.ACTIVE).id());
+		}
+
+		assertThat(ids(nameFilter(tag), 2)).isEqualTo(created);
+	}
+
+	@Test
+	void createdWindowLeavesOutProductsCreatedBeforeIt() throws Exception {
+		create("early", "5.00", 1, ProductStatus.ACTIVE);
+		Thread.sleep(5);
+		LocalDateTime after = LocalDateTime.now();
+		ProductResponse late = create("late", "5.00", 1, ProductStatus.ACTIVE);
+
+		ProductFilter filter = new ProductFilter(null, tag, null, null, null, null, after, null, null, null);
+
+		assertThat(ids(filter, 20)).containsExactly(late.id());
+	}
+
+	@Test
+	void invertedRangesAreRejected() {
+		ProductFilter prices = new ProductFilter(null, tag, new BigDecimal("2"), BigDecimal.ONE,
+				null, null, null, null, null, null);
+		ProductFilter stock = new ProductFilter(null, tag, null, null, 5, 4, null, null, null, null);
+
+		assertThatThrownBy(() -> productService.getPageWhere(prices, null, null))
+				.isInstanceOf(InvalidProductFilterException.class);
+		assertThatThrownBy(() -> productService.getPageWhere(stock, null, null))
+				.isInstanceOf(InvalidProductFilterException.class);
+	}
+
+	@Test
+	void restFilterBindsTheCriteriaFromTheQuery() throws Exception {
+		create("active", "5.00", 8, ProductStatus.ACTIVE);
+		ProductResponse blocked = create("blocked", "5.00", 8, ProductStatus.BLOCKED);
+
+		mockMvc.perform(get(FILTER)
+				.param("nameContains", tag)
+				.param("statuses", "BLOCKED")
+				.param("minStock", "5"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.edges.length()").value(1))
+				.andExpect(jsonPath("$.edges[0].node.id").value(blocked.id()));
+		mockMvc.perform(get(FILTER).param("minPrice", "2").param("maxPrice", "1"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void restFilterAnswersNotModifiedUntilTheCatalogChanges() throws Exception {
+		create("cached", "5.00", 1, ProductStatus.ACTIVE);
+		String eTag = mockMvc.perform(get(FILTER).param("nameContains", tag))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		mockMvc.perform(get(FILTER).param("nameContains", tag).header(HttpHeaders.IF_NONE_MATCH, eTag))
+				.andExpect(status().isNotModified());
+
+		create("added", "5.00", 1, ProductStatus.ACTIVE);
+
+		mockMvc.perform(get(FILTER).param("nameContains", tag).header(HttpHeaders.IF_NONE_MATCH, eTag))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.edges.length()").value(2));
+	}
+
+	private ProductResponse create(String name, String price, int stock, ProductStatus status) {
+		ProductResponse product = productService.create(request(tag + " " + name, price, stock, ProductStatus.ACTIVE));
+		if (status == ProductStatus.ACTIVE) {
+			return product;
+		}
+		return productService.update(product.id(), request(product.name(), price, stock, status), null);
+	}
+
+	private ProductFilter nameFilter(String term) {
+		return new ProductFilter(null, term, null, null, null, null, null, null, null, null);
+	}
+
+	/**
+	 * Walks every page of a filter.
+	 * @param filter the filter
+	 * @param pageSize the size of each page
+	 * @return the ids of the matching products, in page order
+	 */
+	private List<Long> ids(ProductFilter filter, int pageSize) {
+		List<Long> ids = new ArrayList<>();
+		String after = null;
+		ProductConnection page;
+		do {
+			page = productService.getPageWhere(filter, pageSize, after);
+			assertThat(page.edges().size()).isLessThanOrEqualTo(pageSize);
+			page.edges().forEach(edge -> ids.add(edge.node().id()));
+			after = page.pageInfo().endCursor();
+		} while (page.pageInfo().hasNextPage());
+		return ids;
+	}
+
+}
@@ -0,0 +1,138 @@
+package com.giuliosmtech.products.service;
+
+import static com.giuliosmtech.products.TestProducts.request;
+import static com.giuliosmtech.products.TestProducts.uniqueName;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.giuliosmtech.products.dto.ProductPatch;
+import com.giuliosmtech.products.dto.ProductResponse;
+
+/**
+ * Checks that a patch changes only the fields it names, skips the write when they already
+ * hold the requested values, and is retried on top of a change that wins the race with it.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:patch")
+@AutoConfigureMockMvc
+@Import(ProductPatchTests.ConcurrentChangeConfiguration.class)
+class ProductPatchTests {
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ConcurrentChange concurrentChange;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void patchChangesOnlyTheFieldsItNames() {
+		ProductResponse product = productService.create(request(uniqueName(), 10));
+
+		ProductResponse patched = productService.patch(product.id(),
+				ProductPatch.builder().price(new BigDecimal("5.25")).build());
+
+		assertThat(patched.price()).isEqualByComparingTo("5.25");
+		assertThat(patched.name()).isEqualTo(product.name());
+		assertThat(patched.description()).isEqualTo(product.description());
+		assertThat(patched.stock()).isEqualTo(10);
+		assertThat(patched.status()).isEqualTo(product.status());
+		assertThat(patched.version()).isEqualTo(product.version() + 1);
+	}
+
+	@Test
+	void patchToTheCurrentValuesIsNotWritten() {
+		ProductResponse product = productService.create(request(uniqueName(), 10));
+
+		ProductResponse patched = productService.patch(product.id(),
+				ProductPatch.builder().price(new BigDecimal("9.990")).stock(10).build());
+
+		assertThat(patched.version()).isEqualTo(product.version());
+		assertThat(productService.getById(product.id()).orElseThrow().updatedAt()).isNull();
+	}
+
+	@Test
+	void patchLosingARaceIsRetriedOnTopOfTheWinningChange() {
+		ProductResponse product = productService.create(request(uniqueName(), 10));
+		concurrentChange.arm(product.id(), () -> productService.adjustStock(product.id(), 5));
+
+		ProductResponse patched = productService.patch(product.id(),
+				ProductPatch.builder().price(new BigDecimal("7.00")).build());
+
+		assertThat(patched.price()).isEqualByComparingTo("7.00");
+		assertThat(patched.stock()).isEqualTo(15);
+		assertThat(patched.version()).isEqualTo(product.version() + 2);
+	}
+
+	@Test
+	void patchOverRestKeepsTheFieldsItLeavesOut() throws Exception {
+		ProductResponse product = productService.create(request(uniqueName(), 10));
+
+		mockMvc.perform(patch("/api/v1/products/{id}", product.id())
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"stock\": 3}"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.stock").value(3))
+				.andExpect(jsonPath("$.name").value(product.name()))
+				.andExpect(jsonPath("$.price").value(9.99));
+	}
+
+	/**
+	 * Commits a change to a product right after the next read of it, so the transaction
+	 * that read it loses the optimistic locking race.
+	 */
+	@Aspect
+	static class ConcurrentChange {
+
+		private final AtomicReference<Object> armedId = new AtomicReference<>();
+
+		private final AtomicReference<Runnable> change = new AtomicReference<>();
+
+		void arm(Long id, Runnable change) {
+			this.change.set(change);
+			armedId.set(id);
+		}
+
+		@Around("execution(* com.giuliosmtech.products.repository.ProductRepository+.findById(..)) && args(id)")
+		Object read(ProceedingJoinPoint joinPoint, Object id) throws Throwable {
+			Object result = joinPoint.proceed();
+			Runnable pending = id.equals(armedId.get()) ? change.getAndSet(null) : null;
+			if (pending != null) {
+				CompletableFuture.runAsync(pending).join();
+			}
+			return result;
+		}
+
+	}
+
+	@TestConfiguration(proxyBeanMethods = false)
+	static class ConcurrentChangeConfiguration {
+
+		@Bean
+		ConcurrentChange concurrentChange() {
+			return new ConcurrentChange();
+		}
+
+	}
+
+}
@@ -0,0 +1,98 @@
+package com.giuliosmtech.products.service;
+
+import static com.giuliosmtech.products.TestProducts.request;
+import static com.giuliosmtech.products.TestProducts.uniqueName;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.util.EnumSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.graphql.test.tester.GraphQlTester;
+
+import com.giuliosmtech.products.dto.ProductResponse;
+import com.giuliosmtech.products.enums.ProductField;
+import com.giuliosmtech.products.enums.ProductStatus;
+import com.giuliosmtech.products.search.ProductSearchIndex;
+
+/**
+ * Checks that projected reads fill the id and the requested fields only, leaving every
+ * column that was not selected null.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:projection")
+@AutoConfigureGraphQlTester
+class ProductProjectionTests {
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ProductSearchIndex productSearchIndex;
+
+	@Autowired
+	private GraphQlTester graphQlTester;
+
+	@Test
+	void statusListingFillsOnlyTheSelectedFields() {
+		ProductResponse product = productService.create(request(uniqueName()));
+
+		ProductResponse projected = find(productService.getByStatus(ProductStatus.ACTIVE,
+				EnumSet.of(ProductField.NAME, ProductField.PRICE)), product);
+
+		assertThat(projected.name()).isEqualTo(product.name());
+		assertThat(projected.price()).isEqualByComparingTo(product.price());
+		assertThat(projected.description()).isNull();
+		assertThat(projected.stock()).isNull();
+		assertThat(projected.status()).isNull();
+		assertThat(projected.createdAt()).isNull();
+	}
+
+	@Test
+	void searchFillsOnlyTheSelectedFields() {
+		ProductResponse product = productService.create(request(uniqueName()));
+		await().until(productSearchIndex::isReady);
+
+		ProductResponse projected = find(productService.searchProductsByTerm(product.name(),
+				EnumSet.of(ProductField.STOCK)), product);
+
+		assertThat(projected.stock()).isEqualTo(product.stock());
+		assertThat(projected.name()).isNull();
+		assertThat(projected.price()).isNull();
+		assertThat(projected.createdAt()).isNull();
+	}
+
+	@Test
+	void noSelectedFieldStillReadsTheId() {
+		ProductResponse product = productService.create(request(uniqueName()));
+
+		ProductResponse projected = find(productService.getByStatus(ProductStatus.ACTIVE,
+				EnumSet.noneOf(ProductField.class)), product);
+
+		assertThat(projected.name()).isNull();
+	}
+
+	@Test
+	void graphQlListingAnswersTheSelectedFields() {
+		ProductResponse product = productService.create(request(uniqueName()));
+
+		List<String> names = graphQlTester.document("{ activeProducts { name price } }")
+				.execute()
+				.path("activeProducts[*].name")
+				.entityList(String.class)
+				.get();
+
+		assertThat(names).contains(product.name());
+	}
+
+	private static ProductResponse find(List<ProductResponse> products, ProductResponse product) {
+		return products.stream()
+				.filter(candidate -> product.id().equals(candidate.id()))
+				.findFirst()
+				.orElseThrow();
+	}
+
+}
@@ -0,0 +1,74 @@
+package com.giuliosmtech.products.service;
+
+import static com.giuliosmtech.products.TestProducts.request;
+import static com.giuliosmtech.products.TestProducts.uniqueName;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.giuliosmtech.products.dto.ProductResponse;
+import com.giuliosmtech.products.exceptions.ProductPreconditionFailedException;
+import com.giuliosmtech.products.repository.ProductRepository;
+
+/**
+ * Checks that full updates never overwrite a concurrent change: a stock change racing the
+ * update fails it, and an update based on a version the product has left fails its precondition.
+ */
+@SpringBootTest
+class ProductServiceImplTests {
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	void updateRacingAStockChangeFailsInsteadOfOverwritingIt() {
+		ProductResponse product = productService.create(request(uniqueName(), 10));
+
+		assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+			// The update reads the row here, then a stock change commits before it writes
+			productRepository.findById(product.id()).orElseThrow();
+			CompletableFuture.runAsync(() -> productService.adjustStock(product.id(), 5)).join();
+			productService.update(product.id(), request(product.name(), 1), null);
+		})).isInstanceOf(OptimisticLockingFailureException.class);
+
+		assertThat(productService.getById(product.id()).orElseThrow().stock()).isEqualTo(15);
+	}
+
+	@Test
+	void updateAtAnOlderVersionFailsItsPrecondition() {
+		ProductResponse product = productService.create(request(uniqueName(), 10));
+		productService.adjustStock(product.id(), 5);
+
+		assertThatThrownBy(() -> productService.update(product.id(), request(product.name(), 1), Set.of(product.version())))
+				.isInstanceOf(ProductPreconditionFailedException.class);
+
+		assertThat(productService.getById(product.id()).orElseThrow().stock()).isEqualTo(15);
+	}
+
+	@Test
+	void updateAtAnyExpectedVersionSucceeds() {
+		ProductResponse product = productService.create(request(uniqueName(), 10));
+		productService.adjustStock(product.id(), 5);
+
+		ProductResponse updated = productService.update(product.id(), request(product.name(), 1),
+				Set.of(product.version(), product.version() + 1));
+
+		assertThat(updated.stock()).isEqualTo(1);
+		assertThat(updated.version()).isEqualTo(product.version() + 2);
+	}
+
+}
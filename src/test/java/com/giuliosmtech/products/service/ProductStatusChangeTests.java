@@ -0,0 +1,246 @@
+package com.giuliosmtech.products.service;
+
+import static com.giuliosmtech.products.TestProducts.request;
+import static com.giuliosmtech.products.TestProducts.uniqueName;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.giuliosmtech.products.dto.CatalogStats;
+import com.giuliosmtech.products.dto.ProductFilter;
+import com.giuliosmtech.products.entity.ProductOutboxEntry;
+import com.giuliosmtech.products.enums.ProductStatus;
+import com.giuliosmtech.products.events.ProductChangeBus;
+import com.giuliosmtech.products.events.ProductChangeEvent;
+import com.giuliosmtech.products.repository.ProductOutboxRepository;
+
+import reactor.core.Disposable;
+
+/**
+ * Checks bulk status changes over products coming from several statuses: the count
+ * returned, the outbox records and events written for each moved product with the status
+ * it came from, and the catalog statistics, also when several changes race over the same
+ * products. The outbox is not drained, so its records stay readable.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:statuschange",
+		"products.outbox.drain-interval=1h"
+})
+@AutoConfigureMockMvc
+class ProductStatusChangeTests {
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ProductOutboxRepository outboxRepository;
+
+	@Autowired
+	private ProductChangeBus productChangeBus;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	/** The last outbox record written while setting up the products of a test. */
+	private long setupOutboxId;
+
+	@Test
+	void setStatusMovesProductsFromEveryOtherStatus() {
+		Map<Long, ProductStatus> products = createMixed(uniqueName());
+		List<Long> ids = new ArrayList<>(products.keySet());
+		ids.add(Long.MAX_VALUE);
+		CatalogStats before = productService.getCatalogStats();
+
+		int moved = productService.setStatus(ids, ProductStatus.BLOCKED);
+
+		assertThat(moved).isEqualTo(4);
+		assertMovedFrom(products, ProductStatus.BLOCKED, undrainedChanges(products.keySet()));
+		assertStatusDeltas(before, Map.of(ProductStatus.ACTIVE, -3L, ProductStatus.BLOCKED, 4L, ProductStatus.DELETED, -1L));
+	}
+
+	@Test
+	void setStatusWhereMovesProductsFromEveryOtherStatus() {
+		String name = uniqueName();
+		Map<Long, ProductStatus> products = createMixed(name);
+		CatalogStats before = productService.getCatalogStats();
+
+		int moved = productService.setStatusWhere(filter(name), ProductStatus.ACTIVE);
+
+		assertThat(moved).isEqualTo(3);
+		assertMovedFrom(products, ProductStatus.ACTIVE, undrainedChanges(products.keySet()));
+		assertStatusDeltas(before, Map.of(ProductStatus.ACTIVE, 3L, ProductStatus.BLOCKED, -2L, ProductStatus.DELETED, -1L));
+	}
+
+	@Test
+	void subscribersReceiveOneEventPerMovedProduct() {
+		String name = uniqueName();
+		Map<Long, ProductStatus> products = createMixed(name);
+		List<ProductChangeEvent> events = new CopyOnWriteArrayList<>();
+		Disposable subscription = productChangeBus.subscribe(products.keySet(), null).subscribe(events::add);
+		try {
+			assertThat(productService.setStatusWhere(filter(name), ProductStatus.DELETED)).isEqualTo(5);
+		} finally {
+			subscription.dispose();
+		}
+
+		assertThat(events).allSatisfy(event -> assertThat(event.product().status()).isEqualTo(ProductStatus.DELETED));
+		assertMovedFrom(products, ProductStatus.DELETED, events.stream()
+				.collect(Collectors.toMap(event -> event.product().id(), ProductChangeEvent::previousStatus)));
+	}
+
+	@Test
+	void setStatusOfCandidatesAllFromOneStatus() {
+		Map<Long, ProductStatus> products = createMixed(uniqueName());
+		List<Long> active = products.entrySet().stream()
+				.filter(entry -> entry.getValue() == ProductStatus.ACTIVE)
+				.map(Map.Entry::getKey)
+				.toList();
+		CatalogStats before = productService.getCatalogStats();
+
+		assertThat(productService.setStatus(active, ProductStatus.DELETED)).isEqualTo(3);
+
+		assertThat(undrainedChanges(active)).containsOnlyKeys(active).containsValues(ProductStatus.ACTIVE);
+		assertStatusDeltas(before, Map.of(ProductStatus.ACTIVE, -3L, ProductStatus.BLOCKED, 0L, ProductStatus.DELETED, 3L));
+	}
+
+	@Test
+	void concurrentMovesOfTheSameProductsMoveEachOnce() {
+		String name = uniqueName();
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			ids.add(productService.create(request(name + " " + i)).id());
+		}
+		markSetupDone();
+		List<ProductChangeEvent> events = new CopyOnWriteArrayList<>();
+		Disposable subscription = productChangeBus.subscribe(Set.copyOf(ids), null).subscribe(events::add);
+		CatalogStats before = productService.getCatalogStats();
+		CyclicBarrier start = new CyclicBarrier(4);
+		try {
+			List<CompletableFuture<Integer>> moves = IntStream.range(0, 4)
+					.mapToObj(i -> CompletableFuture.supplyAsync(() -> {
+						await(start);
+						return i % 2 == 0
+								? productService.setStatus(ids, ProductStatus.BLOCKED)
+								: productService.setStatusWhere(filter(name), ProductStatus.BLOCKED);
+					}))
+					.toList();
+
+			assertThat(moves.stream().mapToInt(CompletableFuture::join).sum()).isEqualTo(ids.size());
+		} finally {
+			subscription.dispose();
+		}
+
+		// each product is recorded once, coming from ACTIVE, or collecting the changes fails on a duplicate
+		assertThat(undrainedChanges(ids)).containsOnlyKeys(ids).containsValues(ProductStatus.ACTIVE);
+		assertThat(events).hasSize(ids.size())
+				.allSatisfy(event -> assertThat(event.previousStatus()).isEqualTo(ProductStatus.ACTIVE));
+		assertStatusDeltas(before, Map.of(ProductStatus.ACTIVE, -20L, ProductStatus.BLOCKED, 20L, ProductStatus.DELETED, 0L));
+	}
+
+	@Test
+	void deletingTwiceDeletesOnce() {
+		Long id = productService.create(request(uniqueName())).id();
+
+		assertThat(productService.delete(id)).isEqualTo(1);
+		assertThat(productService.delete(id)).isZero();
+	}
+
+	@Test
+	void deleteOfDeletedProductReturnsNotFound() throws Exception {
+		Long id = productService.create(request(uniqueName())).id();
+
+		mockMvc.perform(delete("/api/v1/products/{id}", id))
+				.andExpect(status().isNoContent());
+		mockMvc.perform(delete("/api/v1/products/{id}", id))
+				.andExpect(status().isNotFound());
+	}
+
+	/**
+	 * Creates three active, two blocked and one deleted product.
+	 * @param name the name shared by the products
+	 * @return the products with their status
+	 */
+	private Map<Long, ProductStatus> createMixed(String name) {
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < 6; i++) {
+			ids.add(productService.create(request(name + " " + i)).id());
+		}
+		productService.setStatus(ids.subList(3, 5), ProductStatus.BLOCKED);
+		productService.setStatus(ids.subList(5, 6), ProductStatus.DELETED);
+		markSetupDone();
+		return Map.of(ids.get(0), ProductStatus.ACTIVE, ids.get(1), ProductStatus.ACTIVE, ids.get(2), ProductStatus.ACTIVE,
+				ids.get(3), ProductStatus.BLOCKED, ids.get(4), ProductStatus.BLOCKED, ids.get(5), ProductStatus.DELETED);
+	}
+
+	/**
+	 * Remembers the last outbox record written so far, to tell apart the records of the test.
+	 */
+	private void markSetupDone() {
+		setupOutboxId = outboxRepository.findBySequenceNumberIsNullOrderByIdAsc(Limit.unlimited()).stream()
+				.mapToLong(ProductOutboxEntry::getId)
+				.max()
+				.orElse(0L);
+	}
+
+	/**
+	 * Reads the outbox records written since the products were set up.
+	 * @param ids the products of interest
+	 * @return the previous status recorded for each product
+	 */
+	private Map<Long, ProductStatus> undrainedChanges(Collection<Long> ids) {
+		return outboxRepository.findBySequenceNumberIsNullOrderByIdAsc(Limit.unlimited()).stream()
+				.filter(entry -> entry.getId() > setupOutboxId && ids.contains(entry.getProductId()))
+				.collect(Collectors.toMap(ProductOutboxEntry::getProductId, ProductOutboxEntry::getPreviousStatus));
+	}
+
+	private static void assertMovedFrom(Map<Long, ProductStatus> products, ProductStatus status,
+			Map<Long, ProductStatus> changes) {
+		Map<Long, ProductStatus> expected = products.entrySet().stream()
+				.filter(entry -> entry.getValue() != status)
+				.collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+		assertThat(changes).isEqualTo(expected);
+	}
+
+	private void assertStatusDeltas(CatalogStats before, Map<ProductStatus, Long> deltas) {
+		Map<ProductStatus, Long> counts = counts(before);
+		Map<ProductStatus, Long> after = counts(productService.getCatalogStats());
+		deltas.forEach((status, delta) -> assertThat(after.get(status) - counts.get(status)).as("%s", status).isEqualTo(delta));
+		assertThat(productService.getCatalogStats().total()).isEqualTo(before.total());
+	}
+
+	private static Map<ProductStatus, Long> counts(CatalogStats stats) {
+		return stats.byStatus().stream()
+				.collect(Collectors.toMap(CatalogStats.StatusCount::status, CatalogStats.StatusCount::count));
+	}
+
+	private static ProductFilter filter(String name) {
+		return new ProductFilter(Set.of(), name, null, null, null, null, null, null, null, null);
+	}
+
+	private static void await(CyclicBarrier barrier) {
+		try {
+			barrier.await();
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
@@ -0,0 +1,92 @@
+package com.giuliosmtech.products.stats;
+
+import static com.giuliosmtech.products.TestProducts.request;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.giuliosmtech.products.dto.CatalogStats;
+import com.giuliosmtech.products.dto.ProductFilter;
+import com.giuliosmtech.products.dto.ProductPatch;
+import com.giuliosmtech.products.dto.ProductResponse;
+import com.giuliosmtech.products.dto.ProductUpdateRequest;
+import com.giuliosmtech.products.enums.ProductStatus;
+import com.giuliosmtech.products.repository.ProductRepository;
+import com.giuliosmtech.products.service.ProductService;
+
+/**
+ * Checks that the incrementally maintained statistics always equal those seeded afresh
+ * from {@code aggregateByStatusAndPrice}, after every kind of mutation.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:catalogstats",
+		"products.stats.low-stock-threshold=" + ProductCatalogStatsTests.LOW_STOCK_THRESHOLD,
+		"products.stats.price-buckets=10,25,50"
+})
+class ProductCatalogStatsTests {
+
+	static final int LOW_STOCK_THRESHOLD = 5;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Test
+	void statsMatchTheDatabaseAfterEveryChange() {
+		String name = "Stats " + UUID.randomUUID();
+		ProductResponse cheap = productService.create(request(name + " cheap", "4.99", 2, ProductStatus.ACTIVE));
+		ProductResponse mid = productService.create(request(name + " mid", "25.00", 40, ProductStatus.ACTIVE));
+		ProductResponse blocked = productService.create(request(name + " blocked", "49.995", 5, ProductStatus.ACTIVE));
+		productService.createAll(List.of(
+				request(name + " bulk 1", "100.00", 0, ProductStatus.ACTIVE),
+				request(name + " bulk 2", "10.00", 6, ProductStatus.ACTIVE)));
+		assertMatchesDatabase("create");
+
+		// products are always created active
+		productService.setStatus(List.of(blocked.id()), ProductStatus.BLOCKED);
+		assertMatchesDatabase("block");
+
+		productService.update(cheap.id(), request(cheap.name(), "60.00", 9, ProductStatus.BLOCKED), null);
+		assertMatchesDatabase("update");
+
+		productService.patch(mid.id(), ProductPatch.builder().price(new BigDecimal("9.99")).build());
+		assertMatchesDatabase("patch");
+
+		productService.adjustStock(mid.id(), -36);
+		assertMatchesDatabase("stock adjustment");
+
+		productService.updateAll(List.of(new ProductUpdateRequest(mid.id(),
+				request(mid.name(), "12.50", 1, ProductStatus.ACTIVE))));
+		assertMatchesDatabase("bulk update");
+
+		productService.setStatus(List.of(cheap.id(), mid.id()), ProductStatus.ACTIVE);
+		assertMatchesDatabase("status change");
+
+		productService.setStatusWhere(new ProductFilter(Set.of(ProductStatus.ACTIVE), name, null, null, null, null,
+				null, null, null, null), ProductStatus.BLOCKED);
+		assertMatchesDatabase("status change by filter");
+
+		productService.delete(mid.id());
+		assertMatchesDatabase("delete");
+	}
+
+	private void assertMatchesDatabase(String change) {
+		ProductCatalogStats seeded = new ProductCatalogStats(productRepository, LOW_STOCK_THRESHOLD,
+				List.of(new BigDecimal("10"), new BigDecimal("25"), new BigDecimal("50")));
+		seeded.seed();
+		CatalogStats expected = seeded.snapshot();
+
+		assertThat(productService.getCatalogStats()).as("after %s", change).isEqualTo(expected);
+		assertThat(expected.total()).isEqualTo(productRepository.count());
+	}
+
+}